@@ -11,6 +11,8 @@ package com.rts.jnn.core.activation;
  * <ul>
  *   <li>{@link BentIdentityActivation} - Smooth alternative with non-zero gradients</li>
  *   <li>{@link ELUActivation} - Exponential Linear Unit with negative values</li>
+ *   <li>{@link FastELUActivation}, {@link FastSigmoidActivation}, {@link FastSwishActivation},
+ *       {@link FastTanhActivation} - Table-based approximations with bounded error</li>
  *   <li>{@link LeakyReLUActivation} - ReLU variant with small negative slope</li>
  *   <li>{@link LinearActivation} - Simple identity function</li>
  *   <li>{@link ReLUActivation} - Rectified Linear Unit</li>
@@ -29,6 +31,9 @@ package com.rts.jnn.core.activation;
  *
  * // Backpropagation
  * double derivative = sigmoid.derivative(output);
+ *
+ * // Whole layer at once
+ * sigmoid.activate(weightedSums, outputs, 0, outputs.length);
  * }</pre>
  *
  * <h2>Implementation Requirements:</h2>
@@ -75,4 +80,41 @@ public interface ActivationFunction {
      * @return Derivative value at x
      */
     double derivative(double x);
+
+    /**
+     * Applies the activation function to a slice of an array.
+     *
+     * <p>Computes {@code out[i] = activate(in[i])} for {@code i} in
+     * {@code [off, off + len)}. Layers call this once per layer instead of once per
+     * neuron, which keeps the call site monomorphic per implementation and lets the
+     * JIT inline and vectorize the loop. {@code in} and {@code out} may be the same
+     * array. The default implementation delegates to {@link #activate(double)};
+     * implementations override it with a specialized loop.</p>
+     *
+     * @param in  Input values
+     * @param out Output values
+     * @param off Offset of the first element in both arrays
+     * @param len Number of elements
+     */
+    default void activate(double[] in, double[] out, int off, int len) {
+        for (int i = off, end = off + len; i < end; i++) {
+            out[i] = activate(in[i]);
+        }
+    }
+
+    /**
+     * Replaces a slice of an array with the derivative at each element.
+     *
+     * <p>Computes {@code x[i] = derivative(x[i])} for {@code i} in {@code [off, off + len)},
+     * with the same input convention as {@link #derivative(double)}.</p>
+     *
+     * @param x   Values, overwritten with the derivatives
+     * @param off Offset of the first element
+     * @param len Number of elements
+     */
+    default void derivativeInPlace(double[] x, int off, int len) {
+        for (int i = off, end = off + len; i < end; i++) {
+            x[i] = derivative(x[i]);
+        }
+    }
 }
\ No newline at end of file
@@ -63,4 +63,35 @@ public class BentIdentityActivation implements ActivationFunction {
     public double derivative(double x) {
         return x / (2 * Math.sqrt(x * x + 1)) + 1;
     }
+
+    /**
+     * Computes Bent Identity for a slice of an array in a single loop.
+     *
+     * @param in  Input values
+     * @param out Output values, may be the same array as in
+     * @param off Offset of the first element
+     * @param len Number of elements
+     */
+    @Override
+    public void activate(double[] in, double[] out, int off, int len) {
+        for (int i = off, end = off + len; i < end; i++) {
+            double v = in[i];
+            out[i] = (Math.sqrt(v * v + 1) - 1) / 2 + v;
+        }
+    }
+
+    /**
+     * Replaces a slice of inputs with the Bent Identity derivative in a single loop.
+     *
+     * @param x   Values, overwritten with the derivatives
+     * @param off Offset of the first element
+     * @param len Number of elements
+     */
+    @Override
+    public void derivativeInPlace(double[] x, int off, int len) {
+        for (int i = off, end = off + len; i < end; i++) {
+            double v = x[i];
+            x[i] = v / (2 * Math.sqrt(v * v + 1)) + 1;
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,112 @@
+package com.rts.jnn.core.activation;
+
+/**
+ * Implements an approximate Exponential Linear Unit (ELU) using a lookup table.
+ *
+ * <p>Behaves like {@link ELUActivation} but replaces {@code Math.exp} for negative
+ * inputs with linear interpolation in a table of 1025 samples of e^x on [-16, 0].
+ * Below -16 the exponential is clamped to its table value, so the output saturates at
+ * -α.</p>
+ *
+ * <h2>Accuracy:</h2>
+ * <ul>
+ *   <li>Maximum absolute error of {@link #activate(double)} and
+ *       {@link #derivative(double)}: 3.1e-5 · α</li>
+ *   <li>Positive inputs are exact</li>
+ * </ul>
+ *
+ * @see ELUActivation
+ */
+public class FastELUActivation implements ActivationFunction {
+
+    /**
+     * Maximum absolute error of the approximation for α = 1
+     */
+    public static final double MAX_ERROR = 3.1e-5;
+
+    private static final InterpolationTable EXP = new InterpolationTable(Math::exp, -16, 0, 1024);
+
+    private final double alpha;
+
+    /**
+     * Creates a new approximate ELU activation function with specified alpha parameter.
+     *
+     * @param alpha Scale for negative values (typically 1.0)
+     * @throws IllegalArgumentException if alpha is not positive
+     */
+    public FastELUActivation(double alpha) {
+        if (alpha <= 0) {
+            throw new IllegalArgumentException("Alpha must be positive");
+        }
+        this.alpha = alpha;
+    }
+
+    /**
+     * Creates a new approximate ELU activation function with default alpha of 1.0.
+     */
+    public FastELUActivation() {
+        this(1.0);
+    }
+
+    /**
+     * Computes approximate ELU activation.
+     *
+     * @param x Input value
+     * @return x if x > 0, approximately α(e^x - 1) otherwise
+     */
+    @Override
+    public double activate(double x) {
+        return x > 0 ? x : alpha * (EXP.valueAt(x) - 1);
+    }
+
+    /**
+     * Computes approximate ELU derivative.
+     *
+     * @param x Input value
+     * @return 1 if x > 0, approximately α * e^x otherwise
+     */
+    @Override
+    public double derivative(double x) {
+        return x > 0 ? 1.0 : alpha * EXP.valueAt(x);
+    }
+
+    /**
+     * Computes approximate ELU for a slice of an array in a single loop.
+     *
+     * @param in  Input values
+     * @param out Output values, may be the same array as in
+     * @param off Offset of the first element
+     * @param len Number of elements
+     */
+    @Override
+    public void activate(double[] in, double[] out, int off, int len) {
+        for (int i = off, end = off + len; i < end; i++) {
+            double v = in[i];
+            out[i] = v > 0 ? v : alpha * (EXP.valueAt(v) - 1);
+        }
+    }
+
+    /**
+     * Replaces a slice of inputs with the approximate ELU derivative in a single loop.
+     *
+     * @param x   Values, overwritten with the derivatives
+     * @param off Offset of the first element
+     * @param len Number of elements
+     */
+    @Override
+    public void derivativeInPlace(double[] x, int off, int len) {
+        for (int i = off, end = off + len; i < end; i++) {
+            double v = x[i];
+            x[i] = v > 0 ? 1.0 : alpha * EXP.valueAt(v);
+        }
+    }
+
+    /**
+     * Gets the alpha parameter used by this activation function.
+     *
+     * @return The alpha value
+     */
+    public double getAlpha() {
+        return alpha;
+    }
+}
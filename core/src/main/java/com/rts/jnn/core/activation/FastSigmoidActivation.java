@@ -0,0 +1,93 @@
+package com.rts.jnn.core.activation;
+
+/**
+ * Implements an approximate Sigmoid activation function using a lookup table.
+ *
+ * <p>Behaves like {@link SigmoidActivation} but replaces the call to {@code Math.exp}
+ * with linear interpolation in a table of 2049 samples on [-16, 16]. Outside that
+ * interval the output is clamped to the saturated table values.</p>
+ *
+ * <h2>Accuracy:</h2>
+ * <ul>
+ *   <li>Maximum absolute error of {@link #activate(double)}: 3e-6</li>
+ *   <li>{@link #derivative(double)} is exact: like {@link SigmoidActivation} it takes the
+ *       sigmoid output and returns f(x) * (1 - f(x))</li>
+ * </ul>
+ *
+ * <h2>Example Usage:</h2>
+ * <pre>{@code
+ * // Exact sigmoid for training, fast sigmoid on the hidden layer of a serving network
+ * network.addLayer(20, new FastSigmoidActivation(), new XavierInitialization());
+ * }</pre>
+ *
+ * @see SigmoidActivation
+ */
+public class FastSigmoidActivation implements ActivationFunction {
+
+    /**
+     * Maximum absolute error of the approximation
+     */
+    public static final double MAX_ERROR = 3e-6;
+
+    private static final InterpolationTable SIGMOID =
+            new InterpolationTable(x -> 1 / (1 + Math.exp(-x)), -16, 16, 2048);
+
+    /**
+     * Returns the table approximation of 1 / (1 + e^(-x)).
+     */
+    static double sigmoid(double x) {
+        return SIGMOID.valueAt(x);
+    }
+
+    /**
+     * Computes the approximate sigmoid function.
+     *
+     * @param x Input value
+     * @return Sigmoid output in range [0,1], within {@link #MAX_ERROR} of the exact value
+     */
+    @Override
+    public double activate(double x) {
+        return SIGMOID.valueAt(x);
+    }
+
+    /**
+     * Computes the derivative of sigmoid: f'(x) = f(x) * (1 - f(x))
+     *
+     * @param x The sigmoid output value (not the original input)
+     * @return The derivative value
+     */
+    @Override
+    public double derivative(double x) {
+        return x * (1 - x);
+    }
+
+    /**
+     * Computes the approximate sigmoid for a slice of an array in a single loop.
+     *
+     * @param in  Input values
+     * @param out Output values, may be the same array as in
+     * @param off Offset of the first element
+     * @param len Number of elements
+     */
+    @Override
+    public void activate(double[] in, double[] out, int off, int len) {
+        for (int i = off, end = off + len; i < end; i++) {
+            out[i] = SIGMOID.valueAt(in[i]);
+        }
+    }
+
+    /**
+     * Replaces a slice of sigmoid outputs with the sigmoid derivative in a single loop.
+     *
+     * @param x   Values, overwritten with the derivatives
+     * @param off Offset of the first element
+     * @param len Number of elements
+     */
+    @Override
+    public void derivativeInPlace(double[] x, int off, int len) {
+        for (int i = off, end = off + len; i < end; i++) {
+            double v = x[i];
+            x[i] = v * (1 - v);
+        }
+    }
+}
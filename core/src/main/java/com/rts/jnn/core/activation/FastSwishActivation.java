@@ -0,0 +1,81 @@
+package com.rts.jnn.core.activation;
+
+/**
+ * Implements an approximate Swish activation function using a sigmoid lookup table.
+ *
+ * <p>Behaves like {@link SwishActivation} but takes the sigmoid from the table of
+ * {@link FastSigmoidActivation} instead of calling {@code Math.exp}, both in the
+ * activation and in the derivative, which reuses one table lookup for the sigmoid.</p>
+ *
+ * <h2>Accuracy:</h2>
+ * <ul>
+ *   <li>Maximum absolute error of {@link #activate(double)} and {@link #derivative(double)}:
+ *       1e-5 for |x| &le; 64</li>
+ *   <li>Beyond the sigmoid table the error grows by about 1.2e-7 · |x|, because the
+ *       sigmoid is clamped</li>
+ * </ul>
+ *
+ * @see SwishActivation
+ */
+public class FastSwishActivation implements ActivationFunction {
+
+    /**
+     * Maximum absolute error of the approximation for |x| &le; 64
+     */
+    public static final double MAX_ERROR = 1e-5;
+
+    /**
+     * Computes the approximate Swish activation: x * sigmoid(x)
+     *
+     * @param x Input value
+     * @return Swish output, within {@link #MAX_ERROR} of the exact value
+     */
+    @Override
+    public double activate(double x) {
+        return x * FastSigmoidActivation.sigmoid(x);
+    }
+
+    /**
+     * Computes the approximate derivative of Swish.
+     *
+     * @param x Input value
+     * @return sigmoid(x) + x * sigmoid(x) * (1 - sigmoid(x))
+     */
+    @Override
+    public double derivative(double x) {
+        double sigmoid = FastSigmoidActivation.sigmoid(x);
+        return sigmoid + x * sigmoid * (1 - sigmoid);
+    }
+
+    /**
+     * Computes the approximate Swish for a slice of an array in a single loop.
+     *
+     * @param in  Input values
+     * @param out Output values, may be the same array as in
+     * @param off Offset of the first element
+     * @param len Number of elements
+     */
+    @Override
+    public void activate(double[] in, double[] out, int off, int len) {
+        for (int i = off, end = off + len; i < end; i++) {
+            double v = in[i];
+            out[i] = v * FastSigmoidActivation.sigmoid(v);
+        }
+    }
+
+    /**
+     * Replaces a slice of inputs with the approximate Swish derivative in a single loop.
+     *
+     * @param x   Values, overwritten with the derivatives
+     * @param off Offset of the first element
+     * @param len Number of elements
+     */
+    @Override
+    public void derivativeInPlace(double[] x, int off, int len) {
+        for (int i = off, end = off + len; i < end; i++) {
+            double v = x[i];
+            double sigmoid = FastSigmoidActivation.sigmoid(v);
+            x[i] = sigmoid + v * sigmoid * (1 - sigmoid);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.rts.jnn.core.activation;
+
+/**
+ * Implements an approximate hyperbolic tangent activation function using a lookup table.
+ *
+ * <p>Behaves like {@link TanhActivation} but replaces {@code Math.tanh} with linear
+ * interpolation in a table of 2049 samples on [-8, 8]. Outside that interval the output
+ * is clamped to the saturated table values.</p>
+ *
+ * <h2>Accuracy:</h2>
+ * <ul>
+ *   <li>Maximum absolute error of {@link #activate(double)} and {@link #derivative(double)}: 1e-5</li>
+ * </ul>
+ *
+ * <p>The derivative follows the same convention as {@link TanhActivation#derivative(double)}.</p>
+ *
+ * @see TanhActivation
+ */
+public class FastTanhActivation implements ActivationFunction {
+
+    /**
+     * Maximum absolute error of the approximation
+     */
+    public static final double MAX_ERROR = 1e-5;
+
+    private static final InterpolationTable TANH = new InterpolationTable(Math::tanh, -8, 8, 2048);
+
+    /**
+     * Computes the approximate hyperbolic tangent.
+     *
+     * @param x Input value
+     * @return Tanh output in range [-1,1], within {@link #MAX_ERROR} of the exact value
+     */
+    @Override
+    public double activate(double x) {
+        return TANH.valueAt(x);
+    }
+
+    /**
+     * Computes the approximate derivative 1 - tanh²(x).
+     *
+     * @param x Input value, as for {@link TanhActivation#derivative(double)}
+     * @return The derivative value
+     */
+    @Override
+    public double derivative(double x) {
+        double tanh = TANH.valueAt(x);
+        return 1 - (tanh * tanh);
+    }
+
+    /**
+     * Computes the approximate tanh for a slice of an array in a single loop.
+     *
+     * @param in  Input values
+     * @param out Output values, may be the same array as in
+     * @param off Offset of the first element
+     * @param len Number of elements
+     */
+    @Override
+    public void activate(double[] in, double[] out, int off, int len) {
+        for (int i = off, end = off + len; i < end; i++) {
+            out[i] = TANH.valueAt(in[i]);
+        }
+    }
+
+    /**
+     * Replaces a slice of values with the approximate tanh derivative in a single loop.
+     *
+     * @param x   Values, overwritten with the derivatives
+     * @param off Offset of the first element
+     * @param len Number of elements
+     */
+    @Override
+    public void derivativeInPlace(double[] x, int off, int len) {
+        for (int i = off, end = off + len; i < end; i++) {
+            double tanh = TANH.valueAt(x[i]);
+            x[i] = 1 - (tanh * tanh);
+        }
+    }
+}
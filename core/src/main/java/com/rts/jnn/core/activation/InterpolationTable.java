@@ -0,0 +1,62 @@
+package com.rts.jnn.core.activation;
+
+import java.util.function.DoubleUnaryOperator;
+
+/**
+ * Piecewise-linear lookup table for a smooth function on a closed interval.
+ *
+ * <p>The function is sampled at {@code intervals + 1} evenly spaced points; values in
+ * between are linearly interpolated and values outside the interval are clamped to the
+ * value at the nearest end point. For a function with bounded second derivative the
+ * interpolation error inside the interval is at most {@code h² / 8 · max|f''|}, where
+ * {@code h} is the spacing of the sample points.</p>
+ *
+ * <p>Tables are immutable after construction and safe to share between threads.</p>
+ */
+final class InterpolationTable {
+
+    private final double min;
+    private final double max;
+    private final double scale;
+    private final int intervals;
+    private final double[] values;
+
+    /**
+     * Samples a function on [min, max].
+     *
+     * @param function  Function to tabulate
+     * @param min       Lower end of the interval
+     * @param max       Upper end of the interval
+     * @param intervals Number of interpolation intervals
+     */
+    InterpolationTable(DoubleUnaryOperator function, double min, double max, int intervals) {
+        this.min = min;
+        this.max = max;
+        this.intervals = intervals;
+        this.scale = intervals / (max - min);
+        this.values = new double[intervals + 1];
+        for (int i = 0; i <= intervals; i++) {
+            values[i] = function.applyAsDouble(min + i / scale);
+        }
+    }
+
+    /**
+     * Returns the interpolated function value, clamped outside the table interval.
+     *
+     * @param x Argument
+     * @return Approximate function value
+     */
+    double valueAt(double x) {
+        if (x <= min) {
+            return values[0];
+        }
+        if (x >= max) {
+            return values[intervals];
+        }
+        double position = (x - min) * scale;
+        int i = Math.min((int) position, intervals - 1);
+        double t = position - i;
+        double v0 = values[i];
+        return v0 + t * (values[i + 1] - v0);
+    }
+}
@@ -98,4 +98,34 @@ public class LeakyReLUActivation implements ActivationFunction {
     public double getAlpha() {
         return alpha;
     }
+
+    /**
+     * Computes Leaky ReLU for a slice of an array in a single loop.
+     *
+     * @param in  Input values
+     * @param out Output values, may be the same array as in
+     * @param off Offset of the first element
+     * @param len Number of elements
+     */
+    @Override
+    public void activate(double[] in, double[] out, int off, int len) {
+        for (int i = off, end = off + len; i < end; i++) {
+            double v = in[i];
+            out[i] = v > 0 ? v : alpha * v;
+        }
+    }
+
+    /**
+     * Replaces a slice of inputs with the Leaky ReLU derivative in a single loop.
+     *
+     * @param x   Values, overwritten with the derivatives
+     * @param off Offset of the first element
+     * @param len Number of elements
+     */
+    @Override
+    public void derivativeInPlace(double[] x, int off, int len) {
+        for (int i = off, end = off + len; i < end; i++) {
+            x[i] = x[i] > 0 ? 1.0 : alpha;
+        }
+    }
 }
\ No newline at end of file
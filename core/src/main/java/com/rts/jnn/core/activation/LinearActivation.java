@@ -1,5 +1,7 @@
 package com.rts.jnn.core.activation;
 
+import java.util.Arrays;
+
 /**
  * Implements the Linear (Identity) activation function.
  *
@@ -65,4 +67,31 @@ public class LinearActivation implements ActivationFunction {
     public double derivative(double x) {
         return 1.0;
     }
+
+    /**
+     * Copies a slice of an array, as the identity function requires.
+     *
+     * @param in  Input values
+     * @param out Output values, may be the same array as in
+     * @param off Offset of the first element
+     * @param len Number of elements
+     */
+    @Override
+    public void activate(double[] in, double[] out, int off, int len) {
+        if (in != out) {
+            System.arraycopy(in, off, out, off, len);
+        }
+    }
+
+    /**
+     * Fills a slice of an array with the constant derivative 1.0.
+     *
+     * @param x   Values, overwritten with the derivatives
+     * @param off Offset of the first element
+     * @param len Number of elements
+     */
+    @Override
+    public void derivativeInPlace(double[] x, int off, int len) {
+        Arrays.fill(x, off, off + len, 1.0);
+    }
 }
\ No newline at end of file
@@ -1,5 +1,7 @@
 package com.rts.jnn.core.activation;
 
+import com.rts.jnn.core.math.VectorFunctions;
+
 /**
  * Implements the ReLU (Rectified Linear Unit) activation function.
  *
@@ -63,4 +65,31 @@ public class ReLUActivation implements ActivationFunction {
     public double derivative(double x) {
         return x > 0 ? 1 : 0;
     }
+
+    /**
+     * Computes ReLU for a slice of an array on the vectorized math kernel.
+     *
+     * @param in  Input values
+     * @param out Output values, may be the same array as in
+     * @param off Offset of the first element
+     * @param len Number of elements
+     */
+    @Override
+    public void activate(double[] in, double[] out, int off, int len) {
+        VectorFunctions.relu(in, off, out, off, len);
+    }
+
+    /**
+     * Replaces a slice of inputs with the ReLU derivative in a single loop.
+     *
+     * @param x   Values, overwritten with the derivatives
+     * @param off Offset of the first element
+     * @param len Number of elements
+     */
+    @Override
+    public void derivativeInPlace(double[] x, int off, int len) {
+        for (int i = off, end = off + len; i < end; i++) {
+            x[i] = x[i] > 0 ? 1 : 0;
+        }
+    }
 }
\ No newline at end of file
@@ -1,5 +1,7 @@
 package com.rts.jnn.core.activation;
 
+import com.rts.jnn.core.math.VectorFunctions;
+
 /**
  * Implements the Sigmoid activation function: f(x) = 1 / (1 + e^(-x))
  *
@@ -68,4 +70,32 @@ public class SigmoidActivation implements ActivationFunction {
     public double derivative(double x) {
         return x * (1 - x);
     }
+
+    /**
+     * Computes sigmoid for a slice of an array on the vectorized math kernel.
+     *
+     * @param in  Input values
+     * @param out Output values, may be the same array as in
+     * @param off Offset of the first element
+     * @param len Number of elements
+     */
+    @Override
+    public void activate(double[] in, double[] out, int off, int len) {
+        VectorFunctions.sigmoid(in, off, out, off, len);
+    }
+
+    /**
+     * Replaces a slice of sigmoid outputs with the sigmoid derivative in a single loop.
+     *
+     * @param x   Values, overwritten with the derivatives
+     * @param off Offset of the first element
+     * @param len Number of elements
+     */
+    @Override
+    public void derivativeInPlace(double[] x, int off, int len) {
+        for (int i = off, end = off + len; i < end; i++) {
+            double v = x[i];
+            x[i] = v * (1 - v);
+        }
+    }
 }
\ No newline at end of file
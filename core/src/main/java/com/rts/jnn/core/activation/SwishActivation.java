@@ -69,4 +69,36 @@ public class SwishActivation implements ActivationFunction {
         double sigmoid = 1.0 / (1.0 + Math.exp(-x));
         return sigmoid + x * sigmoid * (1 - sigmoid);
     }
+
+    /**
+     * Computes Swish for a slice of an array in a single loop.
+     *
+     * @param in  Input values
+     * @param out Output values, may be the same array as in
+     * @param off Offset of the first element
+     * @param len Number of elements
+     */
+    @Override
+    public void activate(double[] in, double[] out, int off, int len) {
+        for (int i = off, end = off + len; i < end; i++) {
+            double v = in[i];
+            out[i] = v * (1.0 / (1.0 + Math.exp(-v)));
+        }
+    }
+
+    /**
+     * Replaces a slice of inputs with the Swish derivative in a single loop.
+     *
+     * @param x   Values, overwritten with the derivatives
+     * @param off Offset of the first element
+     * @param len Number of elements
+     */
+    @Override
+    public void derivativeInPlace(double[] x, int off, int len) {
+        for (int i = off, end = off + len; i < end; i++) {
+            double v = x[i];
+            double sigmoid = 1.0 / (1.0 + Math.exp(-v));
+            x[i] = sigmoid + v * sigmoid * (1 - sigmoid);
+        }
+    }
 }
\ No newline at end of file
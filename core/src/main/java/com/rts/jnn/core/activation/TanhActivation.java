@@ -1,5 +1,7 @@
 package com.rts.jnn.core.activation;
 
+import com.rts.jnn.core.math.VectorFunctions;
+
 /**
  * Implements the Hyperbolic Tangent (tanh) activation function.
  *
@@ -69,4 +71,33 @@ public class TanhActivation implements ActivationFunction {
         double tanh = Math.tanh(x);
         return 1 - (tanh * tanh);
     }
+
+    /**
+     * Computes tanh for a slice of an array on the vectorized math kernel.
+     *
+     * @param in  Input values
+     * @param out Output values, may be the same array as in
+     * @param off Offset of the first element
+     * @param len Number of elements
+     */
+    @Override
+    public void activate(double[] in, double[] out, int off, int len) {
+        VectorFunctions.tanh(in, off, out, off, len);
+    }
+
+    /**
+     * Replaces a slice of values with the tanh derivative, computing tanh on the vectorized math kernel.
+     *
+     * @param x   Values, overwritten with the derivatives
+     * @param off Offset of the first element
+     * @param len Number of elements
+     */
+    @Override
+    public void derivativeInPlace(double[] x, int off, int len) {
+        VectorFunctions.tanh(x, off, x, off, len);
+        for (int i = off, end = off + len; i < end; i++) {
+            double tanh = x[i];
+            x[i] = 1 - (tanh * tanh);
+        }
+    }
 }
\ No newline at end of file
@@ -9,6 +9,10 @@
  * <ul>
  *   <li>{@link com.rts.jnn.core.activation.BentIdentityActivation} - Smooth alternative with non-zero gradients everywhere</li>
  *   <li>{@link com.rts.jnn.core.activation.ELUActivation} - Exponential Linear Unit with smooth negative values</li>
+ *   <li>{@link com.rts.jnn.core.activation.FastELUActivation} - ELU approximated with an exponential table</li>
+ *   <li>{@link com.rts.jnn.core.activation.FastSigmoidActivation} - Sigmoid approximated with a lookup table</li>
+ *   <li>{@link com.rts.jnn.core.activation.FastSwishActivation} - Swish approximated with a sigmoid table</li>
+ *   <li>{@link com.rts.jnn.core.activation.FastTanhActivation} - Tanh approximated with a lookup table</li>
  *   <li>{@link com.rts.jnn.core.activation.LeakyReLUActivation} - ReLU variant allowing small negative gradients</li>
  *   <li>{@link com.rts.jnn.core.activation.LinearActivation} - Simple identity function</li>
  *   <li>{@link com.rts.jnn.core.activation.ReLUActivation} - Rectified Linear Unit, standard in deep learning</li>
@@ -39,6 +43,13 @@
  *   <li>Bent Identity - Smooth alternative with good gradient properties</li>
  * </ul>
  *
+ * <h3>Fast-Math Approximations:</h3>
+ * <p>The {@code Fast*} variants replace {@code Math.exp} and {@code Math.tanh} with linear
+ * interpolation in precomputed tables, clamped to the saturated values outside the table
+ * range. Each documents its maximum absolute error as {@code MAX_ERROR} (at most 1e-4);
+ * they are opt-in per layer and mainly pay off in scalar code paths such as inference on
+ * the scalar kernel or ELU and Swish layers, which have no vectorized exact form.</p>
+ *
  * <h2>Usage Example:</h2>
  * <pre>{@code
  * // Create an activation function
@@ -0,0 +1,51 @@
+package com.rts.jnn.core.codegen;
+
+/**
+ * Represents a forward pass generated for one specific network.
+ *
+ * <p>Implementations are produced by {@link ForwardPassGenerator}, either as hidden
+ * classes defined at runtime or as standalone source files. The topology and the
+ * weights are fixed when the class is generated; training the original network
+ * afterwards does not affect an existing forward pass.</p>
+ *
+ * <p><b>Thread Safety:</b> Instances hold their own intermediate activation buffers and
+ * are not thread-safe. Create one instance per thread; the weights are shared.</p>
+ *
+ * @see ForwardPassGenerator
+ */
+public interface ForwardPass {
+
+    /**
+     * Returns the number of inputs of the first layer.
+     *
+     * @return Input size
+     */
+    int getInputSize();
+
+    /**
+     * Returns the number of neurons of the last layer.
+     *
+     * @return Output size
+     */
+    int getOutputSize();
+
+    /**
+     * Performs forward propagation without validation or allocation.
+     *
+     * @param inputs Input vector, at least {@link #getInputSize()} long
+     * @param output Vector receiving the outputs, at least {@link #getOutputSize()} long
+     */
+    void predict(double[] inputs, double[] output);
+
+    /**
+     * Performs forward propagation into a newly allocated output vector.
+     *
+     * @param inputs Input vector, at least {@link #getInputSize()} long
+     * @return Output vector
+     */
+    default double[] predict(double[] inputs) {
+        double[] output = new double[getOutputSize()];
+        predict(inputs, output);
+        return output;
+    }
+}
@@ -0,0 +1,482 @@
+package com.rts.jnn.core.codegen;
+
+import com.rts.jnn.core.activation.ActivationFunction;
+import com.rts.jnn.core.activation.BentIdentityActivation;
+import com.rts.jnn.core.activation.ELUActivation;
+import com.rts.jnn.core.activation.FastELUActivation;
+import com.rts.jnn.core.activation.LeakyReLUActivation;
+import com.rts.jnn.core.activation.LinearActivation;
+import com.rts.jnn.core.activation.ReLUActivation;
+import com.rts.jnn.core.activation.SigmoidActivation;
+import com.rts.jnn.core.activation.SwishActivation;
+import com.rts.jnn.core.activation.TanhActivation;
+import com.rts.jnn.core.exception.NetworkConfigurationException;
+import com.rts.jnn.core.exception.NeuralNetworkException;
+import com.rts.jnn.core.network.Layer;
+import com.rts.jnn.core.network.NeuralNetwork;
+import com.rts.jnn.core.validation.ValidationUtils;
+
+import javax.lang.model.SourceVersion;
+import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Modifier;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Generates Java code specialized to the topology and weights of one trained network.
+ *
+ * <p>The generated class has one static method per layer with every size written as a
+ * constant. Layers with at most {@link #getUnrollLimit()} weights are fully unrolled:
+ * each neuron becomes a single expression with its weights and bias written as
+ * literals, and the activation function inlined. Larger layers keep their weights in
+ * {@code static final} arrays and use the library's matrix-vector kernel with constant
+ * bounds. For tiny models such as the 5-20-36 Morse network the whole forward pass is
+ * straight-line code that the JIT compiler can optimize completely.</p>
+ *
+ * <h2>Output Forms:</h2>
+ * <ul>
+ *   <li>{@link #compile(NeuralNetwork)} compiles the source in memory and defines it as
+ *       a hidden class; weight arrays are handed over as class data instead of being
+ *       parsed from literals. Requires a JDK.</li>
+ *   <li>{@link #generateSource(NeuralNetwork, String, String)} and
+ *       {@link #writeSource(NeuralNetwork, Path, String, String)} produce a standalone
+ *       source file with every weight as a literal, to be compiled into an application.
+ *       Networks with more than {@link #MAX_ARRAY_LITERAL} weights in layers that are
+ *       not unrolled exceed the class file limits in this form.</li>
+ * </ul>
+ *
+ * <p>Known activation functions are inlined with the exact formulas of their classes.
+ * Other activation functions, and the bulk activation of layers that are not unrolled,
+ * are called through {@code static final} fields, which the JIT compiler treats as
+ * constants. Weights that are exactly zero are left out of unrolled expressions.</p>
+ *
+ * <p>The unroll limit is bounded by the JIT compiler: HotSpot does not compile methods
+ * with more than 8000 bytes of bytecode, and an unrolled weight takes about 7 bytes.</p>
+ *
+ * <h2>Usage Example:</h2>
+ * <pre>{@code
+ * Supplier<ForwardPass> factory = new ForwardPassGenerator().compile(network);
+ * ForwardPass forwardPass = factory.get(); // one per thread
+ *
+ * double[] output = new double[forwardPass.getOutputSize()];
+ * forwardPass.predict(inputs, output);
+ * }</pre>
+ *
+ * @see ForwardPass
+ */
+public class ForwardPassGenerator {
+
+    /**
+     * Default maximum number of weights of an unrolled layer
+     */
+    public static final int DEFAULT_UNROLL_LIMIT = 768;
+
+    /**
+     * Maximum number of weights and biases written as array literals in one class,
+     * bounded by the 64 KB size limit of the static initializer
+     */
+    public static final int MAX_ARRAY_LITERAL = 6000;
+
+    /**
+     * Maximum number of double literals in one class, bounded by the constant pool
+     */
+    static final int MAX_LITERALS = 30000;
+
+    /**
+     * Hidden classes must live in the package of the lookup that defines them
+     */
+    private static final String HIDDEN_CLASS_NAME = ForwardPassGenerator.class.getPackageName() + ".GeneratedForwardPass";
+
+    private int unrollLimit;
+
+    /**
+     * Creates a generator with the default unroll limit.
+     */
+    public ForwardPassGenerator() {
+        this(DEFAULT_UNROLL_LIMIT);
+    }
+
+    /**
+     * Creates a generator with the given unroll limit.
+     *
+     * @param unrollLimit Maximum number of weights of an unrolled layer, 0 to never unroll
+     * @throws IllegalArgumentException if unrollLimit is negative
+     */
+    public ForwardPassGenerator(int unrollLimit) {
+        setUnrollLimit(unrollLimit);
+    }
+
+    public int getUnrollLimit() {
+        return unrollLimit;
+    }
+
+    public void setUnrollLimit(int unrollLimit) {
+        if (unrollLimit < 0) {
+            throw new IllegalArgumentException("Unroll limit cannot be negative, got: " + unrollLimit);
+        }
+        this.unrollLimit = unrollLimit;
+    }
+
+    /**
+     * Generates and loads a forward pass for the network's current weights.
+     *
+     * @param network Trained network
+     * @return Factory creating forward pass instances, one per thread
+     * @throws NetworkConfigurationException if the network is invalid or no compiler is available
+     * @throws NeuralNetworkException        if the generated class cannot be compiled or defined
+     */
+    public Supplier<ForwardPass> compile(NeuralNetwork network) {
+        List<Layer> layers = validate(network);
+        List<Object> classData = new ArrayList<>();
+        String simpleName = HIDDEN_CLASS_NAME.substring(HIDDEN_CLASS_NAME.lastIndexOf('.') + 1);
+        String source = new Emitter(layers, classData).emit(ForwardPassGenerator.class.getPackageName(), simpleName);
+        byte[] classFile = InMemoryCompiler.compile(HIDDEN_CLASS_NAME, source);
+
+        MethodHandle constructor;
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup()
+                    .defineHiddenClassWithClassData(classFile, List.copyOf(classData), true);
+            constructor = lookup.findConstructor(lookup.lookupClass(), MethodType.methodType(void.class))
+                    .asType(MethodType.methodType(ForwardPass.class));
+        } catch (ReflectiveOperationException | LinkageError e) {
+            throw new NeuralNetworkException("Error defining generated forward pass", e);
+        }
+
+        return () -> {
+            try {
+                return (ForwardPass) constructor.invokeExact();
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new NeuralNetworkException("Error creating generated forward pass", e);
+            }
+        };
+    }
+
+    /**
+     * Generates a standalone source file with all weights written as literals.
+     *
+     * @param network     Trained network
+     * @param packageName Package of the generated class, empty for the unnamed package
+     * @param className   Simple name of the generated class
+     * @return Java source code of a class implementing {@link ForwardPass}
+     * @throws IllegalArgumentException      if the package or class name is not a valid Java name
+     * @throws NetworkConfigurationException if the network is invalid or too large for literals
+     */
+    public String generateSource(NeuralNetwork network, String packageName, String className) {
+        if (!packageName.isEmpty() && !SourceVersion.isName(packageName)) {
+            throw new IllegalArgumentException("Invalid package name: " + packageName);
+        }
+        if (!SourceVersion.isIdentifier(className) || SourceVersion.isKeyword(className)) {
+            throw new IllegalArgumentException("Invalid class name: " + className);
+        }
+        return new Emitter(validate(network), null).emit(packageName, className);
+    }
+
+    /**
+     * Writes a standalone source file below a source root, in the directory of its package.
+     *
+     * @param network     Trained network
+     * @param sourceRoot  Source root directory, e.g. {@code src/main/java}
+     * @param packageName Package of the generated class, empty for the unnamed package
+     * @param className   Simple name of the generated class
+     * @return Path of the written file
+     * @throws NeuralNetworkException if the file cannot be written
+     * @see #generateSource(NeuralNetwork, String, String)
+     */
+    public Path writeSource(NeuralNetwork network, Path sourceRoot, String packageName, String className) {
+        String source = generateSource(network, packageName, className);
+        Path directory = packageName.isEmpty() ? sourceRoot : sourceRoot.resolve(packageName.replace('.', '/'));
+        Path file = directory.resolve(className + ".java");
+        try {
+            Files.createDirectories(directory);
+            Files.writeString(file, source, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new NeuralNetworkException("Error writing generated source to " + file, e);
+        }
+        return file;
+    }
+
+    private static List<Layer> validate(NeuralNetwork network) {
+        ValidationUtils.validateNetworkState(network);
+        ValidationUtils.validateLayerChain(network.getLayers());
+        return List.copyOf(network.getLayers());
+    }
+
+    /**
+     * Writes the source of one generated class.
+     *
+     * <p>With class data, weight arrays and activation instances are referenced by index
+     * into the hidden class data; without, they are written as literals and constructor
+     * calls.</p>
+     */
+    private final class Emitter {
+
+        private final List<Layer> layers;
+        private final List<Object> classData;
+        private final StringBuilder out = new StringBuilder();
+        private int literals;
+        private int arrayLiterals;
+
+        Emitter(List<Layer> layers, List<Object> classData) {
+            this.layers = layers;
+            this.classData = classData;
+        }
+
+        String emit(String packageName, String className) {
+            Layer first = layers.get(0);
+            Layer last = layers.get(layers.size() - 1);
+
+            if (!packageName.isEmpty()) {
+                line("package " + packageName + ";");
+                line("");
+            }
+            StringBuilder topology = new StringBuilder().append(first.getInputSize());
+            for (Layer layer : layers) {
+                topology.append('-').append(layer.getNeuronCount());
+            }
+            line("/**");
+            line(" * Forward pass of a " + topology + " network, generated by "
+                    + ForwardPassGenerator.class.getSimpleName() + ". Do not edit.");
+            line(" */");
+            line("public final class " + className + " implements " + ForwardPass.class.getName() + " {");
+            line("");
+
+            // Weights of layers that are not unrolled, and activation functions called through fields
+            for (int i = 0; i < layers.size(); i++) {
+                Layer layer = layers.get(i);
+                if (!unrolled(layer)) {
+                    field("double[]", "W" + i, layer.getWeights());
+                    field("double[]", "B" + i, layer.getBiases());
+                }
+                if (needsActivationField(layer)) {
+                    activationField(i, layer.getActivationFunction());
+                }
+            }
+            line("");
+
+            // Buffers for the activations of every layer but the last
+            for (int i = 0; i < layers.size() - 1; i++) {
+                line("    private final double[] h" + i + " = new double[" + layers.get(i).getNeuronCount() + "];");
+            }
+            if (layers.size() > 1) {
+                line("");
+            }
+
+            line("    @Override");
+            line("    public int getInputSize() {");
+            line("        return " + first.getInputSize() + ";");
+            line("    }");
+            line("");
+            line("    @Override");
+            line("    public int getOutputSize() {");
+            line("        return " + last.getNeuronCount() + ";");
+            line("    }");
+            line("");
+            line("    @Override");
+            line("    public void predict(double[] inputs, double[] output) {");
+            for (int i = 0; i < layers.size(); i++) {
+                String in = i == 0 ? "inputs" : "h" + (i - 1);
+                String to = i == layers.size() - 1 ? "output" : "h" + i;
+                line("        layer" + i + "(" + in + ", " + to + ");");
+            }
+            line("    }");
+
+            for (int i = 0; i < layers.size(); i++) {
+                line("");
+                if (unrolled(layers.get(i))) {
+                    unrolledLayer(i);
+                } else {
+                    loopedLayer(i);
+                }
+            }
+
+            if (classData != null) {
+                line("");
+                line("    private static <T> T data(int index, Class<T> type) {");
+                line("        try {");
+                line("            return java.lang.invoke.MethodHandles.classDataAt(java.lang.invoke.MethodHandles.lookup(),");
+                line("                    java.lang.constant.ConstantDescs.DEFAULT_NAME, type, index);");
+                line("        } catch (IllegalAccessException e) {");
+                line("            throw new ExceptionInInitializerError(e);");
+                line("        }");
+                line("    }");
+            }
+            line("}");
+
+            if (literals > MAX_LITERALS) {
+                throw new NetworkConfigurationException("Network needs " + literals
+                        + " literals, more than a class file can hold; lower the unroll limit");
+            }
+            return out.toString();
+        }
+
+        private boolean needsActivationField(Layer layer) {
+            Class<?> type = layer.getActivationFunction().getClass();
+            return unrolled(layer) ? inlineActivation(layer.getActivationFunction(), "s") == null
+                    : type != LinearActivation.class;
+        }
+
+        private boolean unrolled(Layer layer) {
+            return (long) layer.getNeuronCount() * layer.getInputSize() <= unrollLimit;
+        }
+
+        private void field(String type, String name, double[] values) {
+            if (classData != null) {
+                line("    private static final " + type + " " + name + " = data(" + classData.size() + ", " + type + ".class);");
+                classData.add(values.clone());
+                return;
+            }
+            arrayLiterals += values.length;
+            if (arrayLiterals > MAX_ARRAY_LITERAL) {
+                throw new NetworkConfigurationException("Network has more than " + MAX_ARRAY_LITERAL
+                        + " weights in layers that are not unrolled, too many for literals; use compile() instead");
+            }
+            literals += values.length;
+            line("    private static final " + type + " " + name + " = {");
+            for (int i = 0; i < values.length; i += 4) {
+                StringBuilder row = new StringBuilder("            ");
+                for (int j = i; j < Math.min(values.length, i + 4); j++) {
+                    row.append(literal(values[j])).append(j == values.length - 1 ? "" : ", ");
+                }
+                line(row.toString().stripTrailing());
+            }
+            line("    };");
+        }
+
+        private void activationField(int layer, ActivationFunction activation) {
+            String type = ActivationFunction.class.getName();
+            if (classData != null) {
+                line("    private static final " + type + " A" + layer + " = data(" + classData.size() + ", " + type + ".class);");
+                classData.add(activation);
+            } else {
+                line("    private static final " + type + " A" + layer + " = " + construction(activation) + ";");
+            }
+        }
+
+        /**
+         * Emits a layer with one expression per neuron and the weights as literals.
+         */
+        private void unrolledLayer(int index) {
+            Layer layer = layers.get(index);
+            int inputSize = layer.getInputSize();
+            double[] weights = layer.getWeights();
+            double[] biases = layer.getBiases();
+            ActivationFunction activation = layer.getActivationFunction();
+
+            line("    private static void layer" + index + "(double[] in, double[] out) {");
+            for (int i = 0; i < inputSize; i++) {
+                line("        double x" + i + " = in[" + i + "];");
+            }
+            line("        double s;");
+            for (int j = 0; j < layer.getNeuronCount(); j++) {
+                StringBuilder sum = new StringBuilder(literal(biases[j]));
+                literals++;
+                for (int i = 0; i < inputSize; i++) {
+                    double w = weights[j * inputSize + i];
+                    if (w == 0.0) {
+                        continue;
+                    }
+                    literals++;
+                    sum.append(w < 0 ? " - " : " + ").append(literal(Math.abs(w))).append(" * x").append(i);
+                }
+                line("        s = " + sum + ";");
+                String inlined = inlineActivation(activation, "s");
+                line("        out[" + j + "] = " + (inlined != null ? inlined : "A" + index + ".activate(s)") + ";");
+            }
+            line("    }");
+        }
+
+        /**
+         * Emits a layer computed by the matrix-vector kernel and one bulk activation call.
+         */
+        private void loopedLayer(int index) {
+            Layer layer = layers.get(index);
+            int rows = layer.getNeuronCount();
+            line("    private static void layer" + index + "(double[] in, double[] out) {");
+            line("        com.rts.jnn.core.math.LinearAlgebra.gemv(W" + index + ", " + rows + ", "
+                    + layer.getInputSize() + ", in, 0, B" + index + ", out, 0);");
+            if (layer.getActivationFunction().getClass() != LinearActivation.class) {
+                line("        A" + index + ".activate(out, out, 0, " + rows + ");");
+            }
+            line("    }");
+        }
+
+        private void line(String text) {
+            out.append(text).append('\n');
+        }
+    }
+
+    /**
+     * Returns the activation function applied to the variable x as a Java expression,
+     * or {@code null} if the function has no inline form.
+     */
+    static String inlineActivation(ActivationFunction activation, String x) {
+        Class<?> type = activation.getClass();
+        if (type == LinearActivation.class) {
+            return x;
+        } else if (type == ReLUActivation.class) {
+            return "Math.max(0, " + x + ")";
+        } else if (type == SigmoidActivation.class) {
+            return "1 / (1 + Math.exp(-" + x + "))";
+        } else if (type == TanhActivation.class) {
+            return "Math.tanh(" + x + ")";
+        } else if (type == SwishActivation.class) {
+            return x + " * (1.0 / (1.0 + Math.exp(-" + x + ")))";
+        } else if (type == BentIdentityActivation.class) {
+            return "(Math.sqrt(" + x + " * " + x + " + 1) - 1) / 2 + " + x;
+        } else if (type == LeakyReLUActivation.class) {
+            double alpha = ((LeakyReLUActivation) activation).getAlpha();
+            return x + " > 0 ? " + x + " : " + literal(alpha) + " * " + x;
+        } else if (type == ELUActivation.class) {
+            double alpha = ((ELUActivation) activation).getAlpha();
+            return x + " > 0 ? " + x + " : " + literal(alpha) + " * (Math.exp(" + x + ") - 1)";
+        }
+        return null;
+    }
+
+    /**
+     * Returns a Java expression creating an activation function equal to the given one.
+     */
+    private static String construction(ActivationFunction activation) {
+        Class<?> type = activation.getClass();
+        if (type == LeakyReLUActivation.class) {
+            return "new " + type.getName() + "(" + literal(((LeakyReLUActivation) activation).getAlpha()) + ")";
+        } else if (type == ELUActivation.class) {
+            return "new " + type.getName() + "(" + literal(((ELUActivation) activation).getAlpha()) + ")";
+        } else if (type == FastELUActivation.class) {
+            return "new " + type.getName() + "(" + literal(((FastELUActivation) activation).getAlpha()) + ")";
+        }
+        if (Modifier.isPublic(type.getModifiers()) && type.getCanonicalName() != null) {
+            for (Constructor<?> constructor : type.getConstructors()) {
+                if (constructor.getParameterCount() == 0) {
+                    return "new " + type.getCanonicalName() + "()";
+                }
+            }
+        }
+        throw new NetworkConfigurationException("Cannot write a constructor call for activation function "
+                + type.getName() + "; it needs a public no-argument constructor");
+    }
+
+    /**
+     * Formats a double as a Java literal that reads back to the same value.
+     */
+    static String literal(double value) {
+        if (Double.isNaN(value)) {
+            return "Double.NaN";
+        } else if (value == Double.POSITIVE_INFINITY) {
+            return "Double.POSITIVE_INFINITY";
+        } else if (value == Double.NEGATIVE_INFINITY) {
+            return "Double.NEGATIVE_INFINITY";
+        }
+        return Double.toString(value);
+    }
+}
@@ -0,0 +1,119 @@
+package com.rts.jnn.core.codegen;
+
+import com.rts.jnn.core.exception.NetworkConfigurationException;
+import com.rts.jnn.core.exception.NeuralNetworkException;
+
+import javax.tools.DiagnosticCollector;
+import javax.tools.FileObject;
+import javax.tools.ForwardingJavaFileManager;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.security.CodeSource;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compiles a single generated source file to bytecode without touching the file system.
+ *
+ * <p>Uses the system Java compiler from {@code javax.tools}, so it requires a JDK rather
+ * than a bare runtime. The generated code only references public types of this library,
+ * which are resolved from the application class path and from the location this class
+ * was loaded from.</p>
+ */
+final class InMemoryCompiler {
+
+    private InMemoryCompiler() {
+    }
+
+    /**
+     * Compiles one top-level class.
+     *
+     * @param binaryName Fully qualified name of the class declared by the source
+     * @param source     Java source code
+     * @return Class file bytes
+     * @throws NetworkConfigurationException if no compiler is available
+     * @throws NeuralNetworkException        if the source fails to compile
+     */
+    static byte[] compile(String binaryName, String source) {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        if (compiler == null) {
+            throw new NetworkConfigurationException(
+                    "No Java compiler available; run on a JDK or generate a source file instead");
+        }
+
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        Map<String, ByteArrayOutputStream> classFiles = new HashMap<>();
+        JavaFileObject sourceFile = new SimpleJavaFileObject(
+                URI.create("string:///" + binaryName.replace('.', '/') + JavaFileObject.Kind.SOURCE.extension),
+                JavaFileObject.Kind.SOURCE) {
+            @Override
+            public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+                return source;
+            }
+        };
+
+        try (StandardJavaFileManager standard =
+                     compiler.getStandardFileManager(diagnostics, null, StandardCharsets.UTF_8);
+             ForwardingJavaFileManager<StandardJavaFileManager> fileManager =
+                     new ForwardingJavaFileManager<>(standard) {
+                         @Override
+                         public JavaFileObject getJavaFileForOutput(Location location, String className,
+                                                                    JavaFileObject.Kind kind, FileObject sibling) {
+                             ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                             classFiles.put(className, bytes);
+                             return new SimpleJavaFileObject(
+                                     URI.create("mem:///" + className.replace('.', '/') + kind.extension), kind) {
+                                 @Override
+                                 public OutputStream openOutputStream() {
+                                     return bytes;
+                                 }
+                             };
+                         }
+                     }) {
+            List<String> options = List.of("-classpath", classPath(), "-g:none", "-proc:none");
+            boolean success = compiler.getTask(null, fileManager, diagnostics, options, null, List.of(sourceFile)).call();
+            if (!success) {
+                throw new NeuralNetworkException("Generated forward pass failed to compile: "
+                        + diagnostics.getDiagnostics());
+            }
+        } catch (IOException e) {
+            throw new NeuralNetworkException("Error while compiling generated forward pass", e);
+        }
+
+        ByteArrayOutputStream classFile = classFiles.get(binaryName);
+        if (classFile == null || classFiles.size() != 1) {
+            throw new NeuralNetworkException("Generated forward pass must compile to exactly one class, got: "
+                    + classFiles.keySet());
+        }
+        return classFile.toByteArray();
+    }
+
+    /**
+     * Returns the application class path extended by the location of this library.
+     */
+    private static String classPath() {
+        String classPath = System.getProperty("java.class.path", "");
+        CodeSource codeSource = InMemoryCompiler.class.getProtectionDomain().getCodeSource();
+        if (codeSource == null || codeSource.getLocation() == null) {
+            return classPath;
+        }
+        try {
+            String library = Path.of(codeSource.getLocation().toURI()).toString();
+            return classPath.isEmpty() ? library : classPath + File.pathSeparator + library;
+        } catch (URISyntaxException | IllegalArgumentException e) {
+            return classPath;
+        }
+    }
+}
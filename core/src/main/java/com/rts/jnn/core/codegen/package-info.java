@@ -0,0 +1,31 @@
+/**
+ * Provides runtime code generation of forward passes specialized to one network.
+ *
+ * <p>Generic forward propagation loops over a list of layers with sizes only known at
+ * run time. For small, fixed production networks,
+ * {@link com.rts.jnn.core.codegen.ForwardPassGenerator} instead emits a class whose
+ * layer sizes are constants, whose small layers are unrolled with the weights written
+ * as literals, and whose activation functions are inlined. The class is either loaded
+ * directly as a hidden class or written out as a standalone source file.</p>
+ *
+ * <h2>Key Components:</h2>
+ * <ul>
+ *   <li>{@link com.rts.jnn.core.codegen.ForwardPass} - Interface implemented by every generated class</li>
+ *   <li>{@link com.rts.jnn.core.codegen.ForwardPassGenerator} - Source generator and in-memory compiler</li>
+ * </ul>
+ *
+ * <h2>Usage Example:</h2>
+ * <pre>{@code
+ * ForwardPassGenerator generator = new ForwardPassGenerator();
+ *
+ * // Load directly, one instance per thread
+ * ForwardPass forwardPass = generator.compile(network).get();
+ * double[] outputs = forwardPass.predict(inputs);
+ *
+ * // Or ship the specialized class as source
+ * generator.writeSource(network, Path.of("src/main/java"), "com.example.morse", "MorseForwardPass");
+ * }</pre>
+ *
+ * @see com.rts.jnn.core.network.NeuralNetwork
+ */
+package com.rts.jnn.core.codegen;
@@ -8,4 +8,8 @@ public class TrainingException extends NeuralNetworkException {
     public TrainingException(String message) {
         super(message);
     }
+
+    public TrainingException(String message, Throwable cause) {
+        super(message, cause);
+    }
 }
\ No newline at end of file
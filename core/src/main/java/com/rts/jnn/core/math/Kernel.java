@@ -0,0 +1,101 @@
+package com.rts.jnn.core.math;
+
+/**
+ * Defines the innermost loops that {@link LinearAlgebra} and {@link VectorFunctions} build on.
+ *
+ * <p>Tiling and blocking decisions stay in {@link LinearAlgebra}; a kernel only has to
+ * run one register block over a contiguous slice as fast as the hardware allows.
+ * Arithmetic kernels must produce results equal to the plain scalar loops up to
+ * floating-point reassociation. The transcendental kernels, {@link #sigmoid} and
+ * {@link #tanh}, may instead differ from {@link Math#exp} and {@link Math#tanh} by a few
+ * ulps per element, as the vector implementations of these functions do.</p>
+ *
+ * @see ScalarKernel
+ * @see SimdKernel
+ */
+interface Kernel {
+
+    /**
+     * Returns a short name identifying the implementation, e.g. {@code "scalar"}.
+     */
+    String name();
+
+    /**
+     * Returns the number of doubles processed per vector operation, 1 for scalar code.
+     */
+    int doubleLanes();
+
+    /**
+     * Returns sum(a[aOff + i] * b[bOff + i]) for i in [0, len).
+     */
+    double dot(double[] a, int aOff, double[] b, int bOff, int len);
+
+    /**
+     * Computes y[yOff + i] += alpha * x[xOff + i] for i in [0, len).
+     */
+    void axpy(double alpha, double[] x, int xOff, double[] y, int yOff, int len);
+
+    /**
+     * Adds the dot products of four consecutive matrix rows with x to y[yOff..yOff+3].
+     *
+     * @param a      Matrix data
+     * @param aOff   Offset of the first element of the first row
+     * @param stride Distance between the starts of consecutive rows
+     */
+    void dot4(double[] a, int aOff, int stride, double[] x, int xOff, int len, double[] y, int yOff);
+
+    /**
+     * Computes the 2x2 block of dot products between two rows of a and two rows of b.
+     *
+     * <p>Adds a0.b0, a0.b1, a1.b0 and a1.b1 to c[cOff], c[cOff + 1], c[cOff + cStride]
+     * and c[cOff + cStride + 1].</p>
+     */
+    void dot2x2(double[] a, int aOff, int aStride, double[] b, int bOff, int bStride, int len,
+                double[] c, int cOff, int cStride);
+
+    /**
+     * Computes y += x0 * row0 + x1 * row1 over two consecutive matrix rows.
+     */
+    void axpy2(double x0, double x1, double[] a, int aOff, int stride, double[] y, int yOff, int len);
+
+    /**
+     * Computes y += x0 * row0 + x1 * row1 + x2 * row2 + x3 * row3 over four consecutive matrix rows.
+     */
+    void axpy4(double x0, double x1, double x2, double x3, double[] a, int aOff, int stride,
+               double[] y, int yOff, int len);
+
+    /**
+     * Returns sum(a[aOff + i] * b[bOff + i]) for i in [0, len), accumulated in float.
+     */
+    float dot(float[] a, int aOff, float[] b, int bOff, int len);
+
+    /**
+     * Returns sum(a[aOff + i] * b[bOff + i]) for i in [0, len), with products and sum in double.
+     */
+    double dotAccumulateDouble(float[] a, int aOff, float[] b, int bOff, int len);
+
+    /**
+     * Computes y[yOff + i] += alpha * x[xOff + i] for i in [0, len) in float.
+     */
+    void axpy(float alpha, float[] x, int xOff, float[] y, int yOff, int len);
+
+    /**
+     * Returns sum(a[aOff + i] * b[bOff + i]) for i in [0, len), widened to and accumulated in int.
+     */
+    int dot(byte[] a, int aOff, byte[] b, int bOff, int len);
+
+    /**
+     * Computes out = 1 / (1 + e^-in) element-wise, within a few ulps of the scalar formula.
+     */
+    void sigmoid(double[] in, int inOff, double[] out, int outOff, int len);
+
+    /**
+     * Computes out = tanh(in) element-wise, within a few ulps of {@link Math#tanh}.
+     */
+    void tanh(double[] in, int inOff, double[] out, int outOff, int len);
+
+    /**
+     * Computes out = max(0, in) element-wise.
+     */
+    void relu(double[] in, int inOff, double[] out, int outOff, int len);
+}
@@ -0,0 +1,48 @@
+package com.rts.jnn.core.math;
+
+/**
+ * Selects the kernel implementation once, when the math package is first used.
+ *
+ * <p>The SIMD kernel is chosen when the {@code jdk.incubator.vector} module is part of
+ * the boot layer (start the JVM with {@code --add-modules jdk.incubator.vector}) and the
+ * preferred vector shape holds more than one double. In every other case, including any
+ * failure while loading the SIMD kernel, the scalar kernel is used.</p>
+ *
+ * <p>The choice can be forced with the system property {@code jnn.kernel}, set to
+ * {@code scalar} or {@code simd}.</p>
+ */
+final class Kernels {
+
+    /**
+     * System property overriding the automatic kernel selection
+     */
+    static final String KERNEL_PROPERTY = "jnn.kernel";
+
+    private static final String VECTOR_MODULE = "jdk.incubator.vector";
+    private static final String SIMD_KERNEL_CLASS = "com.rts.jnn.core.math.SimdKernel";
+
+    /**
+     * Kernel used by all math routines
+     */
+    static final Kernel ACTIVE = select();
+
+    private Kernels() {
+    }
+
+    private static Kernel select() {
+        String requested = System.getProperty(KERNEL_PROPERTY, "auto");
+        if ("scalar".equals(requested)) {
+            return new ScalarKernel();
+        }
+        if (ModuleLayer.boot().findModule(VECTOR_MODULE).isEmpty()) {
+            return new ScalarKernel();
+        }
+        try {
+            Kernel simd = (Kernel) Class.forName(SIMD_KERNEL_CLASS).getDeclaredConstructor().newInstance();
+            // A one-lane species means the CPU has no usable vector unit for doubles
+            return simd.doubleLanes() > 1 || "simd".equals(requested) ? simd : new ScalarKernel();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return new ScalarKernel();
+        }
+    }
+}
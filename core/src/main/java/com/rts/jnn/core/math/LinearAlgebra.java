@@ -0,0 +1,522 @@
+package com.rts.jnn.core.math;
+
+import java.nio.DoubleBuffer;
+import java.util.Arrays;
+
+/**
+ * Provides the dense linear-algebra kernels used by the network layers.
+ *
+ * <p>All matrices are row-major and stored contiguously in {@code double[]} arrays.
+ * The kernels combine two techniques to keep the floating-point units busy:</p>
+ * <ul>
+ *   <li><b>Cache tiling</b> - long rows and deep products are processed in tiles, so the
+ *       vector or matrix block being reused stays in L1/L2 cache</li>
+ *   <li><b>Register blocking</b> - several rows (or a 2x2 block of outputs) are computed
+ *       together, so every value loaded from memory feeds more than one multiply-add</li>
+ * </ul>
+ *
+ * <h2>Kernel Selection:</h2>
+ * <p>The innermost loops run on a kernel chosen once per JVM. When the JVM is started
+ * with {@code --add-modules jdk.incubator.vector}, a Vector API kernel processes several
+ * doubles per instruction; otherwise portable scalar loops are used. The property
+ * {@code -Djnn.kernel=scalar} forces the scalar kernel.</p>
+ *
+ * <h2>Naming:</h2>
+ * <p>Matrix-matrix kernels follow the BLAS convention: {@code gemmNT} multiplies by the
+ * transpose of the second operand, {@code gemmTN} by the transpose of the first.</p>
+ *
+ * <h2>Example Usage:</h2>
+ * <pre>{@code
+ * // y = W x + b for a 20 x 5 weight matrix
+ * LinearAlgebra.gemv(weights, 20, 5, x, 0, biases, y, 0);
+ *
+ * // C = X W^T for a batch of 64 samples
+ * LinearAlgebra.gemmNT(64, 20, 5, batchInputs, weights, biases, batchOutputs);
+ * }</pre>
+ *
+ * <p><b>Thread Safety:</b> All methods are stateless; concurrent calls are safe as long
+ * as they don't write to the same output array.</p>
+ */
+public final class LinearAlgebra {
+
+    /**
+     * Number of columns processed per tile; 1024 doubles (8 KB) of a vector stay in L1
+     */
+    static final int COLUMN_TILE = 1024;
+
+    /**
+     * Number of matrix rows per tile in matrix-matrix products
+     */
+    static final int ROW_TILE = 64;
+
+    /**
+     * Depth of the shared dimension per tile in matrix-matrix products
+     */
+    static final int DEPTH_TILE = 256;
+
+    /**
+     * Kernel running the innermost loops, scalar or SIMD
+     */
+    private static final Kernel KERNEL = Kernels.ACTIVE;
+
+    private LinearAlgebra() {
+    }
+
+    /**
+     * Returns the name of the kernel selected for this JVM.
+     *
+     * <p>{@code "scalar"} for the portable Java loops, or {@code "simd-<bits>"} when the
+     * Vector API kernel is active, e.g. {@code "simd-256"} on AVX2 hosts.</p>
+     *
+     * @return Kernel name
+     */
+    public static String getKernelName() {
+        return KERNEL.name();
+    }
+
+    /**
+     * Computes the dot product of two vector slices.
+     *
+     * @param a    First vector
+     * @param aOff Offset of the first element in a
+     * @param b    Second vector
+     * @param bOff Offset of the first element in b
+     * @param len  Number of elements
+     * @return Sum of a[aOff + i] * b[bOff + i]
+     */
+    public static double dot(double[] a, int aOff, double[] b, int bOff, int len) {
+        return KERNEL.dot(a, aOff, b, bOff, len);
+    }
+
+    /**
+     * Computes y += alpha * x over vector slices.
+     *
+     * @param alpha Scale factor
+     * @param x     Source vector
+     * @param xOff  Offset of the first element in x
+     * @param y     Destination vector
+     * @param yOff  Offset of the first element in y
+     * @param len   Number of elements
+     */
+    public static void axpy(double alpha, double[] x, int xOff, double[] y, int yOff, int len) {
+        KERNEL.axpy(alpha, x, xOff, y, yOff, len);
+    }
+
+    /**
+     * Computes the single-precision dot product of two vector slices.
+     *
+     * @param a    First vector
+     * @param aOff Offset of the first element in a
+     * @param b    Second vector
+     * @param bOff Offset of the first element in b
+     * @param len  Number of elements
+     * @return Sum of a[aOff + i] * b[bOff + i], accumulated in float
+     */
+    public static float dot(float[] a, int aOff, float[] b, int bOff, int len) {
+        return KERNEL.dot(a, aOff, b, bOff, len);
+    }
+
+    /**
+     * Computes the dot product of two single-precision slices in double precision.
+     *
+     * <p>Each product and the running sum are kept in double, which avoids the rounding
+     * drift of long float sums at the cost of half the SIMD lanes.</p>
+     *
+     * @param a    First vector
+     * @param aOff Offset of the first element in a
+     * @param b    Second vector
+     * @param bOff Offset of the first element in b
+     * @param len  Number of elements
+     * @return Sum of a[aOff + i] * b[bOff + i], accumulated in double
+     */
+    public static double dotAccumulateDouble(float[] a, int aOff, float[] b, int bOff, int len) {
+        return KERNEL.dotAccumulateDouble(a, aOff, b, bOff, len);
+    }
+
+    /**
+     * Computes y += alpha * x over single-precision vector slices.
+     *
+     * @param alpha Scale factor
+     * @param x     Source vector
+     * @param xOff  Offset of the first element in x
+     * @param y     Destination vector
+     * @param yOff  Offset of the first element in y
+     * @param len   Number of elements
+     */
+    public static void axpy(float alpha, float[] x, int xOff, float[] y, int yOff, int len) {
+        KERNEL.axpy(alpha, x, xOff, y, yOff, len);
+    }
+
+    /**
+     * Computes the single-precision matrix-vector product y = A x + bias.
+     *
+     * @param a                Matrix, rows x cols
+     * @param rows             Number of rows of A (length of y)
+     * @param cols             Number of columns of A (length of x)
+     * @param x                Input vector
+     * @param xOff             Offset of the first element in x
+     * @param bias             Vector added to the result, or {@code null}
+     * @param y                Output vector
+     * @param yOff             Offset of the first element in y
+     * @param accumulateDouble Whether each row's dot product is accumulated in double
+     */
+    public static void gemv(float[] a, int rows, int cols, float[] x, int xOff, float[] bias, float[] y, int yOff,
+                            boolean accumulateDouble) {
+        for (int i = 0, row = 0; i < rows; i++, row += cols) {
+            double sum = bias == null ? 0.0 : bias[i];
+            sum += accumulateDouble
+                    ? KERNEL.dotAccumulateDouble(a, row, x, xOff, cols)
+                    : KERNEL.dot(a, row, x, xOff, cols);
+            y[yOff + i] = (float) sum;
+        }
+    }
+
+    /**
+     * Computes the dot product of two int8 vector slices.
+     *
+     * <p>Every product is widened to int before it is added, so the result is exact as
+     * long as {@code len} stays below 2^31 / 2^14, about 131 000 elements.</p>
+     *
+     * @param a    First vector
+     * @param aOff Offset of the first element in a
+     * @param b    Second vector
+     * @param bOff Offset of the first element in b
+     * @param len  Number of elements
+     * @return Sum of a[aOff + i] * b[bOff + i], accumulated in int
+     */
+    public static int dot(byte[] a, int aOff, byte[] b, int bOff, int len) {
+        return KERNEL.dot(a, aOff, b, bOff, len);
+    }
+
+    /**
+     * Computes the int8 matrix-vector product y = A x + bias with int32 accumulation.
+     *
+     * @param a    Matrix, rows x cols
+     * @param rows Number of rows of A (length of y)
+     * @param cols Number of columns of A (length of x)
+     * @param x    Input vector
+     * @param xOff Offset of the first element in x
+     * @param bias Vector added to the result, or {@code null}
+     * @param y    Output vector
+     * @param yOff Offset of the first element in y
+     */
+    public static void gemv(byte[] a, int rows, int cols, byte[] x, int xOff, int[] bias, int[] y, int yOff) {
+        for (int i = 0, row = 0; i < rows; i++, row += cols) {
+            int sum = bias == null ? 0 : bias[i];
+            y[yOff + i] = sum + KERNEL.dot(a, row, x, xOff, cols);
+        }
+    }
+
+    /**
+     * Computes the matrix-vector product y = A x + bias.
+     *
+     * <p>Four rows of A are processed together so each element of x is loaded once per
+     * four multiply-adds; for wide matrices the columns are tiled so the active part of
+     * x stays in L1 cache.</p>
+     *
+     * @param a    Matrix, rows x cols
+     * @param rows Number of rows of A (length of y)
+     * @param cols Number of columns of A (length of x)
+     * @param x    Input vector
+     * @param xOff Offset of the first element in x
+     * @param bias Vector added to the result, or {@code null}
+     * @param y    Output vector
+     * @param yOff Offset of the first element in y
+     */
+    public static void gemv(double[] a, int rows, int cols, double[] x, int xOff, double[] bias, double[] y, int yOff) {
+        gemv(a, 0, rows, cols, x, xOff, bias, 0, y, yOff);
+    }
+
+    /**
+     * Computes y = A x + bias for a block of rows of a larger row-major matrix.
+     *
+     * <p>Used to split one matrix-vector product into independent row ranges.</p>
+     *
+     * @param a       Matrix storage, row-major with cols columns
+     * @param aOff    Offset of the first row of the block in a
+     * @param rows    Number of rows in the block (length of y)
+     * @param cols    Number of columns of A (length of x)
+     * @param x       Input vector
+     * @param xOff    Offset of the first element in x
+     * @param bias    Vector added to the result, or {@code null}
+     * @param biasOff Offset of the first element in bias
+     * @param y       Output vector
+     * @param yOff    Offset of the first element in y
+     */
+    public static void gemv(double[] a, int aOff, int rows, int cols, double[] x, int xOff,
+                            double[] bias, int biasOff, double[] y, int yOff) {
+        for (int i = 0; i < rows; i++) {
+            y[yOff + i] = bias == null ? 0.0 : bias[biasOff + i];
+        }
+        for (int c0 = 0; c0 < cols; c0 += COLUMN_TILE) {
+            int len = Math.min(cols, c0 + COLUMN_TILE) - c0;
+            int xs = xOff + c0;
+            int i = 0;
+            for (; i <= rows - 4; i += 4) {
+                KERNEL.dot4(a, aOff + i * cols + c0, cols, x, xs, len, y, yOff + i);
+            }
+            for (; i < rows; i++) {
+                y[yOff + i] += dot(a, aOff + i * cols + c0, x, xs, len);
+            }
+        }
+    }
+
+    /**
+     * Computes y = A x + bias for a block of rows of a matrix held in a buffer.
+     *
+     * <p>Counterpart of {@link #gemv(double[], int, int, int, double[], int, double[], int, double[], int)}
+     * for weights stored outside the Java heap. Four rows are processed together so each
+     * element of x is loaded once per four multiply-adds. The loops are scalar, since
+     * the Vector API kernels only load from arrays.</p>
+     *
+     * @param a       Matrix storage, row-major with cols columns, indexed in doubles
+     * @param aOff    Offset of the first row of the block in a
+     * @param rows    Number of rows in the block (length of y)
+     * @param cols    Number of columns of A (length of x)
+     * @param x       Input vector
+     * @param xOff    Offset of the first element in x
+     * @param bias    Vector added to the result, or {@code null}
+     * @param biasOff Offset of the first element in bias
+     * @param y       Output vector
+     * @param yOff    Offset of the first element in y
+     */
+    public static void gemv(DoubleBuffer a, int aOff, int rows, int cols, double[] x, int xOff,
+                            double[] bias, int biasOff, double[] y, int yOff) {
+        int i = 0;
+        for (; i <= rows - 4; i += 4) {
+            int r0 = aOff + i * cols;
+            int r1 = r0 + cols;
+            int r2 = r1 + cols;
+            int r3 = r2 + cols;
+            double s0 = 0, s1 = 0, s2 = 0, s3 = 0;
+            for (int k = 0; k < cols; k++) {
+                double xv = x[xOff + k];
+                s0 += a.get(r0 + k) * xv;
+                s1 += a.get(r1 + k) * xv;
+                s2 += a.get(r2 + k) * xv;
+                s3 += a.get(r3 + k) * xv;
+            }
+            y[yOff + i] = bias == null ? s0 : s0 + bias[biasOff + i];
+            y[yOff + i + 1] = bias == null ? s1 : s1 + bias[biasOff + i + 1];
+            y[yOff + i + 2] = bias == null ? s2 : s2 + bias[biasOff + i + 2];
+            y[yOff + i + 3] = bias == null ? s3 : s3 + bias[biasOff + i + 3];
+        }
+        for (; i < rows; i++) {
+            double sum = dot(a, aOff + i * cols, x, xOff, cols);
+            y[yOff + i] = bias == null ? sum : sum + bias[biasOff + i];
+        }
+    }
+
+    /**
+     * Computes the dot product of a buffer slice and an array slice.
+     *
+     * @param a    First vector, indexed in doubles
+     * @param aOff Offset of the first element in a
+     * @param b    Second vector
+     * @param bOff Offset of the first element in b
+     * @param len  Number of elements
+     * @return Sum of a[aOff + i] * b[bOff + i]
+     */
+    public static double dot(DoubleBuffer a, int aOff, double[] b, int bOff, int len) {
+        double s0 = 0, s1 = 0, s2 = 0, s3 = 0;
+        int i = 0;
+        for (; i <= len - 4; i += 4) {
+            s0 += a.get(aOff + i) * b[bOff + i];
+            s1 += a.get(aOff + i + 1) * b[bOff + i + 1];
+            s2 += a.get(aOff + i + 2) * b[bOff + i + 2];
+            s3 += a.get(aOff + i + 3) * b[bOff + i + 3];
+        }
+        for (; i < len; i++) {
+            s0 += a.get(aOff + i) * b[bOff + i];
+        }
+        return (s0 + s1) + (s2 + s3);
+    }
+
+    /**
+     * Computes y += alpha * x for an array x and a buffer y.
+     *
+     * @param alpha Scale factor
+     * @param x     Source vector
+     * @param xOff  Offset of the first element in x
+     * @param y     Destination vector, indexed in doubles
+     * @param yOff  Offset of the first element in y
+     * @param len   Number of elements
+     */
+    public static void axpy(double alpha, double[] x, int xOff, DoubleBuffer y, int yOff, int len) {
+        for (int i = 0; i < len; i++) {
+            y.put(yOff + i, y.get(yOff + i) + alpha * x[xOff + i]);
+        }
+    }
+
+    /**
+     * Computes y += alpha * x for a buffer x and an array y.
+     *
+     * @param alpha Scale factor
+     * @param x     Source vector, indexed in doubles
+     * @param xOff  Offset of the first element in x
+     * @param y     Destination vector
+     * @param yOff  Offset of the first element in y
+     * @param len   Number of elements
+     */
+    public static void axpy(double alpha, DoubleBuffer x, int xOff, double[] y, int yOff, int len) {
+        for (int i = 0; i < len; i++) {
+            y[yOff + i] += alpha * x.get(xOff + i);
+        }
+    }
+
+    /**
+     * Computes the transposed matrix-vector product y += A^T x.
+     *
+     * <p>This is the product back-propagation needs to push errors through a layer.
+     * Rows of A are streamed in order, four at a time, so A is read sequentially even
+     * though the product is transposed.</p>
+     *
+     * @param a    Matrix, rows x cols
+     * @param rows Number of rows of A (length of x)
+     * @param cols Number of columns of A (length of y)
+     * @param x    Input vector
+     * @param xOff Offset of the first element in x
+     * @param y    Output vector, accumulated into
+     * @param yOff Offset of the first element in y
+     */
+    public static void gemvTransposed(double[] a, int rows, int cols, double[] x, int xOff, double[] y, int yOff) {
+        for (int c0 = 0; c0 < cols; c0 += COLUMN_TILE) {
+            int len = Math.min(cols, c0 + COLUMN_TILE) - c0;
+            int ys = yOff + c0;
+            int i = 0;
+            for (; i <= rows - 4; i += 4) {
+                KERNEL.axpy4(x[xOff + i], x[xOff + i + 1], x[xOff + i + 2], x[xOff + i + 3],
+                        a, i * cols + c0, cols, y, ys, len);
+            }
+            for (; i < rows; i++) {
+                axpy(x[xOff + i], a, i * cols + c0, y, ys, len);
+            }
+        }
+    }
+
+    /**
+     * Computes the matrix product C = A B^T + bias.
+     *
+     * <p>Used for batched forward passes, where A holds one sample per row and B is the
+     * weight matrix with one neuron per row. Both operands are read along their rows.
+     * The product is tiled over all three dimensions and each tile is computed in 2x2
+     * register blocks.</p>
+     *
+     * @param m    Rows of A and C
+     * @param n    Rows of B and columns of C
+     * @param k    Columns of A and B
+     * @param a    Matrix, m x k
+     * @param b    Matrix, n x k
+     * @param bias Vector of length n added to every row of C, or {@code null}
+     * @param c    Output matrix, m x n
+     */
+    public static void gemmNT(int m, int n, int k, double[] a, double[] b, double[] bias, double[] c) {
+        for (int i = 0; i < m; i++) {
+            if (bias == null) {
+                Arrays.fill(c, i * n, i * n + n, 0.0);
+            } else {
+                System.arraycopy(bias, 0, c, i * n, n);
+            }
+        }
+        for (int p0 = 0; p0 < k; p0 += DEPTH_TILE) {
+            int len = Math.min(k, p0 + DEPTH_TILE) - p0;
+            for (int i0 = 0; i0 < m; i0 += ROW_TILE) {
+                int i1 = Math.min(m, i0 + ROW_TILE);
+                for (int j0 = 0; j0 < n; j0 += ROW_TILE) {
+                    int j1 = Math.min(n, j0 + ROW_TILE);
+                    int i = i0;
+                    for (; i + 1 < i1; i += 2) {
+                        int a0 = i * k + p0;
+                        int a1 = a0 + k;
+                        int c0 = i * n;
+                        int c1 = c0 + n;
+                        int j = j0;
+                        for (; j + 1 < j1; j += 2) {
+                            KERNEL.dot2x2(a, a0, k, b, j * k + p0, k, len, c, c0 + j, n);
+                        }
+                        for (; j < j1; j++) {
+                            c[c0 + j] += dot(a, a0, b, j * k + p0, len);
+                            c[c1 + j] += dot(a, a1, b, j * k + p0, len);
+                        }
+                    }
+                    for (; i < i1; i++) {
+                        for (int j = j0; j < j1; j++) {
+                            c[i * n + j] += dot(a, i * k + p0, b, j * k + p0, len);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Computes the matrix product C += A^T B.
+     *
+     * <p>Used to accumulate weight gradients, where A holds the deltas and B the inputs of
+     * a batch, one sample per row. Two samples are folded into every pass over a row of C,
+     * and rows of C are tiled so the block being updated stays in cache.</p>
+     *
+     * @param m Columns of A and rows of C
+     * @param n Columns of B and C
+     * @param k Rows of A and B
+     * @param a Matrix, k x m
+     * @param b Matrix, k x n
+     * @param c Output matrix, m x n, accumulated into
+     */
+    public static void gemmTN(int m, int n, int k, double[] a, double[] b, double[] c) {
+        for (int i0 = 0; i0 < m; i0 += ROW_TILE) {
+            int i1 = Math.min(m, i0 + ROW_TILE);
+            for (int j0 = 0; j0 < n; j0 += COLUMN_TILE) {
+                int len = Math.min(n, j0 + COLUMN_TILE) - j0;
+                int p = 0;
+                for (; p + 1 < k; p += 2) {
+                    int b0 = p * n + j0;
+                    for (int i = i0; i < i1; i++) {
+                        KERNEL.axpy2(a[p * m + i], a[(p + 1) * m + i], b, b0, n, c, i * n + j0, len);
+                    }
+                }
+                for (; p < k; p++) {
+                    for (int i = i0; i < i1; i++) {
+                        axpy(a[p * m + i], b, p * n + j0, c, i * n + j0, len);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Computes the matrix product C = A B.
+     *
+     * <p>Used to propagate a batch of deltas back through a weight matrix. Four rows of B
+     * are combined per pass over a row of C, and the shared dimension is tiled so the
+     * active rows of B are reused from cache for every row of A.</p>
+     *
+     * @param m Rows of A and C
+     * @param n Columns of B and C
+     * @param k Columns of A and rows of B
+     * @param a Matrix, m x k
+     * @param b Matrix, k x n
+     * @param c Output matrix, m x n
+     */
+    public static void gemmNN(int m, int n, int k, double[] a, double[] b, double[] c) {
+        Arrays.fill(c, 0, m * n, 0.0);
+        for (int p0 = 0; p0 < k; p0 += DEPTH_TILE) {
+            int p1 = Math.min(k, p0 + DEPTH_TILE);
+            for (int j0 = 0; j0 < n; j0 += COLUMN_TILE) {
+                int len = Math.min(n, j0 + COLUMN_TILE) - j0;
+                for (int i = 0; i < m; i++) {
+                    int ai = i * k;
+                    int ci = i * n + j0;
+                    int p = p0;
+                    for (; p + 3 < p1; p += 4) {
+                        KERNEL.axpy4(a[ai + p], a[ai + p + 1], a[ai + p + 2], a[ai + p + 3],
+                                b, p * n + j0, n, c, ci, len);
+                    }
+                    for (; p < p1; p++) {
+                        axpy(a[ai + p], b, p * n + j0, c, ci, len);
+                    }
+                }
+            }
+        }
+    }
+}
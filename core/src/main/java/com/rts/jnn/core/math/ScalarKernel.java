@@ -0,0 +1,185 @@
+package com.rts.jnn.core.math;
+
+/**
+ * Implements the kernels with plain Java loops.
+ *
+ * <p>This is the portable fallback used when the Vector API is unavailable. The loops
+ * keep several independent accumulators so the JIT can overlap the multiply-adds,
+ * and are simple enough for C2 to auto-vectorize where it can.</p>
+ */
+final class ScalarKernel implements Kernel {
+
+    @Override
+    public String name() {
+        return "scalar";
+    }
+
+    @Override
+    public int doubleLanes() {
+        return 1;
+    }
+
+    @Override
+    public double dot(double[] a, int aOff, double[] b, int bOff, int len) {
+        double s0 = 0, s1 = 0, s2 = 0, s3 = 0;
+        int i = 0;
+        for (; i <= len - 4; i += 4) {
+            s0 += a[aOff + i] * b[bOff + i];
+            s1 += a[aOff + i + 1] * b[bOff + i + 1];
+            s2 += a[aOff + i + 2] * b[bOff + i + 2];
+            s3 += a[aOff + i + 3] * b[bOff + i + 3];
+        }
+        for (; i < len; i++) {
+            s0 += a[aOff + i] * b[bOff + i];
+        }
+        return (s0 + s1) + (s2 + s3);
+    }
+
+    @Override
+    public void axpy(double alpha, double[] x, int xOff, double[] y, int yOff, int len) {
+        for (int i = 0; i < len; i++) {
+            y[yOff + i] += alpha * x[xOff + i];
+        }
+    }
+
+    @Override
+    public void dot4(double[] a, int aOff, int stride, double[] x, int xOff, int len, double[] y, int yOff) {
+        int r0 = aOff;
+        int r1 = r0 + stride;
+        int r2 = r1 + stride;
+        int r3 = r2 + stride;
+        double s0 = 0, s1 = 0, s2 = 0, s3 = 0;
+        for (int k = 0; k < len; k++) {
+            double xv = x[xOff + k];
+            s0 += a[r0 + k] * xv;
+            s1 += a[r1 + k] * xv;
+            s2 += a[r2 + k] * xv;
+            s3 += a[r3 + k] * xv;
+        }
+        y[yOff] += s0;
+        y[yOff + 1] += s1;
+        y[yOff + 2] += s2;
+        y[yOff + 3] += s3;
+    }
+
+    @Override
+    public void dot2x2(double[] a, int aOff, int aStride, double[] b, int bOff, int bStride, int len,
+                       double[] c, int cOff, int cStride) {
+        int a0 = aOff;
+        int a1 = aOff + aStride;
+        int b0 = bOff;
+        int b1 = bOff + bStride;
+        double s00 = 0, s01 = 0, s10 = 0, s11 = 0;
+        for (int q = 0; q < len; q++) {
+            double av0 = a[a0 + q];
+            double av1 = a[a1 + q];
+            double bv0 = b[b0 + q];
+            double bv1 = b[b1 + q];
+            s00 += av0 * bv0;
+            s01 += av0 * bv1;
+            s10 += av1 * bv0;
+            s11 += av1 * bv1;
+        }
+        c[cOff] += s00;
+        c[cOff + 1] += s01;
+        c[cOff + cStride] += s10;
+        c[cOff + cStride + 1] += s11;
+    }
+
+    @Override
+    public void axpy2(double x0, double x1, double[] a, int aOff, int stride, double[] y, int yOff, int len) {
+        int r0 = aOff;
+        int r1 = r0 + stride;
+        for (int k = 0; k < len; k++) {
+            y[yOff + k] += x0 * a[r0 + k] + x1 * a[r1 + k];
+        }
+    }
+
+    @Override
+    public void axpy4(double x0, double x1, double x2, double x3, double[] a, int aOff, int stride,
+                      double[] y, int yOff, int len) {
+        int r0 = aOff;
+        int r1 = r0 + stride;
+        int r2 = r1 + stride;
+        int r3 = r2 + stride;
+        for (int k = 0; k < len; k++) {
+            y[yOff + k] += x0 * a[r0 + k] + x1 * a[r1 + k] + x2 * a[r2 + k] + x3 * a[r3 + k];
+        }
+    }
+
+    @Override
+    public float dot(float[] a, int aOff, float[] b, int bOff, int len) {
+        float s0 = 0, s1 = 0, s2 = 0, s3 = 0;
+        int i = 0;
+        for (; i <= len - 4; i += 4) {
+            s0 += a[aOff + i] * b[bOff + i];
+            s1 += a[aOff + i + 1] * b[bOff + i + 1];
+            s2 += a[aOff + i + 2] * b[bOff + i + 2];
+            s3 += a[aOff + i + 3] * b[bOff + i + 3];
+        }
+        for (; i < len; i++) {
+            s0 += a[aOff + i] * b[bOff + i];
+        }
+        return (s0 + s1) + (s2 + s3);
+    }
+
+    @Override
+    public double dotAccumulateDouble(float[] a, int aOff, float[] b, int bOff, int len) {
+        double s0 = 0, s1 = 0, s2 = 0, s3 = 0;
+        int i = 0;
+        for (; i <= len - 4; i += 4) {
+            s0 += (double) a[aOff + i] * b[bOff + i];
+            s1 += (double) a[aOff + i + 1] * b[bOff + i + 1];
+            s2 += (double) a[aOff + i + 2] * b[bOff + i + 2];
+            s3 += (double) a[aOff + i + 3] * b[bOff + i + 3];
+        }
+        for (; i < len; i++) {
+            s0 += (double) a[aOff + i] * b[bOff + i];
+        }
+        return (s0 + s1) + (s2 + s3);
+    }
+
+    @Override
+    public void axpy(float alpha, float[] x, int xOff, float[] y, int yOff, int len) {
+        for (int i = 0; i < len; i++) {
+            y[yOff + i] += alpha * x[xOff + i];
+        }
+    }
+
+    @Override
+    public int dot(byte[] a, int aOff, byte[] b, int bOff, int len) {
+        int s0 = 0, s1 = 0, s2 = 0, s3 = 0;
+        int i = 0;
+        for (; i <= len - 4; i += 4) {
+            s0 += a[aOff + i] * b[bOff + i];
+            s1 += a[aOff + i + 1] * b[bOff + i + 1];
+            s2 += a[aOff + i + 2] * b[bOff + i + 2];
+            s3 += a[aOff + i + 3] * b[bOff + i + 3];
+        }
+        for (; i < len; i++) {
+            s0 += a[aOff + i] * b[bOff + i];
+        }
+        return (s0 + s1) + (s2 + s3);
+    }
+
+    @Override
+    public void sigmoid(double[] in, int inOff, double[] out, int outOff, int len) {
+        for (int i = 0; i < len; i++) {
+            out[outOff + i] = 1 / (1 + Math.exp(-in[inOff + i]));
+        }
+    }
+
+    @Override
+    public void tanh(double[] in, int inOff, double[] out, int outOff, int len) {
+        for (int i = 0; i < len; i++) {
+            out[outOff + i] = Math.tanh(in[inOff + i]);
+        }
+    }
+
+    @Override
+    public void relu(double[] in, int inOff, double[] out, int outOff, int len) {
+        for (int i = 0; i < len; i++) {
+            out[outOff + i] = Math.max(0, in[inOff + i]);
+        }
+    }
+}
@@ -0,0 +1,309 @@
+package com.rts.jnn.core.math;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorShape;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Implements the kernels with the incubating Java Vector API.
+ *
+ * <p>Every loop processes {@link DoubleVector#SPECIES_PREFERRED} lanes per step, i.e. four
+ * doubles on AVX2 hosts and eight on AVX-512 hosts, and finishes the remainder with
+ * scalar code. This class is only loaded by {@link Kernels} after checking that the
+ * {@code jdk.incubator.vector} module is present, so it must never be referenced
+ * directly from other classes.</p>
+ */
+final class SimdKernel implements Kernel {
+
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+    private static final int LANES = SPECIES.length();
+
+    /**
+     * Float species with twice the lanes of {@link #SPECIES}, i.e. the same register width
+     */
+    private static final VectorSpecies<Float> FLOAT_SPECIES = FloatVector.SPECIES_PREFERRED;
+    private static final int FLOAT_LANES = FLOAT_SPECIES.length();
+
+    /**
+     * Float species of half the width of {@link #SPECIES}, so it widens to exactly one double vector
+     */
+    private static final VectorSpecies<Float> HALF_FLOAT_SPECIES = VectorSpecies.of(
+            float.class, VectorShape.forBitSize(SPECIES.vectorBitSize() / 2));
+
+    /**
+     * Byte species a quarter of the register width, at least 64 bits, so it widens to one int vector
+     */
+    private static final VectorSpecies<Byte> QUARTER_BYTE_SPECIES = VectorSpecies.of(
+            byte.class, VectorShape.forBitSize(Math.max(64, SPECIES.vectorBitSize() / 4)));
+    private static final VectorSpecies<Integer> INT_SPECIES = VectorSpecies.of(
+            int.class, VectorShape.forBitSize(QUARTER_BYTE_SPECIES.vectorBitSize() * 4));
+    private static final int INT_LANES = INT_SPECIES.length();
+
+    @Override
+    public String name() {
+        return "simd-" + SPECIES.vectorBitSize();
+    }
+
+    @Override
+    public int doubleLanes() {
+        return LANES;
+    }
+
+    @Override
+    public double dot(double[] a, int aOff, double[] b, int bOff, int len) {
+        DoubleVector acc0 = DoubleVector.zero(SPECIES);
+        DoubleVector acc1 = DoubleVector.zero(SPECIES);
+        int i = 0;
+        for (; i <= len - 2 * LANES; i += 2 * LANES) {
+            acc0 = acc0.add(DoubleVector.fromArray(SPECIES, a, aOff + i)
+                    .mul(DoubleVector.fromArray(SPECIES, b, bOff + i)));
+            acc1 = acc1.add(DoubleVector.fromArray(SPECIES, a, aOff + i + LANES)
+                    .mul(DoubleVector.fromArray(SPECIES, b, bOff + i + LANES)));
+        }
+        for (; i <= len - LANES; i += LANES) {
+            acc0 = acc0.add(DoubleVector.fromArray(SPECIES, a, aOff + i)
+                    .mul(DoubleVector.fromArray(SPECIES, b, bOff + i)));
+        }
+        double sum = acc0.add(acc1).reduceLanes(VectorOperators.ADD);
+        for (; i < len; i++) {
+            sum += a[aOff + i] * b[bOff + i];
+        }
+        return sum;
+    }
+
+    @Override
+    public void axpy(double alpha, double[] x, int xOff, double[] y, int yOff, int len) {
+        int i = 0;
+        for (; i <= len - LANES; i += LANES) {
+            DoubleVector.fromArray(SPECIES, x, xOff + i).mul(alpha)
+                    .add(DoubleVector.fromArray(SPECIES, y, yOff + i))
+                    .intoArray(y, yOff + i);
+        }
+        for (; i < len; i++) {
+            y[yOff + i] += alpha * x[xOff + i];
+        }
+    }
+
+    @Override
+    public void dot4(double[] a, int aOff, int stride, double[] x, int xOff, int len, double[] y, int yOff) {
+        int r0 = aOff;
+        int r1 = r0 + stride;
+        int r2 = r1 + stride;
+        int r3 = r2 + stride;
+        DoubleVector acc0 = DoubleVector.zero(SPECIES);
+        DoubleVector acc1 = DoubleVector.zero(SPECIES);
+        DoubleVector acc2 = DoubleVector.zero(SPECIES);
+        DoubleVector acc3 = DoubleVector.zero(SPECIES);
+        int k = 0;
+        for (; k <= len - LANES; k += LANES) {
+            DoubleVector xv = DoubleVector.fromArray(SPECIES, x, xOff + k);
+            acc0 = acc0.add(DoubleVector.fromArray(SPECIES, a, r0 + k).mul(xv));
+            acc1 = acc1.add(DoubleVector.fromArray(SPECIES, a, r1 + k).mul(xv));
+            acc2 = acc2.add(DoubleVector.fromArray(SPECIES, a, r2 + k).mul(xv));
+            acc3 = acc3.add(DoubleVector.fromArray(SPECIES, a, r3 + k).mul(xv));
+        }
+        double s0 = acc0.reduceLanes(VectorOperators.ADD);
+        double s1 = acc1.reduceLanes(VectorOperators.ADD);
+        double s2 = acc2.reduceLanes(VectorOperators.ADD);
+        double s3 = acc3.reduceLanes(VectorOperators.ADD);
+        for (; k < len; k++) {
+            double xv = x[xOff + k];
+            s0 += a[r0 + k] * xv;
+            s1 += a[r1 + k] * xv;
+            s2 += a[r2 + k] * xv;
+            s3 += a[r3 + k] * xv;
+        }
+        y[yOff] += s0;
+        y[yOff + 1] += s1;
+        y[yOff + 2] += s2;
+        y[yOff + 3] += s3;
+    }
+
+    @Override
+    public void dot2x2(double[] a, int aOff, int aStride, double[] b, int bOff, int bStride, int len,
+                       double[] c, int cOff, int cStride) {
+        int a0 = aOff;
+        int a1 = aOff + aStride;
+        int b0 = bOff;
+        int b1 = bOff + bStride;
+        DoubleVector acc00 = DoubleVector.zero(SPECIES);
+        DoubleVector acc01 = DoubleVector.zero(SPECIES);
+        DoubleVector acc10 = DoubleVector.zero(SPECIES);
+        DoubleVector acc11 = DoubleVector.zero(SPECIES);
+        int q = 0;
+        for (; q <= len - LANES; q += LANES) {
+            DoubleVector av0 = DoubleVector.fromArray(SPECIES, a, a0 + q);
+            DoubleVector av1 = DoubleVector.fromArray(SPECIES, a, a1 + q);
+            DoubleVector bv0 = DoubleVector.fromArray(SPECIES, b, b0 + q);
+            DoubleVector bv1 = DoubleVector.fromArray(SPECIES, b, b1 + q);
+            acc00 = acc00.add(av0.mul(bv0));
+            acc01 = acc01.add(av0.mul(bv1));
+            acc10 = acc10.add(av1.mul(bv0));
+            acc11 = acc11.add(av1.mul(bv1));
+        }
+        double s00 = acc00.reduceLanes(VectorOperators.ADD);
+        double s01 = acc01.reduceLanes(VectorOperators.ADD);
+        double s10 = acc10.reduceLanes(VectorOperators.ADD);
+        double s11 = acc11.reduceLanes(VectorOperators.ADD);
+        for (; q < len; q++) {
+            double av0 = a[a0 + q];
+            double av1 = a[a1 + q];
+            double bv0 = b[b0 + q];
+            double bv1 = b[b1 + q];
+            s00 += av0 * bv0;
+            s01 += av0 * bv1;
+            s10 += av1 * bv0;
+            s11 += av1 * bv1;
+        }
+        c[cOff] += s00;
+        c[cOff + 1] += s01;
+        c[cOff + cStride] += s10;
+        c[cOff + cStride + 1] += s11;
+    }
+
+    @Override
+    public void axpy2(double x0, double x1, double[] a, int aOff, int stride, double[] y, int yOff, int len) {
+        int r0 = aOff;
+        int r1 = r0 + stride;
+        int k = 0;
+        for (; k <= len - LANES; k += LANES) {
+            DoubleVector.fromArray(SPECIES, a, r0 + k).mul(x0)
+                    .add(DoubleVector.fromArray(SPECIES, a, r1 + k).mul(x1))
+                    .add(DoubleVector.fromArray(SPECIES, y, yOff + k))
+                    .intoArray(y, yOff + k);
+        }
+        for (; k < len; k++) {
+            y[yOff + k] += x0 * a[r0 + k] + x1 * a[r1 + k];
+        }
+    }
+
+    @Override
+    public void axpy4(double x0, double x1, double x2, double x3, double[] a, int aOff, int stride,
+                      double[] y, int yOff, int len) {
+        int r0 = aOff;
+        int r1 = r0 + stride;
+        int r2 = r1 + stride;
+        int r3 = r2 + stride;
+        int k = 0;
+        for (; k <= len - LANES; k += LANES) {
+            DoubleVector.fromArray(SPECIES, a, r0 + k).mul(x0)
+                    .add(DoubleVector.fromArray(SPECIES, a, r1 + k).mul(x1))
+                    .add(DoubleVector.fromArray(SPECIES, a, r2 + k).mul(x2))
+                    .add(DoubleVector.fromArray(SPECIES, a, r3 + k).mul(x3))
+                    .add(DoubleVector.fromArray(SPECIES, y, yOff + k))
+                    .intoArray(y, yOff + k);
+        }
+        for (; k < len; k++) {
+            y[yOff + k] += x0 * a[r0 + k] + x1 * a[r1 + k] + x2 * a[r2 + k] + x3 * a[r3 + k];
+        }
+    }
+
+    @Override
+    public float dot(float[] a, int aOff, float[] b, int bOff, int len) {
+        FloatVector acc = FloatVector.zero(FLOAT_SPECIES);
+        int i = 0;
+        for (; i <= len - FLOAT_LANES; i += FLOAT_LANES) {
+            acc = acc.add(FloatVector.fromArray(FLOAT_SPECIES, a, aOff + i)
+                    .mul(FloatVector.fromArray(FLOAT_SPECIES, b, bOff + i)));
+        }
+        float sum = acc.reduceLanes(VectorOperators.ADD);
+        for (; i < len; i++) {
+            sum += a[aOff + i] * b[bOff + i];
+        }
+        return sum;
+    }
+
+    @Override
+    public double dotAccumulateDouble(float[] a, int aOff, float[] b, int bOff, int len) {
+        DoubleVector acc = DoubleVector.zero(SPECIES);
+        int i = 0;
+        for (; i <= len - LANES; i += LANES) {
+            DoubleVector av = (DoubleVector) FloatVector.fromArray(HALF_FLOAT_SPECIES, a, aOff + i)
+                    .convertShape(VectorOperators.F2D, SPECIES, 0);
+            DoubleVector bv = (DoubleVector) FloatVector.fromArray(HALF_FLOAT_SPECIES, b, bOff + i)
+                    .convertShape(VectorOperators.F2D, SPECIES, 0);
+            acc = acc.add(av.mul(bv));
+        }
+        double sum = acc.reduceLanes(VectorOperators.ADD);
+        for (; i < len; i++) {
+            sum += (double) a[aOff + i] * b[bOff + i];
+        }
+        return sum;
+    }
+
+    @Override
+    public void axpy(float alpha, float[] x, int xOff, float[] y, int yOff, int len) {
+        int i = 0;
+        for (; i <= len - FLOAT_LANES; i += FLOAT_LANES) {
+            FloatVector.fromArray(FLOAT_SPECIES, x, xOff + i).mul(alpha)
+                    .add(FloatVector.fromArray(FLOAT_SPECIES, y, yOff + i))
+                    .intoArray(y, yOff + i);
+        }
+        for (; i < len; i++) {
+            y[yOff + i] += alpha * x[xOff + i];
+        }
+    }
+
+    @Override
+    public int dot(byte[] a, int aOff, byte[] b, int bOff, int len) {
+        IntVector acc = IntVector.zero(INT_SPECIES);
+        int i = 0;
+        for (; i <= len - INT_LANES; i += INT_LANES) {
+            IntVector av = (IntVector) ByteVector.fromArray(QUARTER_BYTE_SPECIES, a, aOff + i)
+                    .convertShape(VectorOperators.B2I, INT_SPECIES, 0);
+            IntVector bv = (IntVector) ByteVector.fromArray(QUARTER_BYTE_SPECIES, b, bOff + i)
+                    .convertShape(VectorOperators.B2I, INT_SPECIES, 0);
+            acc = acc.add(av.mul(bv));
+        }
+        int sum = acc.reduceLanes(VectorOperators.ADD);
+        for (; i < len; i++) {
+            sum += a[aOff + i] * b[bOff + i];
+        }
+        return sum;
+    }
+
+    @Override
+    public void sigmoid(double[] in, int inOff, double[] out, int outOff, int len) {
+        DoubleVector one = DoubleVector.broadcast(SPECIES, 1.0);
+        int i = 0;
+        for (; i <= len - LANES; i += LANES) {
+            DoubleVector exp = DoubleVector.fromArray(SPECIES, in, inOff + i)
+                    .neg()
+                    .lanewise(VectorOperators.EXP);
+            one.div(exp.add(1.0)).intoArray(out, outOff + i);
+        }
+        for (; i < len; i++) {
+            out[outOff + i] = 1 / (1 + Math.exp(-in[inOff + i]));
+        }
+    }
+
+    @Override
+    public void tanh(double[] in, int inOff, double[] out, int outOff, int len) {
+        int i = 0;
+        for (; i <= len - LANES; i += LANES) {
+            DoubleVector.fromArray(SPECIES, in, inOff + i)
+                    .lanewise(VectorOperators.TANH)
+                    .intoArray(out, outOff + i);
+        }
+        for (; i < len; i++) {
+            out[outOff + i] = Math.tanh(in[inOff + i]);
+        }
+    }
+
+    @Override
+    public void relu(double[] in, int inOff, double[] out, int outOff, int len) {
+        int i = 0;
+        for (; i <= len - LANES; i += LANES) {
+            DoubleVector.fromArray(SPECIES, in, inOff + i)
+                    .max(0.0)
+                    .intoArray(out, outOff + i);
+        }
+        for (; i < len; i++) {
+            out[outOff + i] = Math.max(0, in[inOff + i]);
+        }
+    }
+}
@@ -0,0 +1,333 @@
+package com.rts.jnn.core.math;
+
+import java.util.Arrays;
+
+/**
+ * Stores a sparse matrix in compressed sparse row (CSR) form and multiplies with it.
+ *
+ * <p>Only the non-zero entries are kept: {@code values} holds them row by row,
+ * {@code columnIndices} holds the column of each value, and {@code rowPointers[r]} to
+ * {@code rowPointers[r + 1]} delimit the entries of row {@code r}. Columns within a row
+ * are sorted. Storage is 12 bytes per non-zero instead of 8 bytes per entry, and every
+ * product does work proportional to the number of non-zeros, so a matrix at 10% density
+ * needs about 15% of the memory and a tenth of the multiply-adds of its dense form.</p>
+ *
+ * <h2>Sparsity Pattern:</h2>
+ * <p>The set of stored positions is fixed when the matrix is created. Stored values may
+ * change, including to zero, but entries outside the pattern are always zero. The
+ * gradient kernels only produce gradients for stored positions, so training a layer
+ * built on this matrix keeps its pattern.</p>
+ *
+ * <p>The kernels are scalar loops: the indexed accesses of sparse products do not map
+ * onto the dense SIMD kernels of {@link LinearAlgebra}, so a sparse layer only pays off
+ * well below full density.</p>
+ *
+ * <h2>Example Usage:</h2>
+ * <pre>{@code
+ * SparseMatrix matrix = SparseMatrix.fromDense(weights, 512, 256);
+ *
+ * // y = W x + b
+ * matrix.multiply(x, 0, biases, y, 0, 0, matrix.getRows());
+ * }</pre>
+ *
+ * <p><b>Thread Safety:</b> Products only read the matrix. Concurrent calls are safe as
+ * long as no thread modifies the values and outputs don't overlap.</p>
+ */
+public final class SparseMatrix {
+
+    private final int rows;
+    private final int cols;
+    private final int[] rowPointers;
+    private final int[] columnIndices;
+    private final double[] values;
+
+    /**
+     * Creates a matrix over existing CSR arrays without copying them.
+     *
+     * @param rows          Number of rows
+     * @param cols          Number of columns
+     * @param rowPointers   Start of each row in the value arrays, rows + 1 long
+     * @param columnIndices Column of each stored value, sorted within each row
+     * @param values        Stored values
+     * @throws IllegalArgumentException if the arrays are inconsistent
+     */
+    public SparseMatrix(int rows, int cols, int[] rowPointers, int[] columnIndices, double[] values) {
+        if (rows < 0 || cols < 0) {
+            throw new IllegalArgumentException("Matrix dimensions cannot be negative");
+        }
+        if (rowPointers.length != rows + 1 || rowPointers[0] != 0
+                || rowPointers[rows] != values.length || columnIndices.length != values.length) {
+            throw new IllegalArgumentException("Inconsistent CSR arrays");
+        }
+        for (int r = 0; r < rows; r++) {
+            for (int k = rowPointers[r]; k < rowPointers[r + 1]; k++) {
+                int column = columnIndices[k];
+                if (column < 0 || column >= cols || (k > rowPointers[r] && column <= columnIndices[k - 1])) {
+                    throw new IllegalArgumentException("Column indices of row " + r + " must be sorted and in range");
+                }
+            }
+        }
+        this.rows = rows;
+        this.cols = cols;
+        this.rowPointers = rowPointers;
+        this.columnIndices = columnIndices;
+        this.values = values;
+    }
+
+    /**
+     * Creates a sparse matrix holding the non-zero entries of a dense row-major matrix.
+     *
+     * @param dense Row-major matrix, at least rows * cols long
+     * @param rows  Number of rows
+     * @param cols  Number of columns
+     * @return Sparse copy of the matrix
+     */
+    public static SparseMatrix fromDense(double[] dense, int rows, int cols) {
+        int nonZeros = 0;
+        for (int i = 0; i < rows * cols; i++) {
+            if (dense[i] != 0.0) {
+                nonZeros++;
+            }
+        }
+
+        int[] rowPointers = new int[rows + 1];
+        int[] columnIndices = new int[nonZeros];
+        double[] values = new double[nonZeros];
+        int k = 0;
+        for (int r = 0; r < rows; r++) {
+            for (int c = 0, i = r * cols; c < cols; c++, i++) {
+                if (dense[i] != 0.0) {
+                    columnIndices[k] = c;
+                    values[k] = dense[i];
+                    k++;
+                }
+            }
+            rowPointers[r + 1] = k;
+        }
+        return new SparseMatrix(rows, cols, rowPointers, columnIndices, values);
+    }
+
+    /**
+     * Returns the fraction of non-zero entries in a dense row-major matrix.
+     *
+     * @param dense Row-major matrix
+     * @param size  Number of entries to inspect
+     * @return Density in [0, 1], 0 for an empty matrix
+     */
+    public static double density(double[] dense, int size) {
+        if (size == 0) {
+            return 0.0;
+        }
+        int nonZeros = 0;
+        for (int i = 0; i < size; i++) {
+            if (dense[i] != 0.0) {
+                nonZeros++;
+            }
+        }
+        return (double) nonZeros / size;
+    }
+
+    /**
+     * Creates an independent copy sharing no arrays with this matrix.
+     *
+     * @return Copy of this matrix
+     */
+    public SparseMatrix copy() {
+        return new SparseMatrix(rows, cols, rowPointers.clone(), columnIndices.clone(), values.clone());
+    }
+
+    /**
+     * Expands this matrix into a newly allocated dense row-major array.
+     *
+     * @return Dense matrix, rows x cols
+     */
+    public double[] toDense() {
+        double[] dense = new double[rows * cols];
+        toDense(dense);
+        return dense;
+    }
+
+    /**
+     * Expands this matrix into an existing dense row-major array, overwriting every entry.
+     *
+     * @param dense Array of at least rows x cols values
+     */
+    public void toDense(double[] dense) {
+        Arrays.fill(dense, 0, rows * cols, 0.0);
+        for (int r = 0; r < rows; r++) {
+            for (int k = rowPointers[r]; k < rowPointers[r + 1]; k++) {
+                dense[r * cols + columnIndices[k]] = values[k];
+            }
+        }
+    }
+
+    /**
+     * Returns the position of an entry in the value array.
+     *
+     * @param row Row index
+     * @param col Column index
+     * @return Index into {@link #getValues()}, or a negative value if the entry is not stored
+     */
+    public int indexOf(int row, int col) {
+        int from = rowPointers[row];
+        int to = rowPointers[row + 1];
+        int index = Arrays.binarySearch(columnIndices, from, to, col);
+        return index >= 0 ? index : -1;
+    }
+
+    /**
+     * Returns an entry of the matrix.
+     *
+     * @param row Row index
+     * @param col Column index
+     * @return Stored value, or 0 if the entry is outside the sparsity pattern
+     */
+    public double get(int row, int col) {
+        int index = indexOf(row, col);
+        return index >= 0 ? values[index] : 0.0;
+    }
+
+    /**
+     * Computes y = A x + bias for the rows [fromRow, toRow).
+     *
+     * @param x       Input vector, at least cols long after xOff
+     * @param xOff    Offset of the first element in x
+     * @param bias    Vector added to the result, indexed by row, or {@code null}
+     * @param y       Output vector, indexed by row from yOff
+     * @param yOff    Offset of row 0 in y
+     * @param fromRow First row (inclusive)
+     * @param toRow   Last row (exclusive)
+     */
+    public void multiply(double[] x, int xOff, double[] bias, double[] y, int yOff, int fromRow, int toRow) {
+        for (int r = fromRow; r < toRow; r++) {
+            double sum = bias == null ? 0.0 : bias[r];
+            for (int k = rowPointers[r], end = rowPointers[r + 1]; k < end; k++) {
+                sum += values[k] * x[xOff + columnIndices[k]];
+            }
+            y[yOff + r] = sum;
+        }
+    }
+
+    /**
+     * Computes Y = X A^T + bias for a batch of row vectors.
+     *
+     * @param batchSize Number of rows of X and Y
+     * @param x         Input matrix, batchSize x cols
+     * @param bias      Vector added to every row of the result, or {@code null}
+     * @param y         Output matrix, batchSize x rows
+     */
+    public void multiplyBatch(int batchSize, double[] x, double[] bias, double[] y) {
+        for (int b = 0; b < batchSize; b++) {
+            multiply(x, b * cols, bias, y, b * rows, 0, rows);
+        }
+    }
+
+    /**
+     * Computes Y = E A for a batch of row vectors, overwriting Y.
+     *
+     * <p>This is the error propagation of backpropagation: each row of E holds one
+     * sample's errors at the outputs, and each row of Y receives that sample's errors
+     * at the inputs.</p>
+     *
+     * @param batchSize Number of rows of E and Y
+     * @param e         Error matrix, batchSize x rows
+     * @param y         Output matrix, batchSize x cols
+     */
+    public void multiplyTransposedBatch(int batchSize, double[] e, double[] y) {
+        Arrays.fill(y, 0, batchSize * cols, 0.0);
+        for (int b = 0; b < batchSize; b++) {
+            int eOff = b * rows;
+            int yOff = b * cols;
+            for (int r = 0; r < rows; r++) {
+                double error = e[eOff + r];
+                if (error == 0.0) {
+                    continue;
+                }
+                for (int k = rowPointers[r], end = rowPointers[r + 1]; k < end; k++) {
+                    y[yOff + columnIndices[k]] += error * values[k];
+                }
+            }
+        }
+    }
+
+    /**
+     * Accumulates E^T X at the stored positions only.
+     *
+     * <p>Computes the weight gradients of a batch: entry {@code k} of
+     * {@code gradients}, aligned with {@link #getValues()}, receives the sum over the
+     * batch of the error of its row times the input of its column.</p>
+     *
+     * @param batchSize Number of rows of E and X
+     * @param e         Error matrix, batchSize x rows
+     * @param x         Input matrix, batchSize x cols
+     * @param gradients Accumulator aligned with the stored values
+     */
+    public void accumulateGradients(int batchSize, double[] e, double[] x, double[] gradients) {
+        for (int b = 0; b < batchSize; b++) {
+            int eOff = b * rows;
+            int xOff = b * cols;
+            for (int r = 0; r < rows; r++) {
+                double error = e[eOff + r];
+                if (error == 0.0) {
+                    continue;
+                }
+                for (int k = rowPointers[r], end = rowPointers[r + 1]; k < end; k++) {
+                    gradients[k] += error * x[xOff + columnIndices[k]];
+                }
+            }
+        }
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public int getCols() {
+        return cols;
+    }
+
+    /**
+     * Returns the number of stored entries.
+     *
+     * @return Non-zero count
+     */
+    public int getNonZeroCount() {
+        return values.length;
+    }
+
+    /**
+     * Returns the fraction of entries that are stored.
+     *
+     * @return Density in [0, 1]
+     */
+    public double getDensity() {
+        return rows == 0 || cols == 0 ? 0.0 : (double) values.length / ((long) rows * cols);
+    }
+
+    /**
+     * Returns the live row pointer array.
+     *
+     * @return Start of each row in the value arrays, rows + 1 long
+     */
+    public int[] getRowPointers() {
+        return rowPointers;
+    }
+
+    /**
+     * Returns the live column index array.
+     *
+     * @return Column of each stored value
+     */
+    public int[] getColumnIndices() {
+        return columnIndices;
+    }
+
+    /**
+     * Returns the live value array.
+     *
+     * @return Stored values, row by row
+     */
+    public double[] getValues() {
+        return values;
+    }
+}
@@ -0,0 +1,62 @@
+package com.rts.jnn.core.math;
+
+/**
+ * Provides bulk element-wise functions over array slices.
+ *
+ * <p>These are the array counterparts of the most common activation functions. They run
+ * on the same kernel as {@link LinearAlgebra}, so on hosts with the Vector API enabled a
+ * whole layer's activations are computed several lanes at a time. The vector versions
+ * may differ from {@link Math#exp} and {@link Math#tanh} by a few ulps per element.</p>
+ *
+ * <h2>Example Usage:</h2>
+ * <pre>{@code
+ * // Apply the logistic function to 36 pre-activations in place
+ * VectorFunctions.sigmoid(values, 0, values, 0, 36);
+ * }</pre>
+ *
+ * <p>The input and output slices may be the same array region.</p>
+ */
+public final class VectorFunctions {
+
+    private VectorFunctions() {
+    }
+
+    /**
+     * Computes out = 1 / (1 + e^-in) element-wise.
+     *
+     * @param in     Input values
+     * @param inOff  Offset of the first input
+     * @param out    Output values
+     * @param outOff Offset of the first output
+     * @param len    Number of elements
+     */
+    public static void sigmoid(double[] in, int inOff, double[] out, int outOff, int len) {
+        Kernels.ACTIVE.sigmoid(in, inOff, out, outOff, len);
+    }
+
+    /**
+     * Computes out = tanh(in) element-wise.
+     *
+     * @param in     Input values
+     * @param inOff  Offset of the first input
+     * @param out    Output values
+     * @param outOff Offset of the first output
+     * @param len    Number of elements
+     */
+    public static void tanh(double[] in, int inOff, double[] out, int outOff, int len) {
+        Kernels.ACTIVE.tanh(in, inOff, out, outOff, len);
+    }
+
+    /**
+     * Computes out = max(0, in) element-wise.
+     *
+     * @param in     Input values
+     * @param inOff  Offset of the first input
+     * @param out    Output values
+     * @param outOff Offset of the first output
+     * @param len    Number of elements
+     */
+    public static void relu(double[] in, int inOff, double[] out, int outOff, int len) {
+        Kernels.ACTIVE.relu(in, inOff, out, outOff, len);
+    }
+}
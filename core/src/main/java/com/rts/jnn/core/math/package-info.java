@@ -0,0 +1,35 @@
+/**
+ * Provides the numerical kernels behind forward and backward propagation.
+ *
+ * <p>This package contains the linear-algebra routines that layers use for
+ * matrix-vector and matrix-matrix products. Keeping them in one place gives the
+ * network a single spot to optimize: layers describe <em>what</em> to compute, and
+ * this package decides <em>how</em> to compute it efficiently.</p>
+ *
+ * <h2>Key Components:</h2>
+ * <ul>
+ *   <li>{@link com.rts.jnn.core.math.LinearAlgebra} - Cache-tiled, register-blocked
+ *       matrix-vector and matrix-matrix products, including the transposed variants
+ *       needed by backpropagation, and int8 products with int32 accumulation for
+ *       quantized inference</li>
+ *   <li>{@link com.rts.jnn.core.math.VectorFunctions} - Bulk element-wise activation kernels</li>
+ *   <li>{@link com.rts.jnn.core.math.SparseMatrix} - Compressed sparse row matrix with the
+ *       sparse products used by sparse layers</li>
+ * </ul>
+ *
+ * <h2>Kernel Backends:</h2>
+ * <p>The innermost loops run either on portable scalar Java code or, when the JVM is
+ * started with {@code --add-modules jdk.incubator.vector}, on the Java Vector API using
+ * the widest vector shape the CPU supports. The backend is selected once at class-load
+ * time; {@code -Djnn.kernel=scalar} forces the scalar backend.</p>
+ *
+ * <h2>Conventions:</h2>
+ * <ul>
+ *   <li>Matrices are row-major and stored in contiguous {@code double[]} arrays</li>
+ *   <li>Vector arguments take an explicit offset so slices of larger buffers can be used</li>
+ *   <li>Kernels never allocate</li>
+ * </ul>
+ *
+ * @see com.rts.jnn.core.network.Layer
+ */
+package com.rts.jnn.core.math;
@@ -0,0 +1,135 @@
+package com.rts.jnn.core.network;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Runs forward propagation for many input vectors as matrix-matrix products.
+ *
+ * <p>The rows of a batch are split recursively until a range is small enough to be
+ * worth computing on one thread. The sequential cutoff depends on both the batch size
+ * and the cost of one row through the network: every leaf does at least
+ * {@link #MIN_TASK_FLOPS} floating-point operations, so narrow networks are not drowned
+ * in task overhead, and large batches are still split into a few tasks per worker for
+ * load balancing. Within a leaf, rows are processed in blocks of {@link #BLOCK_ROWS}
+ * so the activation matrices stay cache-resident.</p>
+ *
+ * <p>Only the layer weights are read, so concurrent tasks never interfere.</p>
+ */
+final class BatchPredictor extends RecursiveAction {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Minimum work per task, in floating-point operations
+     */
+    static final long MIN_TASK_FLOPS = 1L << 20;
+
+    /**
+     * Tasks created per worker thread for load balancing
+     */
+    static final int TASKS_PER_THREAD = 4;
+
+    /**
+     * Rows propagated together through all layers
+     */
+    static final int BLOCK_ROWS = 128;
+
+    private final List<Layer> layers;
+    private final double[][] inputs;
+    private final double[][] outputs;
+    private final int from;
+    private final int to;
+    private final int cutoff;
+
+    private BatchPredictor(List<Layer> layers, double[][] inputs, double[][] outputs, int from, int to, int cutoff) {
+        this.layers = layers;
+        this.inputs = inputs;
+        this.outputs = outputs;
+        this.from = from;
+        this.to = to;
+        this.cutoff = cutoff;
+    }
+
+    /**
+     * Computes the outputs of every input row, in parallel when the batch is large enough.
+     *
+     * @param layers  Layers to run
+     * @param inputs  Input vectors, one per row
+     * @param outputs Output vectors to fill, one per row
+     * @param pool    Pool to run parallel tasks in
+     */
+    static void predict(List<Layer> layers, double[][] inputs, double[][] outputs, ForkJoinPool pool) {
+        int cutoff = cutoff(layers, inputs.length, pool.getParallelism());
+        BatchPredictor task = new BatchPredictor(layers, inputs, outputs, 0, inputs.length, cutoff);
+        if (inputs.length <= cutoff) {
+            task.predictRows();
+        } else {
+            pool.invoke(task);
+        }
+    }
+
+    /**
+     * Returns the largest number of rows computed by one task.
+     */
+    static int cutoff(List<Layer> layers, int batchSize, int parallelism) {
+        long flopsPerRow = 0;
+        for (Layer layer : layers) {
+            flopsPerRow += 2L * layer.getWeightCount();
+        }
+        long minRows = Math.max(1, (MIN_TASK_FLOPS + flopsPerRow - 1) / flopsPerRow);
+        long tasks = (long) Math.max(1, parallelism) * TASKS_PER_THREAD;
+        long balancedRows = (batchSize + tasks - 1) / tasks;
+        return (int) Math.min(Integer.MAX_VALUE, Math.max(minRows, balancedRows));
+    }
+
+    @Override
+    protected void compute() {
+        if (to - from <= cutoff) {
+            predictRows();
+            return;
+        }
+        int mid = (from + to) >>> 1;
+        invokeAll(new BatchPredictor(layers, inputs, outputs, from, mid, cutoff),
+                new BatchPredictor(layers, inputs, outputs, mid, to, cutoff));
+    }
+
+    /**
+     * Propagates rows [from, to) block by block through all layers.
+     */
+    private void predictRows() {
+        int inputSize = layers.get(0).getInputSize();
+        int outputSize = layers.get(layers.size() - 1).getNeuronCount();
+        int width = inputSize;
+        for (Layer layer : layers) {
+            width = Math.max(width, layer.getNeuronCount());
+        }
+
+        int blockRows = Math.min(BLOCK_ROWS, to - from);
+        double[] ping = new double[blockRows * width];
+        double[] pong = new double[blockRows * width];
+
+        for (int start = from; start < to; start += blockRows) {
+            int rows = Math.min(blockRows, to - start);
+
+            // Pack the input rows into a row-major matrix
+            for (int r = 0; r < rows; r++) {
+                System.arraycopy(inputs[start + r], 0, ping, r * inputSize, inputSize);
+            }
+
+            double[] current = ping;
+            double[] next = pong;
+            for (Layer layer : layers) {
+                layer.forwardBatch(current, next, rows);
+                double[] swap = current;
+                current = next;
+                next = swap;
+            }
+
+            for (int r = 0; r < rows; r++) {
+                System.arraycopy(current, r * outputSize, outputs[start + r], 0, outputSize);
+            }
+        }
+    }
+}
@@ -0,0 +1,338 @@
+package com.rts.jnn.core.network;
+
+import com.rts.jnn.core.activation.ActivationFunction;
+import com.rts.jnn.core.activation.LinearActivation;
+import com.rts.jnn.core.math.LinearAlgebra;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Provides a precompiled, check-free execution path through a network.
+ *
+ * <p>Created by {@link NeuralNetwork#compile()}, which validates the layer shapes and
+ * activation functions once. The plan then turns the layers into a fixed array of
+ * stages, each computing {@code activation(W x + b)} with the bias added inside the
+ * matrix-vector product and the activation applied in one bulk call, and preallocates
+ * every buffer. {@link #predict(double[], double[])} and {@link #train(double[], double[])}
+ * perform no validation and allocate nothing; passing vectors of the wrong size results
+ * in undefined output or an {@link ArrayIndexOutOfBoundsException}.</p>
+ *
+ * <h2>Linear Layer Collapsing:</h2>
+ * <p>Layers with a {@link LinearActivation} compute an affine map, so a run of them
+ * followed by any layer is equivalent to a single layer with the product matrix
+ * {@code W = W_n ... W_1} and bias {@code b = W_n (... b_1) + b_n}. The plan merges such
+ * runs whenever the product has no more weights than the separate layers, e.g. a wide
+ * linear layer feeding a narrow one, but never across a bottleneck, where the product
+ * would be larger. {@link SparseLayer}s and {@link OffHeapLayer}s are never merged, since
+ * their product would be a dense heap matrix. Merged stages round differently from the original layers, so their
+ * outputs may differ from {@link NeuralNetwork#predict(double[])} in the last bits.</p>
+ *
+ * <h2>Training:</h2>
+ * <p>Training always updates the network's original layers. Unmerged stages read the
+ * live layer weights, while merged stages hold a product that is marked stale by every
+ * weight update made through the network (including {@link #train(double[], double[])})
+ * and recomputed on the next prediction. Call {@link #invalidate()} after changing
+ * weights directly through {@link Layer}. Changing the layers themselves requires a new
+ * plan.</p>
+ *
+ * <p><b>Thread Safety:</b> This class is not thread-safe; the buffers are shared by all
+ * calls. Compile one plan per thread for concurrent inference, or use
+ * {@link NeuralNetwork#freeze()}.</p>
+ *
+ * <h2>Usage Example:</h2>
+ * <pre>{@code
+ * ExecutionPlan plan = network.compile();
+ * for (int epoch = 0; epoch < 1000; epoch++) {
+ *     for (int i = 0; i < inputs.length; i++) {
+ *         plan.train(inputs[i], targets[i]);
+ *     }
+ * }
+ *
+ * double[] output = new double[plan.getOutputSize()];
+ * plan.predict(inputs[0], output);
+ * }</pre>
+ *
+ * @see NeuralNetwork#compile()
+ */
+public final class ExecutionPlan {
+
+    private final NeuralNetwork network;
+    private final Stage[] stages;
+    private final int inputSize;
+    private final int outputSize;
+    private final int layerCount;
+
+    /**
+     * Ping-pong buffers for the outputs of all stages but the last
+     */
+    private final double[] ping;
+    private final double[] pong;
+
+    /**
+     * Output buffer returned by {@link #predict(double[])}
+     */
+    private final double[] output;
+
+    private final TrainingWorkspace trainingWorkspace;
+
+    /**
+     * Whether any stage holds merged weights that must follow weight updates
+     */
+    private final boolean merged;
+
+    /**
+     * Parameter version of the network the merged stages were computed from
+     */
+    private int version;
+
+    /**
+     * Compiles a plan for a network whose layers have already been validated.
+     *
+     * @param network Network with a valid, non-empty chain of layers
+     */
+    ExecutionPlan(NeuralNetwork network) {
+        this.network = network;
+        List<Layer> layers = network.getLayers();
+        this.stages = buildStages(layers);
+        this.inputSize = layers.get(0).getInputSize();
+        this.outputSize = layers.get(layers.size() - 1).getNeuronCount();
+        this.layerCount = layers.size();
+
+        int width = 0;
+        boolean anyMerged = false;
+        for (Stage stage : stages) {
+            width = Math.max(width, stage.rows);
+            anyMerged |= stage.isMerged();
+        }
+        this.ping = new double[width];
+        this.pong = new double[width];
+        this.output = new double[outputSize];
+        this.trainingWorkspace = new TrainingWorkspace(layers);
+        this.merged = anyMerged;
+        refresh();
+    }
+
+    public int getInputSize() {
+        return inputSize;
+    }
+
+    public int getOutputSize() {
+        return outputSize;
+    }
+
+    /**
+     * Returns the number of layers in the compiled network.
+     *
+     * @return Layer count
+     */
+    public int getLayerCount() {
+        return layerCount;
+    }
+
+    /**
+     * Returns the number of stages executed per prediction, after merging linear layers.
+     *
+     * @return Stage count, at most the layer count
+     */
+    public int getStageCount() {
+        return stages.length;
+    }
+
+    /**
+     * Performs forward propagation into the plan's own output buffer.
+     *
+     * @param inputs Input vector of length {@link #getInputSize()}
+     * @return The plan's output buffer, overwritten by the next prediction
+     */
+    public double[] predict(double[] inputs) {
+        predict(inputs, output);
+        return output;
+    }
+
+    /**
+     * Performs forward propagation without validation or allocation.
+     *
+     * @param inputs Input vector of length {@link #getInputSize()}
+     * @param output Vector of length {@link #getOutputSize()} receiving the outputs
+     */
+    public void predict(double[] inputs, double[] output) {
+        if (merged && version != network.parameterVersion()) {
+            refresh();
+        }
+
+        double[] activations = inputs;
+        int last = stages.length - 1;
+        for (int i = 0; i < last; i++) {
+            double[] buffer = (i & 1) == 0 ? ping : pong;
+            stages[i].forward(activations, buffer);
+            activations = buffer;
+        }
+        stages[last].forward(activations, output);
+    }
+
+    /**
+     * Trains the network on one sample without validation or allocation.
+     *
+     * <p>Performs the same update as {@link NeuralNetwork#train(double[], double[])}
+     * with the network's current learning rate and intra-layer parallelism.</p>
+     *
+     * @param inputs  Input vector of length {@link #getInputSize()}
+     * @param targets Target vector of length {@link #getOutputSize()}
+     */
+    public void train(double[] inputs, double[] targets) {
+        network.backpropagate(inputs, targets, trainingWorkspace);
+    }
+
+    /**
+     * Marks merged stages stale after layer weights were changed outside the network's training methods.
+     */
+    public void invalidate() {
+        version = network.parameterVersion() - 1;
+    }
+
+    /**
+     * Recomputes the weights of merged stages from the current layer weights.
+     */
+    private void refresh() {
+        for (Stage stage : stages) {
+            stage.refresh();
+        }
+        version = network.parameterVersion();
+    }
+
+    /**
+     * Groups the layers into stages, merging runs of linear layers where that saves work.
+     */
+    private static Stage[] buildStages(List<Layer> layers) {
+        List<Stage> stages = new ArrayList<>();
+        int start = 0;
+        while (start < layers.size()) {
+            int end = start + 1;
+            long separate = weightCount(layers.get(start));
+            while (end < layers.size() && layers.get(end - 1).getActivationFunction() instanceof LinearActivation
+                    && isHeapDense(layers.get(end - 1)) && isHeapDense(layers.get(end))) {
+                Layer next = layers.get(end);
+                long mergedCount = (long) next.getNeuronCount() * layers.get(start).getInputSize();
+                if (mergedCount > separate + weightCount(next)) {
+                    break;
+                }
+                separate += weightCount(next);
+                end++;
+            }
+            stages.add(new Stage(layers.subList(start, end).toArray(new Layer[0])));
+            start = end;
+        }
+        return stages.toArray(new Stage[0]);
+    }
+
+    private static long weightCount(Layer layer) {
+        return layer.getWeightCount();
+    }
+
+    /**
+     * Returns whether a layer keeps its weights in a heap array that merging can read in place.
+     */
+    private static boolean isHeapDense(Layer layer) {
+        return !(layer instanceof SparseLayer) && !(layer instanceof OffHeapLayer);
+    }
+
+    /**
+     * Computes activation(W x + b) for one layer, or for a merged run of layers.
+     */
+    private static final class Stage {
+
+        private final Layer[] layers;
+        private final int rows;
+        private final int cols;
+        private final ActivationFunction activation;
+        private final double[] weights;
+        private final double[] biases;
+
+        /**
+         * Intermediate products while merging, null for single-layer stages
+         */
+        private final double[] productScratch;
+        private final double[] biasScratch;
+
+        Stage(Layer[] layers) {
+            Layer first = layers[0];
+            Layer last = layers[layers.length - 1];
+            this.layers = layers;
+            this.rows = last.getNeuronCount();
+            this.cols = first.getInputSize();
+            this.activation = last.getActivationFunction();
+
+            if (layers.length == 1) {
+                // Run the layer itself on its live parameters, so training needs no refresh
+                this.weights = null;
+                this.biases = null;
+                this.productScratch = null;
+                this.biasScratch = null;
+            } else {
+                int width = 0;
+                for (Layer layer : layers) {
+                    width = Math.max(width, layer.getNeuronCount());
+                }
+                // Both buffer pairs hold intermediate products, so size them alike
+                this.weights = new double[width * cols];
+                this.biases = new double[width];
+                this.productScratch = new double[width * cols];
+                this.biasScratch = new double[width];
+            }
+        }
+
+        boolean isMerged() {
+            return layers.length > 1;
+        }
+
+        void forward(double[] inputs, double[] outputs) {
+            if (!isMerged()) {
+                layers[0].forward(inputs, outputs);
+                return;
+            }
+            LinearAlgebra.gemv(weights, rows, cols, inputs, 0, biases, outputs, 0);
+            activation.activate(outputs, outputs, 0, rows);
+        }
+
+        /**
+         * Multiplies the layer matrices and folds the biases of a merged stage.
+         */
+        void refresh() {
+            if (!isMerged()) {
+                return;
+            }
+
+            // Start from the first layer, then apply each following layer on the left
+            double[] product = productScratch;
+            double[] bias = biasScratch;
+            double[] nextProduct = weights;
+            double[] nextBias = biases;
+            if ((layers.length & 1) == 1) {
+                // Swap so that the last multiplication writes into weights and biases
+                product = weights;
+                bias = biases;
+                nextProduct = productScratch;
+                nextBias = biasScratch;
+            }
+            Layer first = layers[0];
+            System.arraycopy(first.getWeights(), 0, product, 0, first.getNeuronCount() * cols);
+            System.arraycopy(first.getBiases(), 0, bias, 0, first.getNeuronCount());
+
+            for (int i = 1; i < layers.length; i++) {
+                Layer layer = layers[i];
+                int n = layer.getNeuronCount();
+                int k = layer.getInputSize();
+                LinearAlgebra.gemmNN(n, cols, k, layer.getWeights(), product, nextProduct);
+                LinearAlgebra.gemv(layer.getWeights(), n, k, bias, 0, layer.getBiases(), nextBias, 0);
+
+                double[] swap = product;
+                product = nextProduct;
+                nextProduct = swap;
+                swap = bias;
+                bias = nextBias;
+                nextBias = swap;
+            }
+        }
+    }
+}
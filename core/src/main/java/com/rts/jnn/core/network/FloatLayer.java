@@ -0,0 +1,202 @@
+package com.rts.jnn.core.network;
+
+import com.rts.jnn.core.activation.ActivationFunction;
+import com.rts.jnn.core.initialization.InitializationFunction;
+import com.rts.jnn.core.math.LinearAlgebra;
+
+/**
+ * Represents a single-precision layer of neurons.
+ *
+ * <p>The float counterpart of {@link Layer}: weights are stored in one row-major
+ * {@code float[]} of {@code neuronCount * inputSize} values plus a {@code float[]} of
+ * biases, which halves the memory footprint and bandwidth of the layer. Activation
+ * functions are evaluated in double and rounded back to float.</p>
+ *
+ * <h2>Example Usage:</h2>
+ * <pre>{@code
+ * FloatLayer layer = new FloatLayer(10, 5, new SigmoidActivation(), new XavierInitialization());
+ * float[] outputs = layer.forward(new float[]{1f, 0.5f, -0.5f, 0.8f, -0.2f});
+ * }</pre>
+ *
+ * @see FloatNeuralNetwork
+ */
+public class FloatLayer {
+
+    /**
+     * Number of neurons in this layer
+     */
+    private final int neuronCount;
+
+    /**
+     * Number of inputs to each neuron
+     */
+    private final int inputSize;
+
+    /**
+     * Row-major weight matrix of size neuronCount x inputSize
+     */
+    private final float[] weights;
+
+    /**
+     * Bias of each neuron
+     */
+    private final float[] biases;
+
+    /**
+     * Output values from the last forward pass
+     */
+    private float[] outputs;
+
+    /**
+     * Whether dot products are accumulated in double precision
+     */
+    private boolean accumulateDouble;
+
+    private final ActivationFunction activationFunction;
+    private final InitializationFunction initializationFunction;
+
+    /**
+     * Creates a new layer with the specified configuration.
+     *
+     * @param neuronCount            Number of neurons in this layer
+     * @param inputSize              Number of inputs to each neuron
+     * @param activationFunction     Activation function for all neurons
+     * @param initializationFunction Weight initialization strategy
+     */
+    public FloatLayer(
+            int neuronCount,
+            int inputSize,
+            ActivationFunction activationFunction,
+            InitializationFunction initializationFunction
+    ) {
+        this(neuronCount, inputSize, new float[neuronCount * inputSize], new float[neuronCount],
+                activationFunction, initializationFunction);
+
+        // Initialize each neuron's row of the weight matrix
+        for (int i = 0; i < neuronCount; i++) {
+            double[] row = initializationFunction.init(inputSize);
+            for (int k = 0; k < inputSize; k++) {
+                weights[i * inputSize + k] = (float) row[k];
+            }
+        }
+    }
+
+    /**
+     * Creates a layer with the weights and biases of a double-precision layer, rounded to float.
+     *
+     * @param layer Layer to convert
+     */
+    public FloatLayer(Layer layer) {
+        this(layer.getNeuronCount(), layer.getInputSize(),
+                new float[layer.getNeuronCount() * layer.getInputSize()], new float[layer.getNeuronCount()],
+                layer.getActivationFunction(), layer.getInitializationFunction());
+
+        double[] source = layer.getWeights();
+        for (int i = 0; i < weights.length; i++) {
+            weights[i] = (float) source[i];
+        }
+        for (int i = 0; i < neuronCount; i++) {
+            biases[i] = (float) layer.getBias(i);
+        }
+    }
+
+    private FloatLayer(
+            int neuronCount,
+            int inputSize,
+            float[] weights,
+            float[] biases,
+            ActivationFunction activationFunction,
+            InitializationFunction initializationFunction
+    ) {
+        this.neuronCount = neuronCount;
+        this.inputSize = inputSize;
+        this.weights = weights;
+        this.biases = biases;
+        this.activationFunction = activationFunction;
+        this.initializationFunction = initializationFunction;
+    }
+
+    /**
+     * Performs forward propagation through the layer.
+     *
+     * @param inputs Input vector for the layer
+     * @return Output vector containing each neuron's activation
+     */
+    public float[] forward(float[] inputs) {
+        outputs = new float[neuronCount];
+        LinearAlgebra.gemv(weights, neuronCount, inputSize, inputs, 0, biases, outputs, 0, accumulateDouble);
+        for (int i = 0; i < neuronCount; i++) {
+            outputs[i] = (float) activationFunction.activate(outputs[i]);
+        }
+        return outputs;
+    }
+
+    /**
+     * Performs one stochastic gradient descent step for this layer.
+     *
+     * <p>Mirrors {@link Layer#backward(double[], double[], double)}: uses the outputs of the
+     * last {@link #forward(float[])} call and the updated weights to propagate the error.</p>
+     *
+     * @param inputs       Inputs that produced the last forward pass
+     * @param errors       Error (target minus output) of each neuron
+     * @param learningRate Step size
+     * @return Errors propagated to each input of this layer
+     */
+    public float[] backward(float[] inputs, float[] errors, float learningRate) {
+        float[] nextErrors = new float[inputSize];
+        for (int j = 0, row = 0; j < neuronCount; j++, row += inputSize) {
+            float delta = errors[j] * (float) activationFunction.derivative(outputs[j]);
+            float step = learningRate * delta;
+            LinearAlgebra.axpy(step, inputs, 0, weights, row, inputSize);
+            LinearAlgebra.axpy(delta, weights, row, nextErrors, 0, inputSize);
+            biases[j] += step;
+        }
+        return nextErrors;
+    }
+
+    public int getNeuronCount() {
+        return neuronCount;
+    }
+
+    public int getInputSize() {
+        return inputSize;
+    }
+
+    /**
+     * Returns the live row-major weight matrix of this layer.
+     *
+     * @return Weights, neuronCount x inputSize
+     */
+    public float[] getWeights() {
+        return weights;
+    }
+
+    /**
+     * Returns the live bias vector of this layer.
+     *
+     * @return Biases, one per neuron
+     */
+    public float[] getBiases() {
+        return biases;
+    }
+
+    public float[] getOutputs() {
+        return outputs;
+    }
+
+    public boolean isAccumulateDouble() {
+        return accumulateDouble;
+    }
+
+    public void setAccumulateDouble(boolean accumulateDouble) {
+        this.accumulateDouble = accumulateDouble;
+    }
+
+    public ActivationFunction getActivationFunction() {
+        return activationFunction;
+    }
+
+    public InitializationFunction getInitializationFunction() {
+        return initializationFunction;
+    }
+}
@@ -0,0 +1,185 @@
+package com.rts.jnn.core.network;
+
+import com.rts.jnn.core.activation.ActivationFunction;
+import com.rts.jnn.core.exception.NeuralNetworkException;
+import com.rts.jnn.core.exception.TrainingException;
+import com.rts.jnn.core.initialization.InitializationFunction;
+import com.rts.jnn.core.validation.ValidationUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Provides a single-precision (float32) feed-forward neural network.
+ *
+ * <p>This is the float counterpart of {@link NeuralNetwork}, built with the same
+ * {@code addLayer} API. All weights, activations and errors are {@code float}, which
+ * halves memory footprint and bandwidth and doubles the number of SIMD lanes per
+ * operation. It is mainly intended for serving models trained in double precision,
+ * see {@link #fromNetwork(NeuralNetwork)}.</p>
+ *
+ * <h2>Accumulation:</h2>
+ * <p>By default dot products are accumulated in float. With
+ * {@link #setAccumulateDouble(boolean)} each layer's dot products are summed in double
+ * and rounded once, trading some speed for accuracy on wide layers.</p>
+ *
+ * <p><b>Thread Safety:</b> This class is not thread-safe and should not be accessed concurrently.</p>
+ *
+ * <h2>Usage Example:</h2>
+ * <pre>{@code
+ * // Convert a trained network for serving
+ * FloatNeuralNetwork serving = FloatNeuralNetwork.fromNetwork(network);
+ * float[] outputs = serving.predict(new float[]{1f, -1f, 0f, 0f, 0f});
+ *
+ * // Or build and train one directly
+ * FloatNeuralNetwork network = new FloatNeuralNetwork(0.5);
+ * network.addLayer(5, new SigmoidActivation(), new XavierInitialization());
+ * network.addLayer(36, new SigmoidActivation(), new XavierInitialization());
+ * network.train(inputs, targets);
+ * }</pre>
+ *
+ * @see FloatLayer
+ * @see NeuralNetwork
+ */
+public class FloatNeuralNetwork {
+    private final List<FloatLayer> layers;
+    private double learningRate;
+    private final double initialLearningRate;
+    private boolean accumulateDouble;
+
+    /**
+     * Creates a new single-precision network with the specified learning rate.
+     *
+     * @param learningRate Initial learning rate in range (0,1]
+     * @throws IllegalArgumentException if learning rate is not in range (0,1]
+     */
+    public FloatNeuralNetwork(double learningRate) {
+        if (learningRate <= 0 || learningRate > 1) {
+            throw new IllegalArgumentException("Learning rate must be in range (0,1]");
+        }
+        this.learningRate = learningRate;
+        this.initialLearningRate = learningRate;
+        this.layers = new ArrayList<>();
+    }
+
+    /**
+     * Creates a single-precision copy of a double-precision network.
+     *
+     * <p>Weights and biases are rounded to float; the source network is not modified.</p>
+     *
+     * @param network Network to convert
+     * @return Float copy of the network
+     */
+    public static FloatNeuralNetwork fromNetwork(NeuralNetwork network) {
+        ValidationUtils.validateNetworkState(network);
+        FloatNeuralNetwork copy = new FloatNeuralNetwork(network.getInitialLearningRate());
+        copy.setLearningRate(network.getLearningRate());
+        for (Layer layer : network.getLayers()) {
+            copy.layers.add(new FloatLayer(layer));
+        }
+        return copy;
+    }
+
+    public List<FloatLayer> getLayers() {
+        return layers;
+    }
+
+    public double getLearningRate() {
+        return learningRate;
+    }
+
+    public void setLearningRate(double learningRate) {
+        this.learningRate = learningRate;
+    }
+
+    public double getInitialLearningRate() {
+        return initialLearningRate;
+    }
+
+    public boolean isAccumulateDouble() {
+        return accumulateDouble;
+    }
+
+    /**
+     * Selects whether dot products are accumulated in double precision.
+     *
+     * @param accumulateDouble true to accumulate in double, false for float
+     */
+    public void setAccumulateDouble(boolean accumulateDouble) {
+        this.accumulateDouble = accumulateDouble;
+        for (FloatLayer layer : layers) {
+            layer.setAccumulateDouble(accumulateDouble);
+        }
+    }
+
+    /**
+     * Adds a new layer to the network.
+     *
+     * <p>Follows the same rules as
+     * {@link NeuralNetwork#addLayer(int, ActivationFunction, InitializationFunction)}:
+     * the first layer's input size equals its neuron count, later layers take the
+     * previous layer's neuron count.</p>
+     *
+     * @param neuronCount            Number of neurons in the layer
+     * @param activationFunction     Activation function for all neurons in the layer
+     * @param initializationFunction Weight initialization strategy for the layer
+     */
+    public void addLayer(int neuronCount, ActivationFunction activationFunction, InitializationFunction initializationFunction) {
+        int inputSize = layers.isEmpty() ? neuronCount : layers.get(layers.size() - 1).getNeuronCount();
+        ValidationUtils.validateLayerConfig(neuronCount, inputSize, activationFunction, initializationFunction);
+
+        FloatLayer layer = new FloatLayer(neuronCount, inputSize, activationFunction, initializationFunction);
+        layer.setAccumulateDouble(accumulateDouble);
+        layers.add(layer);
+    }
+
+    /**
+     * Performs forward propagation to generate predictions.
+     *
+     * @param inputs Input vector matching the size of the first layer
+     * @return Output vector with size matching the final layer
+     */
+    public float[] predict(float[] inputs) {
+        ValidationUtils.validateNetworkState(this);
+        ValidationUtils.validateInputVector(inputs, layers.get(0).getInputSize());
+
+        try {
+            float[] outputs = inputs;
+            for (FloatLayer layer : layers) {
+                outputs = layer.forward(outputs);
+            }
+            return outputs;
+        } catch (Exception e) {
+            throw new NeuralNetworkException("Error during prediction", e);
+        }
+    }
+
+    /**
+     * Trains the network on one sample using backpropagation.
+     *
+     * @param inputs  Training input vector
+     * @param targets Target output vector
+     */
+    public void train(float[] inputs, float[] targets) {
+        ValidationUtils.validateNetworkState(this);
+        ValidationUtils.validateTrainingData(inputs, targets, this);
+
+        try {
+            float[] outputs = predict(inputs);
+
+            // Back propagation
+            float[] errors = new float[outputs.length];
+            for (int i = 0; i < outputs.length; i++) {
+                errors[i] = targets[i] - outputs[i];
+            }
+
+            float rate = (float) learningRate;
+            for (int i = layers.size() - 1; i >= 0; i--) {
+                float[] layerInputs = i == 0 ? inputs : layers.get(i - 1).getOutputs();
+                errors = layers.get(i).backward(layerInputs, errors, rate);
+            }
+        } catch (Exception e) {
+            throw new TrainingException("Error during training: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.rts.jnn.core.network;
+
+import java.util.List;
+
+/**
+ * Holds the activation buffers for an allocation-free forward pass.
+ *
+ * <p>Two buffers, each as wide as the widest layer, are allocated once from the network
+ * topology. Layers write their activations alternately into one and read their inputs
+ * from the other, so a prediction through
+ * {@link NeuralNetwork#predict(double[], double[], ForwardWorkspace)} creates no garbage
+ * regardless of the network depth.</p>
+ *
+ * <p><b>Thread Safety:</b> A workspace must only be used by one thread at a time. Threads
+ * predicting concurrently with the same network each need their own workspace.</p>
+ *
+ * <h2>Usage Example:</h2>
+ * <pre>{@code
+ * ForwardWorkspace workspace = network.newForwardWorkspace();
+ * double[] output = new double[36];
+ * for (double[] inputs : requests) {
+ *     network.predict(inputs, output, workspace);
+ * }
+ * }</pre>
+ *
+ * @see NeuralNetwork#newForwardWorkspace()
+ */
+public final class ForwardWorkspace {
+
+    private final double[] ping;
+    private final double[] pong;
+
+    /**
+     * Creates buffers wide enough for every layer in the list.
+     *
+     * @param layers Layers to size the buffers from
+     */
+    public ForwardWorkspace(List<Layer> layers) {
+        int width = 0;
+        for (Layer layer : layers) {
+            width = Math.max(width, layer.getNeuronCount());
+        }
+        ping = new double[width];
+        pong = new double[width];
+    }
+
+    /**
+     * Checks whether these buffers are wide enough for the given layers.
+     *
+     * @param layers Layers to compare against
+     * @return true if every layer's activations fit into the buffers
+     */
+    public boolean fits(List<Layer> layers) {
+        for (int i = 0; i < layers.size(); i++) {
+            if (layers.get(i).getNeuronCount() > ping.length) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Propagates inputs through the layers using these buffers and copies the final
+     * activations into {@code output}.
+     *
+     * @param layers   Layers to run, which must fit this workspace
+     * @param inputs   Input vector of the first layer
+     * @param output   Vector receiving the outputs of the last layer
+     * @param executor Executor splitting wide layers, or {@code null} to run sequentially
+     */
+    void forward(List<Layer> layers, double[] inputs, double[] output, IntraLayerExecutor executor) {
+        double[] activations = inputs;
+        for (int i = 0; i < layers.size(); i++) {
+            double[] buffer = buffer(i);
+            if (executor == null) {
+                layers.get(i).forward(activations, buffer);
+            } else {
+                executor.forward(layers.get(i), activations, buffer);
+            }
+            activations = buffer;
+        }
+        System.arraycopy(activations, 0, output, 0, output.length);
+    }
+
+    /**
+     * Returns the buffer that receives the activations of the given layer.
+     *
+     * @param layer Layer index
+     * @return Activation buffer, at least as long as the layer's neuron count
+     */
+    double[] buffer(int layer) {
+        return (layer & 1) == 0 ? ping : pong;
+    }
+}
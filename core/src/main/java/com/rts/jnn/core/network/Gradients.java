@@ -0,0 +1,101 @@
+package com.rts.jnn.core.network;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Holds accumulated weight and bias gradients for every layer of a network.
+ *
+ * <p>One buffer is kept per layer, shaped like that layer's weight matrix and bias
+ * vector; for a {@link SparseLayer} the weight buffer holds only the stored weights,
+ * in the order of its sparse matrix values. Gradients follow the sign convention of
+ * {@link NeuralNetwork#train(double[], double[])} (target minus output), so they are
+ * added to the weights when applied.</p>
+ *
+ * <p><b>Thread Safety:</b> This class is not thread-safe.</p>
+ *
+ * @see Layer#backwardBatch(double[], double[], double[], double[], int, double[], double[])
+ * @see Layer#applyGradients(double[], double[], double)
+ */
+public final class Gradients {
+
+    private final double[][] weightGradients;
+    private final double[][] biasGradients;
+
+    /**
+     * Creates zeroed gradient buffers matching the given layers.
+     *
+     * @param layers Layers to size the buffers from
+     */
+    public Gradients(List<Layer> layers) {
+        weightGradients = new double[layers.size()][];
+        biasGradients = new double[layers.size()][];
+        for (int i = 0; i < layers.size(); i++) {
+            Layer layer = layers.get(i);
+            weightGradients[i] = new double[layer.getWeightCount()];
+            biasGradients[i] = new double[layer.getNeuronCount()];
+        }
+    }
+
+    /**
+     * Resets all gradients to zero.
+     */
+    public void clear() {
+        for (int i = 0; i < weightGradients.length; i++) {
+            Arrays.fill(weightGradients[i], 0.0);
+            Arrays.fill(biasGradients[i], 0.0);
+        }
+    }
+
+    /**
+     * Adds another set of gradients of the same shape to this one.
+     *
+     * @param other Gradients to add
+     */
+    public void add(Gradients other) {
+        for (int i = 0; i < weightGradients.length; i++) {
+            double[] w = weightGradients[i];
+            double[] ow = other.weightGradients[i];
+            for (int k = 0; k < w.length; k++) {
+                w[k] += ow[k];
+            }
+            double[] b = biasGradients[i];
+            double[] ob = other.biasGradients[i];
+            for (int k = 0; k < b.length; k++) {
+                b[k] += ob[k];
+            }
+        }
+    }
+
+    /**
+     * Checks whether these buffers still match the shape of the given layers.
+     *
+     * @param layers Layers to compare against
+     * @return true if every buffer has the size of the corresponding layer
+     */
+    public boolean fits(List<Layer> layers) {
+        if (layers.size() != weightGradients.length) {
+            return false;
+        }
+        for (int i = 0; i < weightGradients.length; i++) {
+            Layer layer = layers.get(i);
+            if (weightGradients[i].length != layer.getWeightCount()
+                    || biasGradients[i].length != layer.getNeuronCount()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public int getLayerCount() {
+        return weightGradients.length;
+    }
+
+    public double[] getWeightGradients(int layer) {
+        return weightGradients[layer];
+    }
+
+    public double[] getBiasGradients(int layer) {
+        return biasGradients[layer];
+    }
+}
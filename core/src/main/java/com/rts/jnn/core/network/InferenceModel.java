@@ -0,0 +1,192 @@
+package com.rts.jnn.core.network;
+
+import com.rts.jnn.core.exception.DataValidationException;
+import com.rts.jnn.core.exception.NetworkConfigurationException;
+import com.rts.jnn.core.exception.NeuralNetworkException;
+import com.rts.jnn.core.validation.ValidationUtils;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Provides an immutable, thread-safe snapshot of a trained network for inference.
+ *
+ * <p>Created by {@link NeuralNetwork#freeze()}. The model owns a private deep copy of
+ * every layer's weights and biases, except read-only mapped weights of an
+ * {@link OffHeapLayer}, which can't change and are shared. Nothing is written after
+ * construction, so one instance can serve any number of threads at once. All per-call scratch state lives in
+ * a {@link ForwardWorkspace}: either one supplied by the caller, or one kept per thread
+ * by the model itself.</p>
+ *
+ * <p><b>Thread Safety:</b> This class is thread-safe. The layers are only reachable
+ * through final fields set in the constructor, which guarantees every thread sees the
+ * fully initialized weights.</p>
+ *
+ * <h2>Usage Example:</h2>
+ * <pre>{@code
+ * InferenceModel model = network.freeze();
+ *
+ * // From any number of threads
+ * double[] outputs = model.predict(inputs);
+ *
+ * // Or without allocation, with a workspace owned by the calling thread
+ * ForwardWorkspace workspace = model.newWorkspace();
+ * double[] output = new double[model.getOutputSize()];
+ * model.predict(inputs, output, workspace);
+ * }</pre>
+ *
+ * @see NeuralNetwork#freeze()
+ */
+public final class InferenceModel {
+
+    private final List<Layer> layers;
+    private final int inputSize;
+    private final int outputSize;
+
+    /**
+     * Workspace used by calls that don't supply their own
+     */
+    private final ThreadLocal<ForwardWorkspace> workspaces;
+
+    /**
+     * Executor splitting wide layers across threads, or null
+     */
+    private final IntraLayerExecutor layerExecutor;
+
+    /**
+     * Creates a model over layers that nobody else references.
+     *
+     * @param layers        Private copies of the network layers
+     * @param layerExecutor Executor splitting wide layers across threads, or {@code null}
+     */
+    InferenceModel(List<Layer> layers, IntraLayerExecutor layerExecutor) {
+        this.layers = List.copyOf(layers);
+        this.layerExecutor = layerExecutor;
+        this.inputSize = layers.get(0).getInputSize();
+        this.outputSize = layers.get(layers.size() - 1).getNeuronCount();
+        this.workspaces = ThreadLocal.withInitial(() -> new ForwardWorkspace(this.layers));
+    }
+
+    public int getInputSize() {
+        return inputSize;
+    }
+
+    public int getOutputSize() {
+        return outputSize;
+    }
+
+    public int getLayerCount() {
+        return layers.size();
+    }
+
+    /**
+     * Creates activation buffers for use with {@link #predict(double[], double[], ForwardWorkspace)}.
+     *
+     * @return Workspace sized for this model
+     */
+    public ForwardWorkspace newWorkspace() {
+        return new ForwardWorkspace(layers);
+    }
+
+    /**
+     * Performs forward propagation using the calling thread's workspace.
+     *
+     * @param inputs Input vector matching the model's input size
+     * @return Newly allocated output vector
+     * @throws DataValidationException if inputs don't match the model
+     */
+    public double[] predict(double[] inputs) {
+        double[] output = new double[outputSize];
+        predict(inputs, output, workspaces.get());
+        return output;
+    }
+
+    /**
+     * Performs forward propagation into a caller-provided vector using the calling thread's workspace.
+     *
+     * @param inputs Input vector matching the model's input size
+     * @param output Vector receiving the outputs, matching the model's output size
+     * @throws DataValidationException if a vector doesn't match the model
+     */
+    public void predict(double[] inputs, double[] output) {
+        predict(inputs, output, workspaces.get());
+    }
+
+    /**
+     * Performs forward propagation without allocating any memory.
+     *
+     * @param inputs    Input vector matching the model's input size
+     * @param output    Vector receiving the outputs, matching the model's output size
+     * @param workspace Workspace owned by the calling thread
+     * @throws DataValidationException if a vector doesn't match the model
+     * @throws NetworkConfigurationException if the workspace doesn't fit the model
+     */
+    public void predict(double[] inputs, double[] output, ForwardWorkspace workspace) {
+        ValidationUtils.validateInputVector(inputs, inputSize);
+        ValidationUtils.validateOutputVector(output, outputSize);
+        if (!workspace.fits(layers)) {
+            throw new NetworkConfigurationException("Forward workspace doesn't match the model layers");
+        }
+
+        try {
+            workspace.forward(layers, inputs, output, layerExecutor);
+        } catch (Exception e) {
+            throw new NeuralNetworkException("Error during prediction", e);
+        }
+    }
+
+    /**
+     * Performs forward propagation for a batch of input vectors.
+     *
+     * <p>Equivalent to {@link #predictBatch(double[][], double[][], ForkJoinPool)} on the
+     * common pool, with a newly allocated output matrix.</p>
+     *
+     * @param inputs Input vectors, one per row
+     * @return Output vectors, one per row
+     * @throws DataValidationException if any row doesn't match the model
+     */
+    public double[][] predictBatch(double[][] inputs) {
+        if (inputs == null) {
+            throw new DataValidationException("Prediction batch cannot be null");
+        }
+        double[][] outputs = new double[inputs.length][outputSize];
+        predictBatch(inputs, outputs, ForkJoinPool.commonPool());
+        return outputs;
+    }
+
+    /**
+     * Performs forward propagation for a batch into a preallocated output matrix, using the common pool.
+     *
+     * @param inputs  Input vectors, one per row
+     * @param outputs Output vectors to fill, one per row
+     * @throws DataValidationException if any row doesn't match the model
+     */
+    public void predictBatch(double[][] inputs, double[][] outputs) {
+        predictBatch(inputs, outputs, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Performs forward propagation for a batch into a preallocated output matrix.
+     *
+     * <p>Rows are propagated together as matrix-matrix products. Batches large enough to
+     * amortize task overhead, judged by batch size and layer widths, are split across the
+     * given pool; smaller ones run on the calling thread.</p>
+     *
+     * @param inputs  Input vectors, one per row
+     * @param outputs Output vectors to fill, one per row
+     * @param pool    Pool to run parallel tasks in
+     * @throws DataValidationException if any row doesn't match the model
+     */
+    public void predictBatch(double[][] inputs, double[][] outputs, ForkJoinPool pool) {
+        ValidationUtils.validatePredictionBatch(inputs, outputs, inputSize, outputSize);
+        if (inputs.length == 0) {
+            return;
+        }
+
+        try {
+            BatchPredictor.predict(layers, inputs, outputs, pool);
+        } catch (Exception e) {
+            throw new NeuralNetworkException("Error during batch prediction", e);
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.rts.jnn.core.network;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Splits the neurons of wide layers across the threads of a {@link ForkJoinPool}.
+ *
+ * <p>A layer is only split when it is wide enough to pay for the task overhead: it must
+ * have at least {@link #MIN_PARALLEL_WORK} weights and room for two tasks of
+ * {@link #MIN_ROWS_PER_TASK} neurons. Narrower layers run on the calling thread.</p>
+ *
+ * <p>The forward pass needs no coordination because every neuron range writes its own
+ * outputs. In the backward pass every range also propagates its errors to <em>all</em>
+ * inputs, so each task accumulates into a private partial buffer, and the partial
+ * buffers are summed in task order afterwards instead of contending on one array.</p>
+ */
+final class IntraLayerExecutor {
+
+    /**
+     * Minimum number of weights for a layer to be split
+     */
+    static final long MIN_PARALLEL_WORK = 1L << 16;
+
+    /**
+     * Minimum number of neurons computed by one task
+     */
+    static final int MIN_ROWS_PER_TASK = 64;
+
+    private final ForkJoinPool pool;
+
+    IntraLayerExecutor(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    ForkJoinPool getPool() {
+        return pool;
+    }
+
+    /**
+     * Returns the number of tasks the layer is split into, 1 if it runs sequentially.
+     */
+    int tasks(Layer layer) {
+        if (layer.getWeightCount() < MIN_PARALLEL_WORK) {
+            return 1;
+        }
+        return Math.max(1, Math.min(pool.getParallelism(), layer.getNeuronCount() / MIN_ROWS_PER_TASK));
+    }
+
+    /**
+     * Performs {@link Layer#forward(double[], double[])}, split by neuron range.
+     */
+    void forward(Layer layer, double[] inputs, double[] outputs) {
+        int tasks = tasks(layer);
+        if (tasks == 1) {
+            layer.forward(inputs, outputs);
+            return;
+        }
+
+        int neurons = layer.getNeuronCount();
+        ForkJoinTask<?>[] subtasks = new ForkJoinTask<?>[tasks];
+        for (int t = 0; t < tasks; t++) {
+            int from = start(t, tasks, neurons);
+            int to = start(t + 1, tasks, neurons);
+            subtasks[t] = ForkJoinTask.adapt(() -> layer.forwardRows(inputs, outputs, from, to));
+        }
+        invokeAll(subtasks);
+    }
+
+    /**
+     * Performs {@link Layer#backward(double[], double[], double[], double[], double)}, split by
+     * neuron range, reducing the propagated errors through the workspace's partial buffers.
+     */
+    void backward(Layer layer, double[] inputs, double[] outputs, double[] errors, double[] nextErrors,
+                  double learningRate, TrainingWorkspace workspace) {
+        int tasks = tasks(layer);
+        if (tasks == 1) {
+            layer.backward(inputs, outputs, errors, nextErrors, learningRate);
+            return;
+        }
+
+        int neurons = layer.getNeuronCount();
+        int inputSize = layer.getInputSize();
+        double[][] partials = nextErrors == null ? null : workspace.partialErrors(tasks, inputSize);
+        ForkJoinTask<?>[] subtasks = new ForkJoinTask<?>[tasks];
+        for (int t = 0; t < tasks; t++) {
+            int from = start(t, tasks, neurons);
+            int to = start(t + 1, tasks, neurons);
+            double[] partial = partials == null ? null : partials[t];
+            subtasks[t] = ForkJoinTask.adapt(() -> {
+                if (partial != null) {
+                    Arrays.fill(partial, 0, inputSize, 0.0);
+                }
+                layer.backwardRows(inputs, outputs, errors, partial, learningRate, from, to);
+            });
+        }
+        invokeAll(subtasks);
+
+        if (nextErrors != null) {
+            // Fixed-order reduction of the partial buffers
+            System.arraycopy(partials[0], 0, nextErrors, 0, inputSize);
+            for (int t = 1; t < tasks; t++) {
+                double[] partial = partials[t];
+                for (int i = 0; i < inputSize; i++) {
+                    nextErrors[i] += partial[i];
+                }
+            }
+        }
+    }
+
+    private void invokeAll(ForkJoinTask<?>[] subtasks) {
+        if (ForkJoinTask.inForkJoinPool() && ForkJoinTask.getPool() == pool) {
+            ForkJoinTask.invokeAll(subtasks);
+        } else {
+            pool.invoke(ForkJoinTask.adapt(() -> ForkJoinTask.invokeAll(subtasks)));
+        }
+    }
+
+    private static int start(int task, int tasks, int neurons) {
+        return (int) ((long) task * neurons / tasks);
+    }
+}
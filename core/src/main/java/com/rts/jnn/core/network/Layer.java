@@ -2,6 +2,10 @@ package com.rts.jnn.core.network;
 
 import com.rts.jnn.core.activation.ActivationFunction;
 import com.rts.jnn.core.initialization.InitializationFunction;
+import com.rts.jnn.core.math.LinearAlgebra;
+import com.rts.jnn.core.math.SparseMatrix;
+
+import java.util.Arrays;
 
 /**
  * Represents a layer of neurons in the neural network.
@@ -18,6 +22,15 @@ import com.rts.jnn.core.initialization.InitializationFunction;
  *   <li>Full connectivity with previous layer</li>
  * </ul>
  *
+ * <h2>Storage Layout:</h2>
+ * <p>All weights of the layer live in a single row-major array of
+ * {@code neuronCount * inputSize} values, where row {@code i} holds the input weights
+ * of neuron {@code i}. Biases live in a separate array of {@code neuronCount} values.
+ * Forward and backward passes therefore stream through one contiguous block of memory
+ * instead of chasing a pointer per neuron. {@link #getNeurons()} is kept as a
+ * compatibility view over this storage. Layers whose weights are mostly zero can be
+ * stored in compressed form instead, see {@link SparseLayer}.</p>
+ *
  * <h2>Example Usage:</h2>
  * <pre>{@code
  * // Create a layer with 10 neurons, 5 inputs
@@ -31,20 +44,43 @@ import com.rts.jnn.core.initialization.InitializationFunction;
  * // Forward propagation
  * double[] inputs = {1.0, 0.5, -0.5, 0.8, -0.2};
  * double[] outputs = layer.forward(inputs);
+ *
+ * // Weight of neuron 3 for input 2
+ * double w = layer.getWeights()[3 * layer.getInputSize() + 2];
  * }</pre>
  */
 public class Layer {
 
     /**
-     * Array of neurons in this layer
+     * Number of neurons in this layer
      */
-    private Neuron[] neurons;
+    private int neuronCount;
+
+    /**
+     * Number of inputs to each neuron
+     */
+    private int inputSize;
+
+    /**
+     * Row-major weight matrix of size neuronCount x inputSize
+     */
+    private double[] weights;
+
+    /**
+     * Bias of each neuron
+     */
+    private double[] biases;
 
     /**
      * Output values from the last forward pass
      */
     private double[] outputs;
 
+    /**
+     * Lazily created compatibility view returned by {@link #getNeurons()}
+     */
+    private Neuron[] neurons;
+
     /**
      * Activation function used by all neurons in the layer
      */
@@ -70,18 +106,83 @@ public class Layer {
             ActivationFunction activationFunction,
             InitializationFunction initializationFunction
     ) {
-        neurons = new Neuron[neuronCount];
+        this(neuronCount, inputSize, new double[neuronCount * inputSize], new double[neuronCount],
+                activationFunction, initializationFunction);
+
+        // Initialize each neuron's row of the weight matrix
+        for (int i = 0; i < neuronCount; i++) {
+            System.arraycopy(initializationFunction.init(inputSize), 0, weights, i * inputSize, inputSize);
+        }
+    }
+
+    /**
+     * Creates a layer over existing weight and bias arrays without copying them.
+     *
+     * @param neuronCount            Number of neurons in this layer
+     * @param inputSize              Number of inputs to each neuron
+     * @param weights                Row-major weights, at least neuronCount * inputSize long
+     * @param biases                 Biases, at least neuronCount long
+     * @param activationFunction     Activation function for all neurons
+     * @param initializationFunction Weight initialization strategy
+     */
+    Layer(
+            int neuronCount,
+            int inputSize,
+            double[] weights,
+            double[] biases,
+            ActivationFunction activationFunction,
+            InitializationFunction initializationFunction
+    ) {
+        this.neuronCount = neuronCount;
+        this.inputSize = inputSize;
+        this.weights = weights;
+        this.biases = biases;
         this.activationFunction = activationFunction;
         this.initializationFunction = initializationFunction;
+    }
 
-        // Initialize each neuron
-        for (int i = 0; i < neuronCount; i++) {
-            neurons[i] = new Neuron(
-                    initializationFunction.init(inputSize),
-                    0.0,
-                    activationFunction
-            );
+    /**
+     * Creates a layer that takes ownership of existing weight and bias arrays.
+     *
+     * <p>Unlike the public constructor, no initialization function is run, so this is the
+     * cheap path for layers whose parameters are already known, such as those loaded from
+     * a saved model. The arrays are used as is, not copied; the initialization function is
+     * only recorded so the layer can be saved and recreated.</p>
+     *
+     * @param neuronCount            Number of neurons in this layer
+     * @param inputSize              Number of inputs to each neuron
+     * @param weights                Row-major weights, exactly neuronCount * inputSize long
+     * @param biases                 Biases, one per neuron
+     * @param activationFunction     Activation function for all neurons
+     * @param initializationFunction Weight initialization strategy the weights came from
+     * @return Layer over the given arrays
+     * @throws IllegalArgumentException if a size is less than 1 or an array doesn't match it
+     */
+    public static Layer fromWeights(int neuronCount, int inputSize, double[] weights, double[] biases,
+                                    ActivationFunction activationFunction,
+                                    InitializationFunction initializationFunction) {
+        if (neuronCount < 1 || inputSize < 1) {
+            throw new IllegalArgumentException("Layer needs at least one neuron and one input, got: "
+                    + neuronCount + "x" + inputSize);
+        }
+        if (weights.length != (long) neuronCount * inputSize || biases.length != neuronCount) {
+            throw new IllegalArgumentException("Arrays don't match a " + neuronCount + "x" + inputSize + " layer");
         }
+        return new Layer(neuronCount, inputSize, weights, biases, activationFunction, initializationFunction);
+    }
+
+    /**
+     * Creates a deep copy of this layer's weights and biases.
+     *
+     * <p>The copy shares the (stateless) activation and initialization functions but no
+     * mutable state with this layer.</p>
+     *
+     * @return Independent layer with the same parameters
+     */
+    public Layer copy() {
+        return new Layer(neuronCount, inputSize,
+                Arrays.copyOf(weights, neuronCount * inputSize), Arrays.copyOf(biases, neuronCount),
+                activationFunction, initializationFunction);
     }
 
     /**
@@ -91,20 +192,344 @@ public class Layer {
      * @return Output vector containing each neuron's activation
      */
     public double[] forward(double[] inputs) {
-        outputs = new double[neurons.length];
-        for (int i = 0; i < neurons.length; i++) {
-            outputs[i] = neurons[i].activate(inputs);
-        }
+        outputs = new double[neuronCount];
+        forward(inputs, outputs);
         return outputs;
     }
 
+    /**
+     * Performs forward propagation into a caller-provided buffer without allocating.
+     *
+     * <p>Unlike {@link #forward(double[])} this does not record the outputs for a later
+     * {@link #backward(double[], double[], double)} call, so it may be used for pure
+     * inference. Both buffers may be longer than the layer requires; only the leading
+     * {@code inputSize} and {@code neuronCount} values are read and written.</p>
+     *
+     * @param inputs  Input vector, at least inputSize long
+     * @param outputs Buffer receiving each neuron's activation, at least neuronCount long
+     */
+    public void forward(double[] inputs, double[] outputs) {
+        forwardRows(inputs, outputs, 0, neuronCount);
+    }
+
+    /**
+     * Performs forward propagation for the neurons [from, to) only.
+     *
+     * <p>Disjoint neuron ranges touch disjoint parts of the weights and outputs, so
+     * several threads may compute different ranges of the same layer at once.</p>
+     *
+     * @param inputs  Input vector, at least inputSize long
+     * @param outputs Buffer receiving the activations, at least neuronCount long
+     * @param from    First neuron (inclusive)
+     * @param to      Last neuron (exclusive)
+     */
+    public void forwardRows(double[] inputs, double[] outputs, int from, int to) {
+        LinearAlgebra.gemv(weights, from * inputSize, to - from, inputSize, inputs, 0, biases, from, outputs, from);
+        activationFunction.activate(outputs, outputs, from, to - from);
+    }
+
+    /**
+     * Performs one stochastic gradient descent step for this layer.
+     *
+     * <p>Uses the outputs of the last {@link #forward(double[])} call. Each neuron's
+     * delta is its error times the activation derivative at its output; the neuron's
+     * weights and bias are moved by {@code learningRate * delta * input}, and the updated
+     * weights are used to propagate the error to the previous layer.</p>
+     *
+     * @param inputs       Inputs that produced the last forward pass
+     * @param errors       Error (target minus output) of each neuron
+     * @param learningRate Step size
+     * @return Errors propagated to each input of this layer
+     */
+    public double[] backward(double[] inputs, double[] errors, double learningRate) {
+        double[] nextErrors = new double[inputSize];
+        backward(inputs, outputs.clone(), errors, nextErrors, learningRate);
+        return nextErrors;
+    }
+
+    /**
+     * Performs one stochastic gradient descent step into caller-provided buffers.
+     *
+     * <p>Same update as {@link #backward(double[], double[], double)}, but the outputs of
+     * the forward pass are passed in explicitly and the propagated errors are written to
+     * {@code nextErrors}, so nothing is allocated. Buffers may be longer than the layer
+     * requires.</p>
+     *
+     * @param inputs       Inputs that produced the forward pass, at least inputSize long
+     * @param outputs      Outputs of the forward pass, at least neuronCount long;
+     *                     overwritten with the activation derivatives
+     * @param errors       Error (target minus output) of each neuron
+     * @param nextErrors   Buffer receiving the errors propagated to each input, at least
+     *                     inputSize long, or {@code null} if not needed
+     * @param learningRate Step size
+     */
+    public void backward(double[] inputs, double[] outputs, double[] errors, double[] nextErrors,
+                         double learningRate) {
+        if (nextErrors != null) {
+            Arrays.fill(nextErrors, 0, inputSize, 0.0);
+        }
+        backwardRows(inputs, outputs, errors, nextErrors, learningRate, 0, neuronCount);
+    }
+
+    /**
+     * Performs the stochastic gradient descent step for the neurons [from, to) only.
+     *
+     * <p>Updates the weights and biases of those neurons and <em>adds</em> their
+     * contribution to {@code nextErrors}, which is not cleared first. Threads working on
+     * disjoint neuron ranges must therefore each use their own {@code nextErrors} buffer
+     * and sum the buffers afterwards.</p>
+     *
+     * @param inputs       Inputs that produced the forward pass, at least inputSize long
+     * @param outputs      Outputs of the forward pass, at least neuronCount long;
+     *                     overwritten with the activation derivatives
+     * @param errors       Error (target minus output) of each neuron
+     * @param nextErrors   Buffer accumulating the errors propagated to each input, or
+     *                     {@code null} if not needed
+     * @param learningRate Step size
+     * @param from         First neuron (inclusive)
+     * @param to           Last neuron (exclusive)
+     */
+    public void backwardRows(double[] inputs, double[] outputs, double[] errors, double[] nextErrors,
+                             double learningRate, int from, int to) {
+        activationFunction.derivativeInPlace(outputs, from, to - from);
+        for (int j = from, row = from * inputSize; j < to; j++, row += inputSize) {
+            double delta = errors[j] * outputs[j];
+            double step = learningRate * delta;
+            LinearAlgebra.axpy(step, inputs, 0, weights, row, inputSize);
+            if (nextErrors != null) {
+                LinearAlgebra.axpy(delta, weights, row, nextErrors, 0, inputSize);
+            }
+            biases[j] += step;
+        }
+    }
+
+    /**
+     * Performs forward propagation for a batch of input vectors.
+     *
+     * <p>Inputs and outputs are row-major matrices with one sample per row, so this
+     * computes {@code outputs = activation(inputs * W^T + b)} in one pass over the
+     * weight matrix per sample block.</p>
+     *
+     * @param inputs    Input matrix, batchSize x inputSize
+     * @param outputs   Output matrix to fill, batchSize x neuronCount
+     * @param batchSize Number of samples in the batch
+     */
+    public void forwardBatch(double[] inputs, double[] outputs, int batchSize) {
+        LinearAlgebra.gemmNT(batchSize, neuronCount, inputSize, inputs, weights, biases, outputs);
+        activationFunction.activate(outputs, outputs, 0, batchSize * neuronCount);
+    }
+
+    /**
+     * Back-propagates a batch of errors and accumulates the resulting gradients.
+     *
+     * <p>The weights are not modified; the accumulated values follow the same sign
+     * convention as {@link #backward(double[], double[], double)}, so applying them with
+     * {@link #applyGradients(double[], double[], double)} moves the weights towards the
+     * targets.</p>
+     *
+     * @param inputs          Input matrix of the forward pass, batchSize x inputSize
+     * @param outputs         Output matrix of the forward pass, batchSize x neuronCount;
+     *                        overwritten with the activation derivatives
+     * @param errors          Error matrix (target minus output), batchSize x neuronCount;
+     *                        overwritten with the neuron deltas
+     * @param nextErrors      Matrix receiving the errors propagated to the inputs,
+     *                        batchSize x inputSize, or {@code null} if not needed
+     * @param batchSize       Number of samples in the batch
+     * @param weightGradients Accumulator for weight gradients, neuronCount x inputSize
+     * @param biasGradients   Accumulator for bias gradients, neuronCount
+     */
+    public void backwardBatch(double[] inputs, double[] outputs, double[] errors, double[] nextErrors,
+                              int batchSize, double[] weightGradients, double[] biasGradients) {
+        activationFunction.derivativeInPlace(outputs, 0, batchSize * neuronCount);
+        for (int b = 0, out = 0; b < batchSize; b++, out += neuronCount) {
+            for (int j = 0; j < neuronCount; j++) {
+                double delta = errors[out + j] * outputs[out + j];
+                errors[out + j] = delta;
+                biasGradients[j] += delta;
+            }
+        }
+        LinearAlgebra.gemmTN(neuronCount, inputSize, batchSize, errors, inputs, weightGradients);
+
+        if (nextErrors != null) {
+            LinearAlgebra.gemmNN(batchSize, inputSize, neuronCount, errors, weights, nextErrors);
+        }
+    }
+
+    /**
+     * Adds scaled accumulated gradients to the weights and biases.
+     *
+     * @param weightGradients Weight gradients, neuronCount x inputSize
+     * @param biasGradients   Bias gradients, neuronCount
+     * @param scale           Factor applied to every gradient, typically learningRate / batchSize
+     */
+    public void applyGradients(double[] weightGradients, double[] biasGradients, double scale) {
+        LinearAlgebra.axpy(scale, weightGradients, 0, weights, 0, neuronCount * inputSize);
+        LinearAlgebra.axpy(scale, biasGradients, 0, biases, 0, neuronCount);
+    }
+
+    /**
+     * Returns the weight connecting an input to a neuron.
+     *
+     * @param neuron Neuron index
+     * @param input  Input index
+     * @return Weight value
+     */
+    public double getWeight(int neuron, int input) {
+        return weights[neuron * inputSize + input];
+    }
+
+    /**
+     * Sets the weight connecting an input to a neuron.
+     *
+     * @param neuron Neuron index
+     * @param input  Input index
+     * @param value  New weight value
+     */
+    public void setWeight(int neuron, int input, double value) {
+        weights[neuron * inputSize + input] = value;
+    }
+
+    /**
+     * Returns the dot product of one neuron's weights with an input vector.
+     *
+     * <p>Reads the row in place; subclasses with other storage override this so a single
+     * neuron can be evaluated without materializing the whole weight matrix.</p>
+     *
+     * @param neuron Neuron index
+     * @param inputs Input vector, at least inputSize long
+     * @return Weighted sum of the inputs, without the bias
+     */
+    public double dotRow(int neuron, double[] inputs) {
+        return LinearAlgebra.dot(weights, neuron * inputSize, inputs, 0, inputSize);
+    }
+
+    public double getBias(int neuron) {
+        return biases[neuron];
+    }
+
+    public void setBias(int neuron, double value) {
+        biases[neuron] = value;
+    }
+
     // Getters and setters
+    public int getNeuronCount() {
+        return neuronCount;
+    }
+
+    public int getInputSize() {
+        return inputSize;
+    }
+
+    /**
+     * Returns the number of weights this layer stores and updates.
+     *
+     * <p>This is {@code neuronCount * inputSize} for a dense layer and the number of
+     * stored entries for a {@link SparseLayer}; gradient buffers hold one value per
+     * stored weight.</p>
+     *
+     * @return Stored weight count
+     */
+    public int getWeightCount() {
+        return neuronCount * inputSize;
+    }
+
+    /**
+     * Returns the fraction of weights that are non-zero.
+     *
+     * @return Density in [0, 1]
+     */
+    public double getDensity() {
+        return SparseMatrix.density(weights, neuronCount * inputSize);
+    }
+
+    /**
+     * Returns a dense version of this layer.
+     *
+     * @return This layer, which is already dense
+     */
+    public Layer toDense() {
+        return this;
+    }
+
+    /**
+     * Returns the live row-major weight matrix of this layer.
+     *
+     * @return Weights, neuronCount x inputSize
+     */
+    public double[] getWeights() {
+        return weights;
+    }
+
+    /**
+     * Copies the weights into an existing array without allocating.
+     *
+     * @param target Array receiving the row-major weights, at least neuronCount x inputSize long
+     */
+    public void copyWeightsInto(double[] target) {
+        System.arraycopy(weights, 0, target, 0, neuronCount * inputSize);
+    }
+
+    /**
+     * Returns the live bias vector of this layer.
+     *
+     * @return Biases, one per neuron
+     */
+    public double[] getBiases() {
+        return biases;
+    }
+
+    /**
+     * Returns a per-neuron view over this layer's storage.
+     *
+     * <p>Kept for compatibility; each {@link Neuron} reads and writes through to the
+     * layer's weight matrix and bias vector.</p>
+     *
+     * @return Neuron views, one per neuron
+     */
     public Neuron[] getNeurons() {
+        if (neurons == null || neurons.length != neuronCount) {
+            neurons = new Neuron[neuronCount];
+            for (int i = 0; i < neuronCount; i++) {
+                neurons[i] = new Neuron(this, i);
+            }
+        }
         return neurons;
     }
 
+    /**
+     * Replaces this layer's weights and biases with those of the given neurons.
+     *
+     * <p>The values are copied into the layer's contiguous storage; the neurons
+     * themselves are not retained.</p>
+     *
+     * @param neurons Neurons to copy, all with the same number of weights
+     */
     public void setNeurons(Neuron[] neurons) {
-        this.neurons = neurons;
+        int newInputSize = neurons.length == 0 ? 0 : neurons[0].getInputSize();
+        double[] newWeights = new double[neurons.length * newInputSize];
+        double[] newBiases = new double[neurons.length];
+        for (int i = 0; i < neurons.length; i++) {
+            neurons[i].copyWeights(newWeights, i * newInputSize);
+            newBiases[i] = neurons[i].getBias();
+        }
+        replaceParameters(neurons.length, newInputSize, newWeights, newBiases);
+    }
+
+    /**
+     * Replaces the shape and parameters of this layer.
+     *
+     * @param neuronCount New number of neurons
+     * @param inputSize   New number of inputs to each neuron
+     * @param weights     Row-major weights, neuronCount x inputSize
+     * @param biases      Biases, one per neuron
+     */
+    void replaceParameters(int neuronCount, int inputSize, double[] weights, double[] biases) {
+        this.neuronCount = neuronCount;
+        this.inputSize = inputSize;
+        this.weights = weights;
+        this.biases = biases;
+        this.outputs = null;
+        this.neurons = null;
     }
 
     public double[] getOutputs() {
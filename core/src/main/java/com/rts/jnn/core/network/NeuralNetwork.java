@@ -1,6 +1,7 @@
 package com.rts.jnn.core.network;
 
 import com.rts.jnn.core.activation.ActivationFunction;
+import com.rts.jnn.core.exception.DataValidationException;
 import com.rts.jnn.core.exception.NetworkConfigurationException;
 import com.rts.jnn.core.exception.NeuralNetworkException;
 import com.rts.jnn.core.exception.TrainingException;
@@ -9,6 +10,8 @@ import com.rts.jnn.core.validation.ValidationUtils;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Provides the main neural network implementation for Morse code translation.
@@ -23,7 +26,9 @@ import java.util.List;
  *   <li>Dynamic learning rate adjustment</li>
  * </ul>
  *
- * <p><b>Thread Safety:</b> This class is not thread-safe and should not be accessed concurrently.</p>
+ * <p><b>Thread Safety:</b> This class is not thread-safe and should not be accessed concurrently.
+ * Use {@link #freeze()} to obtain an {@link InferenceModel} that can serve predictions from
+ * many threads with a single copy of the weights.</p>
  *
  * <h2>Usage Example:</h2>
  * <pre>{@code
@@ -39,6 +44,9 @@ import java.util.List;
  * double[] targets = new double[36]; // One-hot encoded target
  * targets[0] = 1.0; // Target 'A'
  * network.train(inputs, targets);
+ *
+ * // Or train on a mini-batch with one weight update
+ * network.train(batchInputs, batchTargets);
  * }</pre>
  *
  * @see Layer
@@ -46,10 +54,37 @@ import java.util.List;
  * @see com.rts.jnn.core.activation.ActivationFunction
  */
 public class NeuralNetwork {
+
+    /**
+     * Default density below which {@link #sparsify()} stores layers as {@link SparseLayer}s
+     */
+    public static final double DEFAULT_SPARSITY_THRESHOLD = 0.1;
+
     private List<Layer> layers;
     private double learningRate;
     private double initialLearningRate;
 
+    /**
+     * Buffers reused by {@link #train(double[], double[])} and {@link #train(double[][], double[][])}
+     */
+    private TrainingWorkspace trainingWorkspace;
+
+    /**
+     * Executor splitting wide layers across threads, or null for sequential layers
+     */
+    private IntraLayerExecutor layerExecutor;
+
+    /**
+     * Incremented by every weight update, so compiled plans can tell their fused weights are stale;
+     * atomic because Hogwild workers update the weights concurrently
+     */
+    private final AtomicInteger parameterVersion = new AtomicInteger();
+
+    /**
+     * Density below which dense layers are converted to sparse layers
+     */
+    private double sparsityThreshold = DEFAULT_SPARSITY_THRESHOLD;
+
     /**
      * Creates a new neural network with the specified learning rate.
      *
@@ -92,6 +127,55 @@ public class NeuralNetwork {
         this.initialLearningRate = initialLearningRate;
     }
 
+    /**
+     * Enables splitting the neurons of wide layers across the threads of a pool.
+     *
+     * <p>Applies to the single-sample paths {@link #predict(double[], double[], ForwardWorkspace)}
+     * and {@link #train(double[], double[], TrainingWorkspace)}, and to models created by
+     * {@link #freeze()} afterwards. Only layers with many weights are split, so small
+     * layers keep running on the calling thread. This lowers the latency of a single
+     * request on large models, where batch-level parallelism does not help.</p>
+     *
+     * <p>In the backward pass each task propagates errors into its own buffer and the
+     * buffers are summed in a fixed order, so results are reproducible for a given pool
+     * parallelism but may differ in the last bits from sequential training. Parallel
+     * steps allocate a few small task objects per wide layer.</p>
+     *
+     * @param pool Pool to run layer tasks in, or {@code null} to disable intra-layer parallelism
+     */
+    public void setIntraLayerParallelism(ForkJoinPool pool) {
+        this.layerExecutor = pool == null ? null : new IntraLayerExecutor(pool);
+    }
+
+    /**
+     * Returns the pool used for intra-layer parallelism.
+     *
+     * @return Pool, or {@code null} if layers run sequentially
+     */
+    public ForkJoinPool getIntraLayerParallelism() {
+        return layerExecutor == null ? null : layerExecutor.getPool();
+    }
+
+    public double getSparsityThreshold() {
+        return sparsityThreshold;
+    }
+
+    /**
+     * Sets the density below which dense layers are converted to {@link SparseLayer}s.
+     *
+     * <p>Used by {@link #sparsify()} and the pruners; layers are never converted on their
+     * own. A threshold of 0 disables the conversion.</p>
+     *
+     * @param sparsityThreshold Density in [0, 1]
+     * @throws IllegalArgumentException if the threshold is outside [0, 1]
+     */
+    public void setSparsityThreshold(double sparsityThreshold) {
+        if (sparsityThreshold < 0 || sparsityThreshold > 1) {
+            throw new IllegalArgumentException("Sparsity threshold must be in range [0,1], got: " + sparsityThreshold);
+        }
+        this.sparsityThreshold = sparsityThreshold;
+    }
+
     /**
      * Adds a new layer to the neural network.
      *
@@ -105,6 +189,11 @@ public class NeuralNetwork {
      *   <li>For subsequent layers: equal to previous layer's neuron count</li>
      * </ul>
      *
+     * <p>The layer is always dense, so every weight trains, including those a
+     * {@link com.rts.jnn.core.initialization.SparseInitialization} starts at zero. Call
+     * {@link #sparsify()} to store sparse layers as {@link SparseLayer}s; that fixes their
+     * connectivity, since weights that are zero at that point can no longer change.</p>
+     *
      * @param neuronCount            Number of neurons in the layer
      * @param activationFunction     Activation function for all neurons in the layer
      * @param initializationFunction Weight initialization strategy for the layer
@@ -113,14 +202,80 @@ public class NeuralNetwork {
      */
     public void addLayer(int neuronCount, ActivationFunction activationFunction, InitializationFunction initializationFunction) {
         // Validate parameters
-        ValidationUtils.validateLayerConfig(neuronCount,
-                layers.isEmpty() ? neuronCount : layers.get(layers.size() - 1).getNeurons().length,
-                activationFunction, initializationFunction);
+        int inputSize = layers.isEmpty() ? neuronCount : layers.get(layers.size() - 1).getNeuronCount();
+        ValidationUtils.validateLayerConfig(neuronCount, inputSize, activationFunction, initializationFunction);
 
-        int inputSize = layers.isEmpty() ? neuronCount : layers.get(layers.size() - 1).getNeurons().length;
         layers.add(new Layer(neuronCount, inputSize, activationFunction, initializationFunction));
     }
 
+    /**
+     * Converts every dense layer whose density is below the sparsity threshold to a {@link SparseLayer}.
+     *
+     * <p>Call after zeroing weights, e.g. by pruning. Sparse layers keep their connections
+     * fixed from then on. Converted layers are new objects, so workspaces, plans and
+     * frozen models created before must be recreated.</p>
+     *
+     * @return Number of layers converted
+     */
+    public int sparsify() {
+        int converted = 0;
+        for (int i = 0; i < layers.size(); i++) {
+            Layer layer = layers.get(i);
+            Layer sparse = sparsify(layer);
+            if (sparse != layer) {
+                layers.set(i, sparse);
+                converted++;
+            }
+        }
+        return converted;
+    }
+
+    private Layer sparsify(Layer layer) {
+        if (layer instanceof SparseLayer || layer instanceof OffHeapLayer || layer.getDensity() >= sparsityThreshold) {
+            return layer;
+        }
+        return SparseLayer.fromDense(layer);
+    }
+
+    /**
+     * Moves the weights of every dense layer off the Java heap.
+     *
+     * <p>Each dense layer is replaced by an {@link OffHeapLayer} with the same parameters;
+     * sparse layers stay on the heap, where they are already compact. The heap copies
+     * become garbage, so the heap only has to hold one layer's weights at a time during
+     * the move. Converted layers are new objects, so workspaces, plans and frozen models
+     * created before must be recreated.</p>
+     *
+     * @return Number of layers moved
+     * @throws IllegalArgumentException if a layer's weights exceed 2 GB
+     */
+    public int moveOffHeap() {
+        int moved = 0;
+        for (int i = 0; i < layers.size(); i++) {
+            Layer layer = layers.get(i);
+            if (!(layer instanceof SparseLayer) && !(layer instanceof OffHeapLayer)) {
+                layers.set(i, OffHeapLayer.fromDense(layer));
+                moved++;
+            }
+        }
+        return moved;
+    }
+
+    /**
+     * Releases the off-heap memory of every {@link OffHeapLayer} in the network.
+     *
+     * <p>The network can't be used for prediction or training afterwards. Frozen models
+     * are not affected: they hold their own copies, or share read-only mapped weights,
+     * which then stay mapped until the frozen model is collected.</p>
+     */
+    public void releaseOffHeap() {
+        for (Layer layer : layers) {
+            if (layer instanceof OffHeapLayer) {
+                ((OffHeapLayer) layer).close();
+            }
+        }
+    }
+
     /**
      * Performs forward propagation to generate predictions.
      *
@@ -136,7 +291,7 @@ public class NeuralNetwork {
     public double[] predict(double[] inputs) {
         // Validate network state and inputs
         ValidationUtils.validateNetworkState(this);
-        ValidationUtils.validateInputVector(inputs, layers.get(0).getNeurons()[0].getWeights().length);
+        ValidationUtils.validateInputVector(inputs, layers.get(0).getInputSize());
 
         try {
             double[] outputs = inputs;
@@ -149,6 +304,143 @@ public class NeuralNetwork {
         }
     }
 
+    /**
+     * Creates activation buffers sized for this network's current topology.
+     *
+     * @return Workspace for {@link #predict(double[], double[], ForwardWorkspace)}
+     * @throws NetworkConfigurationException if network has no layers
+     */
+    public ForwardWorkspace newForwardWorkspace() {
+        ValidationUtils.validateNetworkState(this);
+        return new ForwardWorkspace(layers);
+    }
+
+    /**
+     * Performs forward propagation without allocating any memory.
+     *
+     * <p>Intermediate activations are written to the ping-pong buffers of the workspace
+     * and the final layer's activations are copied into {@code output}. Unlike
+     * {@link #predict(double[])}, this does not record layer outputs for training, so it
+     * is safe to call from several threads at once as long as each uses its own workspace
+     * and no thread trains the network concurrently.</p>
+     *
+     * @param inputs    Input vector matching the size of the first layer
+     * @param output    Vector receiving the outputs, with size matching the final layer
+     * @param workspace Workspace created by {@link #newForwardWorkspace()}
+     * @throws DataValidationException       if inputs or output don't match the network
+     * @throws NetworkConfigurationException if network has no layers or the workspace doesn't fit
+     */
+    public void predict(double[] inputs, double[] output, ForwardWorkspace workspace) {
+        // Validate network state, vectors and workspace
+        ValidationUtils.validateNetworkState(this);
+        ValidationUtils.validateInputVector(inputs, layers.get(0).getInputSize());
+        ValidationUtils.validateOutputVector(output, layers.get(layers.size() - 1).getNeuronCount());
+        if (!workspace.fits(layers)) {
+            throw new NetworkConfigurationException("Forward workspace doesn't match the network layers");
+        }
+
+        try {
+            workspace.forward(layers, inputs, output, layerExecutor);
+        } catch (Exception e) {
+            throw new NeuralNetworkException("Error during prediction", e);
+        }
+    }
+
+    /**
+     * Performs forward propagation for a batch of input vectors.
+     *
+     * <p>Equivalent to {@link #predictBatch(double[][], double[][], ForkJoinPool)} on the
+     * common pool, with a newly allocated output matrix.</p>
+     *
+     * @param inputs Input vectors, one per row
+     * @return Output vectors, one per row
+     * @throws DataValidationException if any row doesn't match the network
+     */
+    public double[][] predictBatch(double[][] inputs) {
+        ValidationUtils.validateNetworkState(this);
+        if (inputs == null) {
+            throw new DataValidationException("Prediction batch cannot be null");
+        }
+        double[][] outputs = new double[inputs.length][layers.get(layers.size() - 1).getNeuronCount()];
+        predictBatch(inputs, outputs, ForkJoinPool.commonPool());
+        return outputs;
+    }
+
+    /**
+     * Performs forward propagation for a batch into a preallocated output matrix, using the common pool.
+     *
+     * @param inputs  Input vectors, one per row
+     * @param outputs Output vectors to fill, one per row
+     * @throws DataValidationException if any row doesn't match the network
+     */
+    public void predictBatch(double[][] inputs, double[][] outputs) {
+        predictBatch(inputs, outputs, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Performs forward propagation for a batch into a preallocated output matrix.
+     *
+     * <p>Rows are propagated together as matrix-matrix products. Batches large enough to
+     * amortize task overhead, judged by batch size and layer widths, are split across the
+     * given pool; smaller ones run on the calling thread. Layer outputs used for training
+     * are not touched.</p>
+     *
+     * @param inputs  Input vectors, one per row
+     * @param outputs Output vectors to fill, one per row
+     * @param pool    Pool to run parallel tasks in
+     * @throws DataValidationException if any row doesn't match the network
+     */
+    public void predictBatch(double[][] inputs, double[][] outputs, ForkJoinPool pool) {
+        ValidationUtils.validateNetworkState(this);
+        ValidationUtils.validatePredictionBatch(inputs, outputs, layers.get(0).getInputSize(),
+                layers.get(layers.size() - 1).getNeuronCount());
+        if (inputs.length == 0) {
+            return;
+        }
+
+        try {
+            BatchPredictor.predict(layers, inputs, outputs, pool);
+        } catch (Exception e) {
+            throw new NeuralNetworkException("Error during batch prediction", e);
+        }
+    }
+
+    /**
+     * Creates an immutable snapshot of this network for concurrent inference.
+     *
+     * <p>The weights and biases are deep-copied, so training this network afterwards does
+     * not affect the returned model. Freeze again to publish updated weights. Read-only
+     * weights of a mapped {@link OffHeapLayer} can't change and are shared instead.</p>
+     *
+     * @return Thread-safe inference model with the current parameters
+     * @throws NetworkConfigurationException if network has no layers
+     */
+    public InferenceModel freeze() {
+        ValidationUtils.validateNetworkState(this);
+        List<Layer> copies = new ArrayList<>(layers.size());
+        for (Layer layer : layers) {
+            copies.add(layer.copy());
+        }
+        return new InferenceModel(copies, layerExecutor);
+    }
+
+    /**
+     * Validates the network once and compiles it into an {@link ExecutionPlan}.
+     *
+     * <p>The plan checks layer shapes and activation functions up front, merges runs of
+     * {@link com.rts.jnn.core.activation.LinearActivation} layers into single matrices
+     * where that saves work, and preallocates all buffers, so its predict and train calls
+     * skip validation entirely. Compile again after changing the layers.</p>
+     *
+     * @return Execution plan bound to this network
+     * @throws NetworkConfigurationException if network has no layers or the layer shapes don't chain
+     */
+    public ExecutionPlan compile() {
+        ValidationUtils.validateNetworkState(this);
+        ValidationUtils.validateLayerChain(layers);
+        return new ExecutionPlan(this);
+    }
+
     /**
      * Trains the network using backpropagation.
      *
@@ -160,56 +452,280 @@ public class NeuralNetwork {
      *   <li>Weight and bias updates</li>
      * </ol>
      *
+     * <p>Uses a workspace owned by the network. As before workspaces were introduced, each
+     * layer's {@link Layer#getOutputs()} is replaced by a new array holding its activations
+     * from this step's forward pass, so arrays returned earlier by {@link #predict(double[])}
+     * are left untouched. Use {@link #train(double[], double[], TrainingWorkspace)} to train
+     * without allocating.</p>
+     *
      * @param inputs  Training input vector
      * @param targets Target output vector
      * @throws IllegalArgumentException if vector dimensions don't match network
      * @throws IllegalStateException    if network has no layers
      */
     public void train(double[] inputs, double[] targets) {
-        // Validate network state and training data
+        ValidationUtils.validateNetworkState(this);
+        train(inputs, targets, trainingWorkspace(), true);
+    }
+
+    /**
+     * Creates training buffers sized for this network's current topology.
+     *
+     * @return Workspace for {@link #train(double[], double[], TrainingWorkspace)}
+     * @throws NetworkConfigurationException if network has no layers
+     */
+    public TrainingWorkspace newTrainingWorkspace() {
+        ValidationUtils.validateNetworkState(this);
+        return new TrainingWorkspace(layers);
+    }
+
+    /**
+     * Trains the network on one sample using the buffers of the given workspace.
+     *
+     * <p>Performs the same update as {@link #train(double[], double[])} without allocating:
+     * activations and errors live in the workspace. Unlike that method, it leaves the layer
+     * outputs returned by {@link Layer#getOutputs()} untouched.</p>
+     *
+     * @param inputs    Training input vector
+     * @param targets   Target output vector
+     * @param workspace Workspace created by {@link #newTrainingWorkspace()}
+     * @throws DataValidationException       if vector dimensions don't match network
+     * @throws NetworkConfigurationException if network has no layers or the workspace doesn't fit
+     */
+    public void train(double[] inputs, double[] targets, TrainingWorkspace workspace) {
+        train(inputs, targets, workspace, false);
+    }
+
+    private void train(double[] inputs, double[] targets, TrainingWorkspace workspace, boolean recordOutputs) {
+        // Validate network state, training data and workspace
         ValidationUtils.validateNetworkState(this);
         ValidationUtils.validateTrainingData(inputs, targets, this);
+        if (!workspace.fits(layers)) {
+            throw new NetworkConfigurationException("Training workspace doesn't match the network layers");
+        }
 
         try {
-            double[] outputs = predict(inputs);
+            backpropagate(inputs, targets, workspace, recordOutputs);
+        } catch (Exception e) {
+            throw new TrainingException("Error during training: " + e.getMessage());
+        }
+    }
 
-            // Back propagation
-            double[] errors = new double[outputs.length];
-            for (int i = 0; i < outputs.length; i++) {
-                errors[i] = targets[i] - outputs[i];
+    /**
+     * Runs one forward and backward pass for a sample without validating anything.
+     *
+     * <p>Shared by {@link #train(double[], double[], TrainingWorkspace)} and
+     * {@link ExecutionPlan#train(double[], double[])}, which validate up front.</p>
+     */
+    void backpropagate(double[] inputs, double[] targets, TrainingWorkspace workspace) {
+        backpropagate(inputs, targets, workspace, false);
+    }
+
+    /**
+     * Runs one forward and backward pass, optionally recording a copy of each layer's
+     * activations as its {@link Layer#getOutputs()} before backpropagation overwrites them.
+     */
+    private void backpropagate(double[] inputs, double[] targets, TrainingWorkspace workspace,
+                               boolean recordOutputs) {
+        // Forward propagation, keeping every layer's activations
+        double[] activations = inputs;
+        for (int i = 0; i < layers.size(); i++) {
+            Layer layer = layers.get(i);
+            if (layerExecutor == null) {
+                layer.forward(activations, workspace.activations(i));
+            } else {
+                layerExecutor.forward(layer, activations, workspace.activations(i));
             }
+            activations = workspace.activations(i);
+            if (recordOutputs) {
+                // A fresh array, like Layer.forward, so arrays returned by predict stay intact
+                layer.setOutputs(activations.clone());
+            }
+        }
+
+        // Back propagation
+        double[] errors = workspace.errors();
+        double[] nextErrors = workspace.nextErrors();
+        for (int i = 0; i < targets.length; i++) {
+            errors[i] = targets[i] - activations[i];
+        }
+
+        for (int i = layers.size() - 1; i >= 0; i--) {
+            Layer layer = layers.get(i);
+
+            // Update weights and biases, propagating errors to the previous layer
+            double[] layerInputs = i == 0 ? inputs : workspace.activations(i - 1);
+            double[] propagated = i == 0 ? null : nextErrors;
+            if (layerExecutor == null) {
+                layer.backward(layerInputs, workspace.activations(i), errors, propagated, learningRate);
+            } else {
+                layerExecutor.backward(layer, layerInputs, workspace.activations(i), errors, propagated,
+                        learningRate, workspace);
+            }
+
+            double[] swap = errors;
+            errors = nextErrors;
+            nextErrors = swap;
+        }
+        parameterVersion.incrementAndGet();
+    }
+
+    /**
+     * Trains the network on a mini-batch using backpropagation.
+     *
+     * <p>The whole batch is propagated forward and backward as matrix-matrix products.
+     * Gradients of all samples are accumulated and applied in a single weight update,
+     * scaled by {@code learningRate / batchSize} so the step size does not depend on
+     * the batch size.</p>
+     *
+     * @param inputs  Training input vectors, one per row
+     * @param targets Target output vectors, one per row
+     * @throws DataValidationException       if the batch is empty or any row doesn't match the network
+     * @throws NetworkConfigurationException if network has no layers
+     */
+    public void train(double[][] inputs, double[][] targets) {
+        // Validate network state and training data
+        ValidationUtils.validateNetworkState(this);
+        ValidationUtils.validateTrainingBatch(inputs, targets, this);
+
+        try {
+            TrainingWorkspace workspace = trainingWorkspace();
+            Gradients gradients = workspace.gradients(layers);
+            gradients.clear();
+            backpropagateBatch(inputs, targets, 0, inputs.length, gradients, workspace);
+            applyGradients(gradients, learningRate / inputs.length);
+        } catch (Exception e) {
+            throw new TrainingException("Error during batch training: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Accumulates the gradients of a range of samples without updating the weights.
+     *
+     * <p>Together with {@link #applyGradients(Gradients, double)} this allows callers to
+     * split a batch, combine partial gradients themselves and apply them once.</p>
+     *
+     * @param inputs    Training input vectors, one per row
+     * @param targets   Target output vectors, one per row
+     * @param from      First sample (inclusive)
+     * @param to        Last sample (exclusive)
+     * @param gradients Accumulator matching this network's layers
+     * @throws DataValidationException       if the batch doesn't match the network
+     * @throws NetworkConfigurationException if network has no layers
+     */
+    public void accumulateGradients(double[][] inputs, double[][] targets, int from, int to, Gradients gradients) {
+        ValidationUtils.validateNetworkState(this);
+        accumulateGradients(inputs, targets, from, to, gradients, trainingWorkspace());
+    }
+
+    /**
+     * Accumulates the gradients of a range of samples using the buffers of the given workspace.
+     *
+     * <p>The weights are only read, so several threads may accumulate concurrently as
+     * long as each uses its own workspace and gradients and nothing updates the network
+     * meanwhile.</p>
+     *
+     * @param inputs    Training input vectors, one per row
+     * @param targets   Target output vectors, one per row
+     * @param from      First sample (inclusive)
+     * @param to        Last sample (exclusive)
+     * @param gradients Accumulator matching this network's layers
+     * @param workspace Workspace created by {@link #newTrainingWorkspace()}
+     * @throws DataValidationException       if the batch doesn't match the network
+     * @throws NetworkConfigurationException if network has no layers or the buffers don't fit
+     */
+    public void accumulateGradients(double[][] inputs, double[][] targets, int from, int to,
+                                    Gradients gradients, TrainingWorkspace workspace) {
+        ValidationUtils.validateNetworkState(this);
+        ValidationUtils.validateTrainingBatch(inputs, targets, from, to, this);
+        if (!gradients.fits(layers)) {
+            throw new NetworkConfigurationException("Gradient buffers don't match the network layers");
+        }
+        if (!workspace.fits(layers)) {
+            throw new NetworkConfigurationException("Training workspace doesn't match the network layers");
+        }
 
-            for (int i = layers.size() - 1; i >= 0; i--) {
-                Layer layer = layers.get(i);
-                double[] nextErrors = new double[layer.getNeurons()[0].getWeights().length];
+        try {
+            backpropagateBatch(inputs, targets, from, to, gradients, workspace);
+        } catch (Exception e) {
+            throw new TrainingException("Error during gradient accumulation: " + e.getMessage());
+        }
+    }
 
-                for (int j = 0; j < layer.getNeurons().length; j++) {
-                    Neuron neuron = layer.getNeurons()[j];
+    /**
+     * Adds accumulated gradients to the weights and biases of every layer.
+     *
+     * @param gradients Gradients matching this network's layers
+     * @param scale     Factor applied to every gradient, typically learningRate / batchSize
+     */
+    public void applyGradients(Gradients gradients, double scale) {
+        for (int i = 0; i < layers.size(); i++) {
+            layers.get(i).applyGradients(gradients.getWeightGradients(i), gradients.getBiasGradients(i), scale);
+        }
+        parameterVersion.incrementAndGet();
+    }
 
-                    // Calculate delta with null checks
-                    if (neuron.getActivationFunction() == null) {
-                        throw new NetworkConfigurationException("Neuron activation function is null");
-                    }
+    /**
+     * Returns a counter that changes whenever the weights are updated through this network.
+     */
+    int parameterVersion() {
+        return parameterVersion.get();
+    }
 
-                    neuron.setDelta(errors[j] * neuron.getActivationFunction().derivative(neuron.getOutput()));
+    /**
+     * Returns the network's own training workspace, recreating it when the topology changed.
+     */
+    private TrainingWorkspace trainingWorkspace() {
+        if (trainingWorkspace == null || !trainingWorkspace.fits(layers)) {
+            trainingWorkspace = new TrainingWorkspace(layers);
+        }
+        return trainingWorkspace;
+    }
 
-                    // Update weights and biases
-                    double[] inputsToUse = i == 0 ? inputs : layers.get(i - 1).getOutputs();
+    /**
+     * Runs forward and backward passes over samples [from, to) and accumulates their gradients.
+     */
+    private void backpropagateBatch(double[][] inputs, double[][] targets, int from, int to,
+                                    Gradients gradients, TrainingWorkspace workspace) {
+        int batchSize = to - from;
+        int inputSize = layers.get(0).getInputSize();
+        workspace.ensureBatchCapacity(batchSize);
 
-                    if (inputsToUse == null) {
-                        throw new TrainingException("Layer inputs are null during backpropagation");
-                    }
+        // Pack the samples into a row-major input matrix
+        double[] batchInputs = workspace.batchInputs();
+        for (int b = 0; b < batchSize; b++) {
+            System.arraycopy(inputs[from + b], 0, batchInputs, b * inputSize, inputSize);
+        }
 
-                    for (int k = 0; k < neuron.getWeights().length; k++) {
-                        neuron.getWeights()[k] += learningRate * neuron.getDelta() * inputsToUse[k];
-                        nextErrors[k] += neuron.getWeights()[k] * neuron.getDelta();
-                    }
-                    neuron.setBias(neuron.getBias() + learningRate * neuron.getDelta());
-                }
-                errors = nextErrors;
+        // Forward propagation, keeping every layer's activations for the backward pass
+        double[] layerInputs = batchInputs;
+        for (int i = 0; i < layers.size(); i++) {
+            layers.get(i).forwardBatch(layerInputs, workspace.batchActivations(i), batchSize);
+            layerInputs = workspace.batchActivations(i);
+        }
+
+        // Output errors
+        double[] outputs = layerInputs;
+        int outputSize = layers.get(layers.size() - 1).getNeuronCount();
+        double[] errors = workspace.batchErrors();
+        double[] nextErrors = workspace.batchNextErrors();
+        for (int b = 0; b < batchSize; b++) {
+            double[] target = targets[from + b];
+            for (int j = 0; j < outputSize; j++) {
+                errors[b * outputSize + j] = target[j] - outputs[b * outputSize + j];
             }
-        } catch (Exception e) {
-            throw new TrainingException("Error during training: " + e.getMessage());
+        }
+
+        // Back propagation
+        for (int i = layers.size() - 1; i >= 0; i--) {
+            Layer layer = layers.get(i);
+            layer.backwardBatch(i == 0 ? batchInputs : workspace.batchActivations(i - 1),
+                    workspace.batchActivations(i), errors, i == 0 ? null : nextErrors,
+                    batchSize, gradients.getWeightGradients(i), gradients.getBiasGradients(i));
+
+            double[] swap = errors;
+            errors = nextErrors;
+            nextErrors = swap;
         }
     }
 
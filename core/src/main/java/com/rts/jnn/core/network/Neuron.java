@@ -15,15 +15,18 @@ import com.rts.jnn.core.activation.ActivationFunction;
  *
  * <p>The neuron's output is computed as: activation(sum(weights * inputs) + bias)</p>
  *
+ * <p>A neuron is a view over one row of a {@link Layer}'s weight matrix. Neurons
+ * obtained from {@link Layer#getNeurons()} read and write through to the layer's
+ * storage; a neuron created with the public constructor is backed by a private
+ * single-neuron layer.</p>
+ *
  * <p><b>Thread Safety:</b> This class is not thread-safe.</p>
  */
 public class Neuron {
 
-    private double[] weights;
-    private double bias;
-    private double output;
+    private final Layer layer;
+    private final int index;
     private double delta;
-    private ActivationFunction activationFunction;
 
     /**
      * Creates a new neuron with specified weights, bias and activation function.
@@ -36,33 +39,96 @@ public class Neuron {
      * @throws NullPointerException if weights or activationFunction is null
      */
     public Neuron(double[] weights, double bias, ActivationFunction activationFunction) {
-        this.weights = weights;
-        this.bias = bias;
-        this.activationFunction = activationFunction;
+        this(new Layer(1, weights.length, weights, new double[]{bias}, activationFunction, null), 0);
     }
 
+    /**
+     * Creates a view over one neuron of a layer.
+     *
+     * @param layer Layer owning the storage
+     * @param index Index of the neuron within the layer
+     */
+    Neuron(Layer layer, int index) {
+        this.layer = layer;
+        this.index = index;
+    }
+
+    /**
+     * Returns a <b>copy</b> of this neuron's input weights.
+     *
+     * <p><b>Writing to the returned array does not change the network.</b> Before weights
+     * moved into the layer's matrix this method returned the live array, so code such as
+     * {@code neuron.getWeights()[k] = w} used to edit the neuron; it now compiles but has
+     * no effect. Use {@link #setWeight(int, double)} or {@link #setWeights(double[])}
+     * instead, or edit the layer's matrix through {@link Layer#getWeights()}.</p>
+     *
+     * @return Copy of the weights
+     * @deprecated Returns a detached copy; use {@link #getWeight(int)} and
+     * {@link #setWeight(int, double)}, or {@link Layer#getWeights()}
+     */
+    @Deprecated
     public double[] getWeights() {
-        return weights;
+        double[] row = new double[layer.getInputSize()];
+        copyWeights(row, 0);
+        return row;
+    }
+
+    /**
+     * Returns the number of inputs, which is also the number of weights.
+     */
+    int getInputSize() {
+        return layer.getInputSize();
     }
 
+    /**
+     * Copies this neuron's weights into an array.
+     *
+     * @param target Array receiving the weights
+     * @param offset Position of the first weight in target
+     */
+    void copyWeights(double[] target, int offset) {
+        for (int i = 0; i < layer.getInputSize(); i++) {
+            target[offset + i] = layer.getWeight(index, i);
+        }
+    }
+
+    /**
+     * Copies the given weights into this neuron's row of the layer.
+     *
+     * @param weights New weights, one per input
+     */
     public void setWeights(double[] weights) {
-        this.weights = weights;
+        for (int i = 0; i < layer.getInputSize(); i++) {
+            layer.setWeight(index, i, weights[i]);
+        }
+    }
+
+    public double getWeight(int input) {
+        return layer.getWeight(index, input);
+    }
+
+    public void setWeight(int input, double value) {
+        layer.setWeight(index, input, value);
     }
 
     public double getBias() {
-        return bias;
+        return layer.getBias(index);
     }
 
     public void setBias(double bias) {
-        this.bias = bias;
+        layer.setBias(index, bias);
     }
 
     public double getOutput() {
-        return output;
+        double[] outputs = layer.getOutputs();
+        return outputs == null ? 0.0 : outputs[index];
     }
 
     public void setOutput(double output) {
-        this.output = output;
+        if (layer.getOutputs() == null) {
+            layer.setOutputs(new double[layer.getNeuronCount()]);
+        }
+        layer.getOutputs()[index] = output;
     }
 
     public double getDelta() {
@@ -74,11 +140,18 @@ public class Neuron {
     }
 
     public ActivationFunction getActivationFunction() {
-        return activationFunction;
+        return layer.getActivationFunction();
     }
 
+    /**
+     * Sets the activation function of the layer this neuron belongs to.
+     *
+     * <p>All neurons of a layer share one activation function.</p>
+     *
+     * @param activationFunction New activation function
+     */
     public void setActivationFunction(ActivationFunction activationFunction) {
-        this.activationFunction = activationFunction;
+        layer.setActivationFunction(activationFunction);
     }
 
     /**
@@ -96,11 +169,9 @@ public class Neuron {
      * @throws IllegalArgumentException if inputs length doesn't match weights length
      */
     public double activate(double[] inputs) {
-        double sum = bias;
-        for (int i = 0; i < weights.length; i++) {
-            sum += weights[i] * inputs[i];
-        }
-        output = activationFunction.activate(sum);
+        double sum = layer.getBias(index) + layer.dotRow(index, inputs);
+        double output = layer.getActivationFunction().activate(sum);
+        setOutput(output);
         return output;
     }
 
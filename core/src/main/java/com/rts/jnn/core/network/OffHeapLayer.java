@@ -0,0 +1,486 @@
+package com.rts.jnn.core.network;
+
+import com.rts.jnn.core.activation.ActivationFunction;
+import com.rts.jnn.core.initialization.InitializationFunction;
+import com.rts.jnn.core.math.LinearAlgebra;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.ref.Cleaner;
+import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Represents a dense layer whose weight matrix lives outside the Java heap.
+ *
+ * <p>The weights are stored in a direct, native-order {@link ByteBuffer}. The garbage
+ * collector only sees the small buffer object, never the weights, so models of many
+ * gigabytes neither need a large {@code -Xmx} nor lengthen GC marking. Off-heap memory
+ * is limited by {@code -XX:MaxDirectMemorySize}, which defaults to the maximum heap
+ * size. A single layer holds at most 2 GB of weights, the capacity of one buffer.</p>
+ *
+ * <p>Biases and activation vectors hold one value per neuron rather than per
+ * connection, so they stay on the heap where the activation functions and the rest of
+ * the network use them directly.</p>
+ *
+ * <p>{@link #wrap} builds a layer over an existing buffer instead, such as a region of a
+ * memory-mapped model file. The weights are then read straight from the mapped pages,
+ * which the operating system shares between all processes mapping the same file.</p>
+ *
+ * <h2>Lifecycle:</h2>
+ * <p>The memory is released by {@link #close()}, or by the garbage collector once the
+ * layer is unreachable if it is never closed; either way it is then subtracted from
+ * {@link #getAllocatedBytes()}. After {@code close()} every method that
+ * touches the weights throws {@link IllegalStateException}; the layer must not be closed
+ * while another thread is using it. {@link NeuralNetwork#moveOffHeap()} and
+ * {@link NeuralNetwork#releaseOffHeap()} manage all layers of a network at once.</p>
+ *
+ * <p>Read-only weights, such as those of a mapped model file, can't change, so
+ * {@link #copy()} shares them instead of copying them. Closing a layer whose weights are
+ * shared doesn't unmap them; the mapping is released once all sharing layers are
+ * collected.</p>
+ *
+ * <p>{@link #getWeights()} returns a heap copy rather than the live weights, so changes
+ * to it are not written back; use {@link #setWeight(int, int, double)} instead.</p>
+ *
+ * <h2>Example Usage:</h2>
+ * <pre>{@code
+ * try (OffHeapLayer layer = OffHeapLayer.fromDense(denseLayer)) {
+ *     double[] outputs = layer.forward(inputs);
+ * }
+ *
+ * long bytes = OffHeapLayer.getAllocatedBytes(); // all live off-heap weights
+ * }</pre>
+ *
+ * @see NeuralNetwork#moveOffHeap()
+ */
+public class OffHeapLayer extends Layer implements AutoCloseable {
+
+    /**
+     * Bytes held by all live off-heap layers
+     */
+    private static final AtomicLong ALLOCATED_BYTES = new AtomicLong();
+
+    /**
+     * Subtracts the memory of layers that are garbage collected without being closed
+     */
+    private static final Cleaner CLEANER = Cleaner.create();
+
+    /**
+     * Frees a direct buffer immediately, or null if the JDK doesn't allow it
+     */
+    private static final MethodHandle INVOKE_CLEANER = findCleaner();
+
+    /**
+     * Backing memory of the weights, null once closed
+     */
+    private ByteBuffer memory;
+
+    /**
+     * Row-major weight matrix of size neuronCount x inputSize, a view of memory
+     */
+    private DoubleBuffer weights;
+
+    /**
+     * Subtracts this layer's memory from the allocated total exactly once, on close or
+     * collection; null for wrapped buffers
+     */
+    private Cleaner.Cleanable allocation;
+
+    /**
+     * Whether the read-only buffer is shared with copies of this layer, in which case it is
+     * left to the garbage collector instead of being unmapped by {@link #close()}
+     */
+    private boolean shared;
+
+    /**
+     * Creates an off-heap layer with randomly initialized weights.
+     *
+     * @param neuronCount            Number of neurons in this layer
+     * @param inputSize              Number of inputs to each neuron
+     * @param activationFunction     Activation function for all neurons
+     * @param initializationFunction Weight initialization strategy
+     * @throws IllegalArgumentException if the weights don't fit in one buffer
+     */
+    public OffHeapLayer(int neuronCount, int inputSize, ActivationFunction activationFunction,
+                        InitializationFunction initializationFunction) {
+        super(neuronCount, inputSize, null, new double[neuronCount], activationFunction, initializationFunction);
+        allocate(neuronCount, inputSize);
+        for (int i = 0; i < neuronCount; i++) {
+            weights.put(i * inputSize, initializationFunction.init(inputSize), 0, inputSize);
+        }
+    }
+
+    /**
+     * Creates an off-heap layer holding a copy of the given weights.
+     */
+    private OffHeapLayer(int neuronCount, int inputSize, double[] weights, double[] biases,
+                         ActivationFunction activationFunction, InitializationFunction initializationFunction) {
+        super(neuronCount, inputSize, null, biases, activationFunction, initializationFunction);
+        allocate(neuronCount, inputSize);
+        this.weights.put(0, weights, 0, neuronCount * inputSize);
+    }
+
+    /**
+     * Creates an off-heap layer with zero weights.
+     */
+    private OffHeapLayer(int neuronCount, int inputSize, double[] biases,
+                         ActivationFunction activationFunction, InitializationFunction initializationFunction) {
+        super(neuronCount, inputSize, null, biases, activationFunction, initializationFunction);
+        allocate(neuronCount, inputSize);
+    }
+
+    /**
+     * Creates a layer over an existing buffer without copying the weights.
+     */
+    private OffHeapLayer(int neuronCount, int inputSize, ByteBuffer memory, double[] biases,
+                         ActivationFunction activationFunction, InitializationFunction initializationFunction) {
+        super(neuronCount, inputSize, null, biases, activationFunction, initializationFunction);
+        this.memory = memory;
+        this.weights = memory.asDoubleBuffer();
+    }
+
+    /**
+     * Creates a layer whose weights are read directly from an existing buffer.
+     *
+     * <p>Used to run a memory-mapped model file without copying its weights. The layer
+     * takes ownership of the buffer: {@link #close()} unmaps or frees it. The weights are
+     * read in the buffer's byte order, starting at its position. A read-only buffer gives
+     * a layer that can predict but not be trained.</p>
+     *
+     * @param neuronCount            Number of neurons in this layer
+     * @param inputSize              Number of inputs to each neuron
+     * @param weights                Direct buffer holding at least neuronCount * inputSize row-major doubles
+     * @param biases                 Biases, one per neuron
+     * @param activationFunction     Activation function for all neurons
+     * @param initializationFunction Weight initialization strategy the weights came from
+     * @return Layer over the buffer
+     * @throws IllegalArgumentException if the buffer is not direct or too small, or the biases don't match
+     */
+    public static OffHeapLayer wrap(int neuronCount, int inputSize, ByteBuffer weights, double[] biases,
+                                    ActivationFunction activationFunction,
+                                    InitializationFunction initializationFunction) {
+        if (!weights.isDirect()) {
+            throw new IllegalArgumentException("Off-heap layer needs a direct buffer");
+        }
+        if (weights.remaining() < (long) neuronCount * inputSize * Double.BYTES || biases.length != neuronCount) {
+            throw new IllegalArgumentException("Buffers don't match a " + neuronCount + "x" + inputSize + " layer");
+        }
+        return new OffHeapLayer(neuronCount, inputSize, weights, biases, activationFunction, initializationFunction);
+    }
+
+    /**
+     * Creates an off-heap copy of a layer.
+     *
+     * @param layer Layer to copy; sparse layers are expanded
+     * @return Off-heap layer with the same outputs
+     * @throws IllegalArgumentException if the weights don't fit in one buffer
+     */
+    public static OffHeapLayer fromDense(Layer layer) {
+        return new OffHeapLayer(layer.getNeuronCount(), layer.getInputSize(), layer.getWeights(),
+                layer.getBiases().clone(), layer.getActivationFunction(), layer.getInitializationFunction());
+    }
+
+    /**
+     * Returns the off-heap memory allocated by all live layers, excluding wrapped buffers.
+     *
+     * <p>Layers count until they are closed or, if dropped without closing, until the
+     * garbage collector reclaims them.</p>
+     *
+     * @return Size in bytes
+     */
+    public static long getAllocatedBytes() {
+        return ALLOCATED_BYTES.get();
+    }
+
+    /**
+     * Returns whether the memory of this layer has been released.
+     *
+     * @return true after {@link #close()}
+     */
+    public boolean isClosed() {
+        return weights == null;
+    }
+
+    /**
+     * Returns whether the weights can't be changed, as for a layer over a read-only mapped file.
+     *
+     * @return true if training or setting weights would throw
+     * @throws IllegalStateException if the layer has been closed
+     */
+    public boolean isReadOnly() {
+        return open().isReadOnly();
+    }
+
+    /**
+     * Releases the off-heap memory of this layer, or unmaps a wrapped mapped buffer; further calls have no effect.
+     */
+    @Override
+    public void close() {
+        ByteBuffer released = memory;
+        if (released == null) {
+            return;
+        }
+        memory = null;
+        weights = null;
+        if (allocation != null) {
+            allocation.clean();
+            allocation = null;
+        }
+        if (INVOKE_CLEANER != null && !shared) {
+            try {
+                INVOKE_CLEANER.invoke(released);
+            } catch (Throwable e) {
+                // Left to the garbage collector
+            }
+        }
+    }
+
+    /**
+     * Returns a copy of this layer. Read-only weights are shared with the copy rather than
+     * copied; the biases are always copied.
+     *
+     * @return New layer with the same parameters
+     */
+    @Override
+    public Layer copy() {
+        ByteBuffer source = memory;
+        if (source != null && source.isReadOnly()) {
+            shared = true;
+            OffHeapLayer copy = new OffHeapLayer(getNeuronCount(), getInputSize(),
+                    source.duplicate().order(source.order()), getBiases().clone(),
+                    getActivationFunction(), getInitializationFunction());
+            copy.shared = true;
+            return copy;
+        }
+        OffHeapLayer copy = new OffHeapLayer(getNeuronCount(), getInputSize(), getBiases().clone(),
+                getActivationFunction(), getInitializationFunction());
+        copy.copyWeightsFrom(this);
+        return copy;
+    }
+
+    /**
+     * Copies the weights of another off-heap layer into this one, buffer to buffer.
+     *
+     * @param source Layer of the same shape
+     * @throws IllegalArgumentException if the shapes differ
+     * @throws IllegalStateException    if either layer is closed or this layer is read-only
+     */
+    public void copyWeightsFrom(OffHeapLayer source) {
+        if (source.getNeuronCount() != getNeuronCount() || source.getInputSize() != getInputSize()) {
+            throw new IllegalArgumentException("Can't copy a " + source.getNeuronCount() + "x"
+                    + source.getInputSize() + " layer into a " + getNeuronCount() + "x" + getInputSize() + " layer");
+        }
+        writable().put(0, source.open(), 0, getWeightCount());
+    }
+
+    @Override
+    public void forwardRows(double[] inputs, double[] outputs, int from, int to) {
+        int inputSize = getInputSize();
+        LinearAlgebra.gemv(open(), from * inputSize, to - from, inputSize, inputs, 0, getBiases(), from, outputs, from);
+        getActivationFunction().activate(outputs, outputs, from, to - from);
+    }
+
+    @Override
+    public void backwardRows(double[] inputs, double[] outputs, double[] errors, double[] nextErrors,
+                             double learningRate, int from, int to) {
+        DoubleBuffer w = writable();
+        int inputSize = getInputSize();
+        double[] biases = getBiases();
+        getActivationFunction().derivativeInPlace(outputs, from, to - from);
+        for (int j = from, row = from * inputSize; j < to; j++, row += inputSize) {
+            double delta = errors[j] * outputs[j];
+            double step = learningRate * delta;
+            LinearAlgebra.axpy(step, inputs, 0, w, row, inputSize);
+            if (nextErrors != null) {
+                LinearAlgebra.axpy(delta, w, row, nextErrors, 0, inputSize);
+            }
+            biases[j] += step;
+        }
+    }
+
+    /**
+     * Performs forward propagation for a batch, one sample at a time.
+     */
+    @Override
+    public void forwardBatch(double[] inputs, double[] outputs, int batchSize) {
+        DoubleBuffer w = open();
+        int neuronCount = getNeuronCount();
+        int inputSize = getInputSize();
+        for (int b = 0; b < batchSize; b++) {
+            LinearAlgebra.gemv(w, 0, neuronCount, inputSize, inputs, b * inputSize, getBiases(), 0,
+                    outputs, b * neuronCount);
+        }
+        getActivationFunction().activate(outputs, outputs, 0, batchSize * neuronCount);
+    }
+
+    /**
+     * Back-propagates a batch of errors; the weight gradients live on the heap.
+     */
+    @Override
+    public void backwardBatch(double[] inputs, double[] outputs, double[] errors, double[] nextErrors,
+                              int batchSize, double[] weightGradients, double[] biasGradients) {
+        DoubleBuffer w = open();
+        int neuronCount = getNeuronCount();
+        int inputSize = getInputSize();
+        getActivationFunction().derivativeInPlace(outputs, 0, batchSize * neuronCount);
+        for (int b = 0, out = 0; b < batchSize; b++, out += neuronCount) {
+            int in = b * inputSize;
+            if (nextErrors != null) {
+                Arrays.fill(nextErrors, in, in + inputSize, 0.0);
+            }
+            for (int j = 0, row = 0; j < neuronCount; j++, row += inputSize) {
+                double delta = errors[out + j] * outputs[out + j];
+                errors[out + j] = delta;
+                biasGradients[j] += delta;
+                LinearAlgebra.axpy(delta, inputs, in, weightGradients, row, inputSize);
+                if (nextErrors != null) {
+                    LinearAlgebra.axpy(delta, w, row, nextErrors, in, inputSize);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void applyGradients(double[] weightGradients, double[] biasGradients, double scale) {
+        LinearAlgebra.axpy(scale, weightGradients, 0, writable(), 0, getWeightCount());
+        LinearAlgebra.axpy(scale, biasGradients, 0, getBiases(), 0, getNeuronCount());
+    }
+
+    @Override
+    public double dotRow(int neuron, double[] inputs) {
+        int inputSize = getInputSize();
+        return LinearAlgebra.dot(open(), neuron * inputSize, inputs, 0, inputSize);
+    }
+
+    @Override
+    public double getWeight(int neuron, int input) {
+        return open().get(neuron * getInputSize() + input);
+    }
+
+    @Override
+    public void setWeight(int neuron, int input, double value) {
+        writable().put(neuron * getInputSize() + input, value);
+    }
+
+    @Override
+    public double getDensity() {
+        DoubleBuffer w = open();
+        int size = getWeightCount();
+        if (size == 0) {
+            return 0.0;
+        }
+        int nonZeros = 0;
+        for (int i = 0; i < size; i++) {
+            if (w.get(i) != 0.0) {
+                nonZeros++;
+            }
+        }
+        return (double) nonZeros / size;
+    }
+
+    /**
+     * Returns a heap layer with the same weights, biases and functions.
+     *
+     * @return Independent dense layer
+     */
+    @Override
+    public Layer toDense() {
+        return new Layer(getNeuronCount(), getInputSize(), getWeights(), getBiases().clone(),
+                getActivationFunction(), getInitializationFunction());
+    }
+
+    /**
+     * Returns a heap copy of the weights; changes to it are not written back.
+     *
+     * @return Newly allocated row-major weights, neuronCount x inputSize
+     */
+    @Override
+    public double[] getWeights() {
+        double[] copy = new double[getWeightCount()];
+        open().get(0, copy, 0, copy.length);
+        return copy;
+    }
+
+    @Override
+    public void copyWeightsInto(double[] target) {
+        open().get(0, target, 0, getWeightCount());
+    }
+
+    /**
+     * Copies a range of the row-major weights into a buffer without going through the heap.
+     *
+     * <p>Values are converted to the target's byte order, so large layers can be streamed
+     * to a file through a small direct buffer.</p>
+     *
+     * @param from   Index of the first weight to copy
+     * @param target Buffer receiving the weights at its position, which is advanced
+     * @param length Number of weights to copy
+     */
+    public void copyWeightsInto(int from, DoubleBuffer target, int length) {
+        target.put(open().slice(from, length));
+    }
+
+    /**
+     * Replaces the parameters, moving the new weights into freshly allocated off-heap memory.
+     */
+    @Override
+    void replaceParameters(int neuronCount, int inputSize, double[] weights, double[] biases) {
+        open();
+        close();
+        allocate(neuronCount, inputSize);
+        this.weights.put(0, weights, 0, neuronCount * inputSize);
+        super.replaceParameters(neuronCount, inputSize, null, biases);
+    }
+
+    private void allocate(int neuronCount, int inputSize) {
+        long bytes = (long) neuronCount * inputSize * Double.BYTES;
+        if (bytes > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Off-heap layer of " + neuronCount + "x" + inputSize
+                    + " exceeds the 2 GB buffer limit");
+        }
+        memory = ByteBuffer.allocateDirect((int) bytes).order(ByteOrder.nativeOrder());
+        weights = memory.asDoubleBuffer();
+        ALLOCATED_BYTES.addAndGet(bytes);
+        // The JDK frees an unreachable direct buffer itself; this only keeps the total in step
+        allocation = CLEANER.register(this, () -> ALLOCATED_BYTES.addAndGet(-bytes));
+    }
+
+    private DoubleBuffer open() {
+        DoubleBuffer w = weights;
+        if (w == null) {
+            throw new IllegalStateException("Off-heap layer has been closed");
+        }
+        return w;
+    }
+
+    private DoubleBuffer writable() {
+        DoubleBuffer w = open();
+        if (w.isReadOnly()) {
+            throw new IllegalStateException("Off-heap layer is read-only");
+        }
+        return w;
+    }
+
+    /**
+     * Looks up {@code sun.misc.Unsafe.invokeCleaner}, which frees a direct buffer immediately.
+     */
+    private static MethodHandle findCleaner() {
+        try {
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            Field field = unsafeClass.getDeclaredField("theUnsafe");
+            field.setAccessible(true);
+            Object unsafe = field.get(null);
+            return MethodHandles.lookup()
+                    .findVirtual(unsafeClass, "invokeCleaner", MethodType.methodType(void.class, ByteBuffer.class))
+                    .bindTo(unsafe);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,248 @@
+package com.rts.jnn.core.network;
+
+import com.rts.jnn.core.activation.ActivationFunction;
+import com.rts.jnn.core.initialization.InitializationFunction;
+import com.rts.jnn.core.math.LinearAlgebra;
+import com.rts.jnn.core.math.SparseMatrix;
+
+/**
+ * Represents a layer whose weight matrix is stored in compressed sparse row form.
+ *
+ * <p>Behaves like a dense {@link Layer}, but only the non-zero weights are stored, in a
+ * {@link SparseMatrix}, and every forward and backward pass skips the zeros. Work and
+ * memory therefore scale with the number of connections instead of
+ * {@code neuronCount * inputSize}. Pruning converts layers whose density falls below
+ * the network's sparsity threshold, and {@link NeuralNetwork#sparsify()} does the same
+ * on request, for example for layers initialized with
+ * {@link com.rts.jnn.core.initialization.SparseInitialization}.</p>
+ *
+ * <h2>Fixed Connectivity:</h2>
+ * <p>Training updates the stored weights only; a connection that is absent stays
+ * absent. {@link #setWeight(int, int, double)} accepts any value for stored connections
+ * but only zero for absent ones. {@link #getWeights()} returns a dense copy rather than
+ * the live weights, so changes to it are not written back.</p>
+ *
+ * <h2>Example Usage:</h2>
+ * <pre>{@code
+ * SparseLayer sparse = SparseLayer.fromDense(layer);
+ * double[] outputs = sparse.forward(inputs);
+ *
+ * // Back to a dense layer
+ * Layer dense = sparse.toDense();
+ * }</pre>
+ *
+ * @see SparseMatrix
+ * @see NeuralNetwork#sparsify()
+ */
+public class SparseLayer extends Layer {
+
+    /**
+     * Non-zero weights, neuronCount x inputSize
+     */
+    private SparseMatrix matrix;
+
+    /**
+     * Creates a sparse layer over an existing matrix and bias vector without copying them.
+     *
+     * @param matrix                 Weights, neuronCount x inputSize
+     * @param biases                 Biases, one per row of the matrix
+     * @param activationFunction     Activation function for all neurons
+     * @param initializationFunction Weight initialization strategy the weights came from
+     * @throws IllegalArgumentException if the bias vector doesn't match the matrix
+     */
+    public SparseLayer(SparseMatrix matrix, double[] biases, ActivationFunction activationFunction,
+                       InitializationFunction initializationFunction) {
+        super(matrix.getRows(), matrix.getCols(), null, biases, activationFunction, initializationFunction);
+        if (biases.length != matrix.getRows()) {
+            throw new IllegalArgumentException("Expected " + matrix.getRows() + " biases, got: " + biases.length);
+        }
+        this.matrix = matrix;
+    }
+
+    /**
+     * Creates a sparse copy of a layer, keeping only its non-zero weights.
+     *
+     * @param layer Layer to convert
+     * @return Sparse layer with the same outputs
+     */
+    public static SparseLayer fromDense(Layer layer) {
+        SparseMatrix matrix = SparseMatrix.fromDense(layer.getWeights(), layer.getNeuronCount(), layer.getInputSize());
+        return new SparseLayer(matrix, layer.getBiases().clone(),
+                layer.getActivationFunction(), layer.getInitializationFunction());
+    }
+
+    @Override
+    public Layer copy() {
+        return new SparseLayer(matrix.copy(), getBiases().clone(), getActivationFunction(), getInitializationFunction());
+    }
+
+    /**
+     * Performs forward propagation for the neurons [from, to), visiting stored weights only.
+     */
+    @Override
+    public void forwardRows(double[] inputs, double[] outputs, int from, int to) {
+        matrix.multiply(inputs, 0, getBiases(), outputs, 0, from, to);
+        getActivationFunction().activate(outputs, outputs, from, to - from);
+    }
+
+    /**
+     * Performs the stochastic gradient descent step for the neurons [from, to), updating stored weights only.
+     */
+    @Override
+    public void backwardRows(double[] inputs, double[] outputs, double[] errors, double[] nextErrors,
+                             double learningRate, int from, int to) {
+        getActivationFunction().derivativeInPlace(outputs, from, to - from);
+        int[] rowPointers = matrix.getRowPointers();
+        int[] columns = matrix.getColumnIndices();
+        double[] values = matrix.getValues();
+        double[] biases = getBiases();
+        for (int j = from; j < to; j++) {
+            double delta = errors[j] * outputs[j];
+            double step = learningRate * delta;
+            for (int k = rowPointers[j], end = rowPointers[j + 1]; k < end; k++) {
+                // Propagate with the updated weight, as the dense layer does
+                double weight = values[k] + step * inputs[columns[k]];
+                values[k] = weight;
+                if (nextErrors != null) {
+                    nextErrors[columns[k]] += delta * weight;
+                }
+            }
+            biases[j] += step;
+        }
+    }
+
+    @Override
+    public void forwardBatch(double[] inputs, double[] outputs, int batchSize) {
+        matrix.multiplyBatch(batchSize, inputs, getBiases(), outputs);
+        getActivationFunction().activate(outputs, outputs, 0, batchSize * getNeuronCount());
+    }
+
+    /**
+     * Back-propagates a batch of errors, accumulating gradients for the stored weights only.
+     *
+     * @param weightGradients Accumulator aligned with the values of {@link #getMatrix()}
+     */
+    @Override
+    public void backwardBatch(double[] inputs, double[] outputs, double[] errors, double[] nextErrors,
+                              int batchSize, double[] weightGradients, double[] biasGradients) {
+        int neuronCount = getNeuronCount();
+        getActivationFunction().derivativeInPlace(outputs, 0, batchSize * neuronCount);
+        for (int b = 0, out = 0; b < batchSize; b++, out += neuronCount) {
+            for (int j = 0; j < neuronCount; j++) {
+                double delta = errors[out + j] * outputs[out + j];
+                errors[out + j] = delta;
+                biasGradients[j] += delta;
+            }
+        }
+        matrix.accumulateGradients(batchSize, errors, inputs, weightGradients);
+
+        if (nextErrors != null) {
+            matrix.multiplyTransposedBatch(batchSize, errors, nextErrors);
+        }
+    }
+
+    /**
+     * Adds scaled accumulated gradients to the stored weights and the biases.
+     *
+     * @param weightGradients Gradients aligned with the values of {@link #getMatrix()}
+     */
+    @Override
+    public void applyGradients(double[] weightGradients, double[] biasGradients, double scale) {
+        LinearAlgebra.axpy(scale, weightGradients, 0, matrix.getValues(), 0, matrix.getNonZeroCount());
+        LinearAlgebra.axpy(scale, biasGradients, 0, getBiases(), 0, getNeuronCount());
+    }
+
+    @Override
+    public double getWeight(int neuron, int input) {
+        return matrix.get(neuron, input);
+    }
+
+    /**
+     * Returns the dot product of one neuron's stored weights with an input vector.
+     */
+    @Override
+    public double dotRow(int neuron, double[] inputs) {
+        int[] rowPointers = matrix.getRowPointers();
+        int[] columnIndices = matrix.getColumnIndices();
+        double[] values = matrix.getValues();
+        double sum = 0.0;
+        for (int k = rowPointers[neuron]; k < rowPointers[neuron + 1]; k++) {
+            sum += values[k] * inputs[columnIndices[k]];
+        }
+        return sum;
+    }
+
+    /**
+     * Sets the weight of a stored connection.
+     *
+     * @throws IllegalArgumentException if the connection is absent and the value is not zero
+     */
+    @Override
+    public void setWeight(int neuron, int input, double value) {
+        int index = matrix.indexOf(neuron, input);
+        if (index >= 0) {
+            matrix.getValues()[index] = value;
+        } else if (value != 0.0) {
+            throw new IllegalArgumentException("Neuron " + neuron + " has no connection to input " + input);
+        }
+    }
+
+    /**
+     * Returns the number of stored weights.
+     *
+     * @return Non-zero count of the sparse matrix
+     */
+    @Override
+    public int getWeightCount() {
+        return matrix.getNonZeroCount();
+    }
+
+    @Override
+    public double getDensity() {
+        return matrix.getDensity();
+    }
+
+    /**
+     * Returns a dense layer with the same weights, biases and functions.
+     *
+     * @return Independent dense layer
+     */
+    @Override
+    public Layer toDense() {
+        return new Layer(getNeuronCount(), getInputSize(), matrix.toDense(), getBiases().clone(),
+                getActivationFunction(), getInitializationFunction());
+    }
+
+    /**
+     * Returns a dense copy of the weights; changes to it are not written back.
+     *
+     * @return Newly allocated row-major weights, neuronCount x inputSize
+     */
+    @Override
+    public double[] getWeights() {
+        return matrix.toDense();
+    }
+
+    @Override
+    public void copyWeightsInto(double[] target) {
+        matrix.toDense(target);
+    }
+
+    /**
+     * Returns the live sparse weight matrix.
+     *
+     * @return Weights, neuronCount x inputSize
+     */
+    public SparseMatrix getMatrix() {
+        return matrix;
+    }
+
+    /**
+     * Replaces the parameters, keeping the non-zero weights of the new matrix.
+     */
+    @Override
+    void replaceParameters(int neuronCount, int inputSize, double[] weights, double[] biases) {
+        this.matrix = SparseMatrix.fromDense(weights, neuronCount, inputSize);
+        super.replaceParameters(neuronCount, inputSize, null, biases);
+    }
+}
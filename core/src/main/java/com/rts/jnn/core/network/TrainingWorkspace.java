@@ -0,0 +1,175 @@
+package com.rts.jnn.core.network;
+
+import java.util.List;
+
+/**
+ * Holds every buffer needed for an allocation-free training step.
+ *
+ * <p>Per-sample training keeps one activation vector per layer, because backpropagation
+ * needs the outputs of every layer, plus two ping-pong error vectors as wide as the
+ * widest layer input or output. Mini-batch training additionally needs one activation
+ * matrix per layer, two error matrices and a set of {@link Gradients}; those are created
+ * on first use and grown only when a larger batch arrives. Once warmed up, a training
+ * step through {@link NeuralNetwork#train(double[], double[], TrainingWorkspace)} or
+ * {@link NeuralNetwork#train(double[][], double[][])} allocates nothing.</p>
+ *
+ * <p><b>Thread Safety:</b> A workspace must only be used by one thread at a time.</p>
+ *
+ * <h2>Usage Example:</h2>
+ * <pre>{@code
+ * TrainingWorkspace workspace = network.newTrainingWorkspace();
+ * for (int epoch = 0; epoch < epochs; epoch++) {
+ *     for (int i = 0; i < inputs.length; i++) {
+ *         network.train(inputs[i], targets[i], workspace);
+ *     }
+ * }
+ * }</pre>
+ *
+ * @see NeuralNetwork#newTrainingWorkspace()
+ */
+public final class TrainingWorkspace {
+
+    /**
+     * Activations of each layer for one sample
+     */
+    private final double[][] activations;
+
+    /**
+     * Ping-pong error vectors, each as wide as the widest layer input or output
+     */
+    private final double[] errors;
+    private final double[] nextErrors;
+
+    /**
+     * Number of samples the batch buffers can hold
+     */
+    private int batchCapacity;
+
+    private double[] batchInputs;
+    private double[][] batchActivations;
+    private double[] batchErrors;
+    private double[] batchNextErrors;
+    private Gradients gradients;
+
+    /**
+     * Per-task error buffers for intra-layer parallel backpropagation
+     */
+    private double[][] partialErrors = new double[0][];
+
+    /**
+     * Input size of the first layer
+     */
+    private final int inputSize;
+
+    /**
+     * Creates buffers sized for the given layers.
+     *
+     * @param layers Layers to size the buffers from
+     */
+    public TrainingWorkspace(List<Layer> layers) {
+        this.inputSize = layers.isEmpty() ? 0 : layers.get(0).getInputSize();
+        this.activations = new double[layers.size()][];
+        int width = 0;
+        for (int i = 0; i < layers.size(); i++) {
+            Layer layer = layers.get(i);
+            activations[i] = new double[layer.getNeuronCount()];
+            width = Math.max(width, Math.max(layer.getNeuronCount(), layer.getInputSize()));
+        }
+        this.errors = new double[width];
+        this.nextErrors = new double[width];
+    }
+
+    /**
+     * Checks whether these buffers still match the shape of the given layers.
+     *
+     * @param layers Layers to compare against
+     * @return true if every buffer has the size of the corresponding layer
+     */
+    public boolean fits(List<Layer> layers) {
+        if (layers.size() != activations.length
+                || (!layers.isEmpty() && layers.get(0).getInputSize() != inputSize)) {
+            return false;
+        }
+        for (int i = 0; i < activations.length; i++) {
+            Layer layer = layers.get(i);
+            if (activations[i].length != layer.getNeuronCount() || errors.length < layer.getInputSize()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    double[] activations(int layer) {
+        return activations[layer];
+    }
+
+    double[] errors() {
+        return errors;
+    }
+
+    double[] nextErrors() {
+        return nextErrors;
+    }
+
+    /**
+     * Returns per-task buffers for propagated errors, growing them when needed.
+     *
+     * @param tasks Number of tasks
+     * @param width Minimum length of each buffer
+     * @return At least {@code tasks} buffers of at least {@code width} values
+     */
+    double[][] partialErrors(int tasks, int width) {
+        if (partialErrors.length < tasks || (tasks > 0 && partialErrors[0].length < width)) {
+            partialErrors = new double[Math.max(tasks, partialErrors.length)][Math.max(width, errors.length)];
+        }
+        return partialErrors;
+    }
+
+    /**
+     * Makes sure the batch buffers can hold the given number of samples.
+     *
+     * @param batchSize Number of samples in the next batch
+     */
+    void ensureBatchCapacity(int batchSize) {
+        if (batchSize <= batchCapacity) {
+            return;
+        }
+        batchInputs = new double[batchSize * inputSize];
+        batchActivations = new double[activations.length][];
+        for (int i = 0; i < activations.length; i++) {
+            batchActivations[i] = new double[batchSize * activations[i].length];
+        }
+        batchErrors = new double[batchSize * errors.length];
+        batchNextErrors = new double[batchSize * errors.length];
+        batchCapacity = batchSize;
+    }
+
+    double[] batchInputs() {
+        return batchInputs;
+    }
+
+    double[] batchActivations(int layer) {
+        return batchActivations[layer];
+    }
+
+    double[] batchErrors() {
+        return batchErrors;
+    }
+
+    double[] batchNextErrors() {
+        return batchNextErrors;
+    }
+
+    /**
+     * Returns the gradient accumulator for mini-batch training, creating it on first use.
+     *
+     * @param layers Layers this workspace was created for
+     * @return Gradients matching the layers
+     */
+    Gradients gradients(List<Layer> layers) {
+        if (gradients == null || !gradients.fits(layers)) {
+            gradients = new Gradients(layers);
+        }
+        return gradients;
+    }
+}
@@ -15,8 +15,16 @@
  * <h2>Key Components:</h2>
  * <ul>
  *   <li>{@link com.rts.jnn.core.network.NeuralNetwork} - Main network implementation</li>
- *   <li>{@link com.rts.jnn.core.network.Layer} - Network layer abstraction</li>
- *   <li>{@link com.rts.jnn.core.network.Neuron} - Individual neuron implementation</li>
+ *   <li>{@link com.rts.jnn.core.network.Layer} - Network layer with contiguous weight storage</li>
+ *   <li>{@link com.rts.jnn.core.network.SparseLayer} - Layer storing only its non-zero weights, in CSR form</li>
+ *   <li>{@link com.rts.jnn.core.network.OffHeapLayer} - Layer keeping its weights in off-heap memory</li>
+ *   <li>{@link com.rts.jnn.core.network.Neuron} - Per-neuron view over a layer</li>
+ *   <li>{@link com.rts.jnn.core.network.ForwardWorkspace} - Preallocated activation buffers for allocation-free prediction</li>
+ *   <li>{@link com.rts.jnn.core.network.TrainingWorkspace} - Preallocated activation, error and gradient buffers for allocation-free training</li>
+ *   <li>{@link com.rts.jnn.core.network.InferenceModel} - Immutable, thread-safe snapshot for concurrent inference</li>
+ *   <li>{@link com.rts.jnn.core.network.ExecutionPlan} - Validated-once plan with merged linear layers for check-free predict and train</li>
+ *   <li>{@link com.rts.jnn.core.network.FloatNeuralNetwork} - Single-precision network for memory- and bandwidth-bound inference</li>
+ *   <li>{@link com.rts.jnn.core.network.FloatLayer} - Single-precision layer with float weight storage</li>
  * </ul>
  *
  * <h2>Usage Example:</h2>
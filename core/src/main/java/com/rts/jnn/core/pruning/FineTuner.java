@@ -0,0 +1,30 @@
+package com.rts.jnn.core.pruning;
+
+import com.rts.jnn.core.network.NeuralNetwork;
+
+/**
+ * Retrains a network between pruning rounds so the remaining weights can compensate
+ * for the removed ones.
+ *
+ * <h2>Usage Example:</h2>
+ * <pre>{@code
+ * FineTuner fineTuner = (network, round) -> {
+ *     for (int epoch = 0; epoch < 50; epoch++) {
+ *         network.train(inputs, targets);
+ *     }
+ * };
+ * }</pre>
+ *
+ * @see MagnitudePruner
+ */
+@FunctionalInterface
+public interface FineTuner {
+
+    /**
+     * Trains the pruned network.
+     *
+     * @param network Network after the given pruning round
+     * @param round   Pruning round, starting at 1
+     */
+    void fineTune(NeuralNetwork network, int round);
+}
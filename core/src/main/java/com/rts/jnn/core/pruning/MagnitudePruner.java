@@ -0,0 +1,168 @@
+package com.rts.jnn.core.pruning;
+
+import com.rts.jnn.core.math.SparseMatrix;
+import com.rts.jnn.core.network.Layer;
+import com.rts.jnn.core.network.NeuralNetwork;
+import com.rts.jnn.core.network.SparseLayer;
+import com.rts.jnn.core.validation.ValidationUtils;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Removes the smallest weights of a trained network over several pruning rounds.
+ *
+ * <p>Every round raises the sparsity of each layer along the cubic schedule
+ * {@code s = target * (1 - (1 - round / rounds)^3)}, which prunes aggressively while
+ * the network still has plenty of redundant weights and gently towards the end. In
+ * each round the weights with the smallest magnitudes are set to zero until the layer
+ * reaches the scheduled sparsity, and the optional {@link FineTuner} then retrains the
+ * network.</p>
+ *
+ * <p>Pruned layers are held as {@link SparseLayer}s during fine-tuning, so removed
+ * weights stay removed and training gets cheaper with every round. After the last
+ * round, layers below the network's
+ * {@link NeuralNetwork#getSparsityThreshold() sparsity threshold} stay sparse and the
+ * others are converted back to dense layers.</p>
+ *
+ * <p>Biases are never pruned. Layers are replaced in the network's layer list, so
+ * workspaces, plans and frozen models created before pruning must be recreated.</p>
+ *
+ * <h2>Usage Example:</h2>
+ * <pre>{@code
+ * MagnitudePruner pruner = new MagnitudePruner(0.9, 5, (net, round) -> {
+ *     for (int epoch = 0; epoch < 20; epoch++) {
+ *         net.train(inputs, targets);
+ *     }
+ * });
+ * pruner.prune(network); // 90% of the weights removed
+ * }</pre>
+ *
+ * @see StructuredPruner
+ */
+public class MagnitudePruner {
+
+    private final double targetSparsity;
+    private final int rounds;
+    private final FineTuner fineTuner;
+
+    /**
+     * Creates a one-shot pruner without fine-tuning.
+     *
+     * @param targetSparsity Fraction of weights to remove from each layer, in [0, 1)
+     * @throws IllegalArgumentException if targetSparsity is outside [0, 1)
+     */
+    public MagnitudePruner(double targetSparsity) {
+        this(targetSparsity, 1, null);
+    }
+
+    /**
+     * Creates an iterative pruner.
+     *
+     * @param targetSparsity Fraction of weights to remove from each layer, in [0, 1)
+     * @param rounds         Number of pruning rounds
+     * @param fineTuner      Training run after every round, or {@code null} for none
+     * @throws IllegalArgumentException if targetSparsity is outside [0, 1) or rounds is less than 1
+     */
+    public MagnitudePruner(double targetSparsity, int rounds, FineTuner fineTuner) {
+        if (targetSparsity < 0 || targetSparsity >= 1) {
+            throw new IllegalArgumentException("Target sparsity must be in range [0,1), got: " + targetSparsity);
+        }
+        if (rounds < 1) {
+            throw new IllegalArgumentException("Number of rounds must be positive, got: " + rounds);
+        }
+        this.targetSparsity = targetSparsity;
+        this.rounds = rounds;
+        this.fineTuner = fineTuner;
+    }
+
+    public double getTargetSparsity() {
+        return targetSparsity;
+    }
+
+    public int getRounds() {
+        return rounds;
+    }
+
+    /**
+     * Returns the sparsity every layer reaches in the given round.
+     *
+     * @param round Round, from 1 to {@link #getRounds()}
+     * @return Scheduled sparsity
+     */
+    public double sparsityAt(int round) {
+        double remaining = 1.0 - (double) round / rounds;
+        return targetSparsity * (1.0 - remaining * remaining * remaining);
+    }
+
+    /**
+     * Prunes every layer of the network to the target sparsity, fine-tuning between rounds.
+     *
+     * @param network Trained network, modified in place
+     * @throws com.rts.jnn.core.exception.NetworkConfigurationException if network has no layers
+     */
+    public void prune(NeuralNetwork network) {
+        ValidationUtils.validateNetworkState(network);
+        List<Layer> layers = network.getLayers();
+
+        for (int round = 1; round <= rounds; round++) {
+            double sparsity = sparsityAt(round);
+            for (int i = 0; i < layers.size(); i++) {
+                layers.set(i, pruneLayer(layers.get(i), sparsity));
+            }
+            if (fineTuner != null) {
+                fineTuner.fineTune(network, round);
+            }
+        }
+
+        for (int i = 0; i < layers.size(); i++) {
+            Layer layer = layers.get(i);
+            if (layer.getDensity() >= network.getSparsityThreshold()) {
+                layers.set(i, layer.toDense());
+            }
+        }
+    }
+
+    /**
+     * Zeroes the smallest weights of a layer and returns it as a sparse layer.
+     *
+     * @param layer    Layer to prune
+     * @param sparsity Fraction of its weights that must be zero afterwards
+     * @return Sparse layer holding the remaining weights
+     */
+    static SparseLayer pruneLayer(Layer layer, double sparsity) {
+        double[] weights = layer.getWeights();
+        int total = layer.getNeuronCount() * layer.getInputSize();
+        int prune = (int) Math.min(total, Math.round(sparsity * total));
+
+        if (prune > 0) {
+            double[] magnitudes = new double[total];
+            for (int i = 0; i < total; i++) {
+                magnitudes[i] = Math.abs(weights[i]);
+            }
+            Arrays.sort(magnitudes);
+            double threshold = magnitudes[prune - 1];
+
+            // Zero everything below the threshold, then ties in index order up to the count
+            int ties = prune;
+            for (int i = 0; i < total; i++) {
+                if (Math.abs(weights[i]) < threshold) {
+                    ties--;
+                }
+            }
+            for (int i = 0; i < total; i++) {
+                double magnitude = Math.abs(weights[i]);
+                if (magnitude < threshold) {
+                    weights[i] = 0.0;
+                } else if (magnitude == threshold && ties > 0) {
+                    weights[i] = 0.0;
+                    ties--;
+                }
+            }
+        }
+
+        SparseMatrix matrix = SparseMatrix.fromDense(weights, layer.getNeuronCount(), layer.getInputSize());
+        return new SparseLayer(matrix, layer.getBiases().clone(),
+                layer.getActivationFunction(), layer.getInitializationFunction());
+    }
+}
@@ -0,0 +1,237 @@
+package com.rts.jnn.core.pruning;
+
+import com.rts.jnn.core.exception.DataValidationException;
+import com.rts.jnn.core.exception.NetworkConfigurationException;
+import com.rts.jnn.core.network.Layer;
+import com.rts.jnn.core.network.NeuralNetwork;
+import com.rts.jnn.core.validation.ValidationUtils;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Removes whole hidden neurons, producing a physically smaller network.
+ *
+ * <p>Removing neuron {@code j} of a layer deletes row {@code j} of that layer's weights
+ * and bias, and column {@code j} of the next layer's weights. The layers shrink
+ * accordingly, so the cost of both matrix products drops in proportion: keeping 128
+ * of 512 hidden neurons makes those layers four times cheaper.</p>
+ *
+ * <h2>Neuron Importance:</h2>
+ * <ul>
+ *   <li>Without calibration data, a neuron scores the L2 norm of its incoming weights
+ *       times the L2 norm of its outgoing weights</li>
+ *   <li>With calibration inputs, a neuron scores the standard deviation of its
+ *       activation over the inputs times the L2 norm of its outgoing weights, and the
+ *       mean contribution of every removed neuron is folded into the next layer's
+ *       biases, so neurons that are nearly constant are removed at almost no cost</li>
+ * </ul>
+ *
+ * <p>The output layer is never pruned. Pruned layers are new dense layers replacing
+ * the old ones in the network's layer list; {@link #prune(NeuralNetwork, double[][])}
+ * calls {@link NeuralNetwork#sparsify()} afterwards so that layers which were sparse
+ * are stored compactly again. Workspaces, plans and frozen models
+ * created before pruning must be recreated. Fine-tuning the network after structured
+ * pruning usually recovers most of the lost accuracy.</p>
+ *
+ * <h2>Usage Example:</h2>
+ * <pre>{@code
+ * StructuredPruner pruner = new StructuredPruner(0.25);
+ * pruner.prune(network, calibrationInputs); // keep a quarter of every hidden layer
+ * }</pre>
+ *
+ * @see MagnitudePruner
+ */
+public class StructuredPruner {
+
+    private final double keepRatio;
+
+    /**
+     * Creates a pruner keeping the given fraction of every hidden layer.
+     *
+     * @param keepRatio Fraction of neurons to keep, in (0, 1]; at least one neuron is always kept
+     * @throws IllegalArgumentException if keepRatio is outside (0, 1]
+     */
+    public StructuredPruner(double keepRatio) {
+        if (keepRatio <= 0 || keepRatio > 1) {
+            throw new IllegalArgumentException("Keep ratio must be in range (0,1], got: " + keepRatio);
+        }
+        this.keepRatio = keepRatio;
+    }
+
+    public double getKeepRatio() {
+        return keepRatio;
+    }
+
+    /**
+     * Prunes every hidden layer, scoring neurons by their weights only.
+     *
+     * @param network Network to prune in place
+     * @return Total number of neurons removed
+     */
+    public int prune(NeuralNetwork network) {
+        return prune(network, null);
+    }
+
+    /**
+     * Prunes every hidden layer, using calibration inputs to score neurons and compensate biases.
+     *
+     * @param network           Network to prune in place
+     * @param calibrationInputs Representative input vectors, or {@code null} to score by weights only
+     * @return Total number of neurons removed
+     * @throws NetworkConfigurationException if network has no layers
+     * @throws DataValidationException       if a calibration input doesn't match the network
+     */
+    public int prune(NeuralNetwork network, double[][] calibrationInputs) {
+        ValidationUtils.validateNetworkState(network);
+        int removed = 0;
+        for (int i = 0; i < network.getLayers().size() - 1; i++) {
+            int neurons = network.getLayers().get(i).getNeuronCount();
+            int keep = (int) Math.max(1, Math.round(neurons * keepRatio));
+            removed += pruneLayer(network, i, keep, calibrationInputs);
+        }
+        network.sparsify();
+        return removed;
+    }
+
+    /**
+     * Keeps the most important neurons of one hidden layer.
+     *
+     * @param network           Network to prune in place
+     * @param layerIndex        Index of a layer that is not the output layer
+     * @param keep              Number of neurons to keep, at least 1
+     * @param calibrationInputs Representative input vectors, or {@code null} to score by weights only
+     * @return Number of neurons removed
+     * @throws NetworkConfigurationException if the layer index or keep count is invalid
+     * @throws DataValidationException       if a calibration input doesn't match the network
+     */
+    public int pruneLayer(NeuralNetwork network, int layerIndex, int keep, double[][] calibrationInputs) {
+        ValidationUtils.validateNetworkState(network);
+        List<Layer> layers = network.getLayers();
+        if (layerIndex < 0 || layerIndex >= layers.size() - 1) {
+            throw new NetworkConfigurationException("Only hidden layers can be pruned, got layer index: " + layerIndex);
+        }
+        Layer layer = layers.get(layerIndex);
+        Layer next = layers.get(layerIndex + 1);
+        int neurons = layer.getNeuronCount();
+        if (keep < 1 || keep > neurons) {
+            throw new NetworkConfigurationException("Keep count must be in range [1," + neurons + "], got: " + keep);
+        }
+        if (keep == neurons) {
+            return 0;
+        }
+
+        double[] weights = layer.getWeights();
+        double[] nextWeights = next.getWeights();
+        int inputSize = layer.getInputSize();
+        int nextNeurons = next.getNeuronCount();
+
+        double[] mean = null;
+        double[] scores = new double[neurons];
+        if (calibrationInputs == null) {
+            for (int j = 0; j < neurons; j++) {
+                scores[j] = Math.sqrt(rowNormSquared(weights, j * inputSize, inputSize));
+            }
+        } else {
+            double[][] statistics = activationStatistics(layers, layerIndex, calibrationInputs);
+            mean = statistics[0];
+            scores = statistics[1];
+        }
+        for (int j = 0; j < neurons; j++) {
+            double outgoing = 0.0;
+            for (int r = 0; r < nextNeurons; r++) {
+                double w = nextWeights[r * neurons + j];
+                outgoing += w * w;
+            }
+            scores[j] *= Math.sqrt(outgoing);
+        }
+
+        // Most important neurons first, kept in their original order
+        double[] finalScores = scores;
+        int[] kept = IntStream.range(0, neurons).boxed()
+                .sorted(Comparator.comparingDouble((Integer j) -> finalScores[j]).reversed())
+                .limit(keep)
+                .mapToInt(Integer::intValue)
+                .sorted()
+                .toArray();
+
+        // Shrink the rows of this layer
+        Layer pruned = Layer.fromWeights(keep, inputSize, new double[keep * inputSize], new double[keep],
+                layer.getActivationFunction(), layer.getInitializationFunction());
+        double[] biases = layer.getBiases();
+        for (int k = 0; k < keep; k++) {
+            System.arraycopy(weights, kept[k] * inputSize, pruned.getWeights(), k * inputSize, inputSize);
+            pruned.setBias(k, biases[kept[k]]);
+        }
+
+        // Shrink the columns of the next layer, folding in the mean output of removed neurons
+        Layer shrunk = Layer.fromWeights(nextNeurons, keep, new double[nextNeurons * keep], new double[nextNeurons],
+                next.getActivationFunction(), next.getInitializationFunction());
+        double[] shrunkWeights = shrunk.getWeights();
+        double[] nextBiases = next.getBiases();
+        boolean[] isKept = new boolean[neurons];
+        for (int j : kept) {
+            isKept[j] = true;
+        }
+        for (int r = 0; r < nextNeurons; r++) {
+            double bias = nextBiases[r];
+            if (mean != null) {
+                for (int j = 0; j < neurons; j++) {
+                    if (!isKept[j]) {
+                        bias += nextWeights[r * neurons + j] * mean[j];
+                    }
+                }
+            }
+            for (int k = 0; k < keep; k++) {
+                shrunkWeights[r * keep + k] = nextWeights[r * neurons + kept[k]];
+            }
+            shrunk.setBias(r, bias);
+        }
+
+        layers.set(layerIndex, pruned);
+        layers.set(layerIndex + 1, shrunk);
+        return neurons - keep;
+    }
+
+    /**
+     * Returns the mean and standard deviation of each neuron's activation over the inputs.
+     */
+    private static double[][] activationStatistics(List<Layer> layers, int layerIndex, double[][] inputs) {
+        if (inputs.length == 0) {
+            throw new DataValidationException("Calibration inputs cannot be empty");
+        }
+        int neurons = layers.get(layerIndex).getNeuronCount();
+        double[] sum = new double[neurons];
+        double[] sumSquares = new double[neurons];
+        for (double[] input : inputs) {
+            ValidationUtils.validateInputVector(input, layers.get(0).getInputSize());
+            double[] activations = input;
+            for (int i = 0; i <= layerIndex; i++) {
+                double[] outputs = new double[layers.get(i).getNeuronCount()];
+                layers.get(i).forward(activations, outputs);
+                activations = outputs;
+            }
+            for (int j = 0; j < neurons; j++) {
+                sum[j] += activations[j];
+                sumSquares[j] += activations[j] * activations[j];
+            }
+        }
+
+        double[] mean = new double[neurons];
+        double[] deviation = new double[neurons];
+        for (int j = 0; j < neurons; j++) {
+            mean[j] = sum[j] / inputs.length;
+            deviation[j] = Math.sqrt(Math.max(0.0, sumSquares[j] / inputs.length - mean[j] * mean[j]));
+        }
+        return new double[][]{mean, deviation};
+    }
+
+    private static double rowNormSquared(double[] weights, int offset, int length) {
+        double sum = 0.0;
+        for (int i = offset; i < offset + length; i++) {
+            sum += weights[i] * weights[i];
+        }
+        return sum;
+    }
+}
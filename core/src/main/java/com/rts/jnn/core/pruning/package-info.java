@@ -0,0 +1,17 @@
+/**
+ * Pruning of trained networks into smaller and faster ones.
+ *
+ * <p>This package provides:</p>
+ * <ul>
+ *   <li>{@link com.rts.jnn.core.pruning.MagnitudePruner} - Iterative removal of the
+ *       smallest weights, producing sparse layers</li>
+ *   <li>{@link com.rts.jnn.core.pruning.StructuredPruner} - Removal of whole hidden
+ *       neurons, producing smaller dense layers</li>
+ *   <li>{@link com.rts.jnn.core.pruning.FineTuner} - Callback retraining the network
+ *       between pruning rounds</li>
+ * </ul>
+ *
+ * <p>Pruning replaces layers in the network, so execution plans, frozen models and
+ * training workspaces must be recreated afterwards.</p>
+ */
+package com.rts.jnn.core.pruning;
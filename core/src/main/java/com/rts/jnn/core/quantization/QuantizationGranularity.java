@@ -0,0 +1,21 @@
+package com.rts.jnn.core.quantization;
+
+/**
+ * Selects how many weight scales a quantized layer uses.
+ *
+ * @see Quantizer
+ */
+public enum QuantizationGranularity {
+
+    /**
+     * One scale for all weights of a layer; smallest model, but one large weight
+     * coarsens the resolution of every neuron in the layer
+     */
+    PER_LAYER,
+
+    /**
+     * One scale per neuron (output channel); each row of the weight matrix uses the
+     * full int8 range, which usually keeps accuracy much closer to the original
+     */
+    PER_CHANNEL
+}
@@ -0,0 +1,222 @@
+package com.rts.jnn.core.quantization;
+
+import com.rts.jnn.core.activation.ActivationFunction;
+import com.rts.jnn.core.math.LinearAlgebra;
+
+/**
+ * Represents a layer whose weights and inputs are 8-bit integers.
+ *
+ * <p>Real values are mapped to int8 with an affine scheme, {@code real = scale * (q - zeroPoint)}:</p>
+ * <ul>
+ *   <li>Weights are symmetric ({@code zeroPoint = 0}), with one scale per layer or per
+ *       neuron, so the int8 products need no correction</li>
+ *   <li>Inputs are asymmetric, with a scale and zero-point calibrated from the range
+ *       of values the layer saw, so one-sided ranges such as sigmoid or ReLU outputs
+ *       use all 256 levels</li>
+ *   <li>Biases are int32 in units of {@code inputScale * weightScale}, and also hold
+ *       the constant {@code -inputZeroPoint * sum(weights of the row)}, so the
+ *       accumulator needs no per-input correction</li>
+ * </ul>
+ *
+ * <p>Each output is the int32 sum of the bias and the int8 dot product, dequantized
+ * with {@code inputScale * weightScale} and then passed through the layer's activation
+ * function in double precision.</p>
+ *
+ * <p><b>Thread Safety:</b> Instances are immutable; {@link #forward(byte[], double[])}
+ * only writes to its output and may be called concurrently.</p>
+ *
+ * @see Quantizer
+ * @see QuantizedNetwork
+ */
+public final class QuantizedLayer {
+
+    private final int neuronCount;
+    private final int inputSize;
+
+    /**
+     * Row-major int8 weights, neuronCount x inputSize
+     */
+    private final byte[] weights;
+
+    /**
+     * Bias and input zero-point correction per neuron, in accumulator units
+     */
+    private final int[] biases;
+
+    /**
+     * Real value of one accumulator unit per neuron, i.e. inputScale * weightScale
+     */
+    private final double[] outputScales;
+
+    private final double[] weightScales;
+    private final double inputScale;
+    private final int inputZeroPoint;
+    private final ActivationFunction activationFunction;
+
+    /**
+     * Creates a layer from quantized parameters without copying them.
+     *
+     * @param neuronCount        Number of neurons
+     * @param inputSize          Number of inputs
+     * @param weights            Row-major int8 weights, neuronCount x inputSize
+     * @param weightScales       One scale per neuron, or a single scale for the whole layer
+     * @param biases             int32 biases in units of inputScale * weightScale, excluding the zero-point correction
+     * @param inputScale         Real value of one input quantization step
+     * @param inputZeroPoint     Quantized value representing a real zero
+     * @param activationFunction Activation applied after dequantization
+     * @throws IllegalArgumentException if an array doesn't match the dimensions or a scale is not positive
+     */
+    public QuantizedLayer(int neuronCount, int inputSize, byte[] weights, double[] weightScales, int[] biases,
+                          double inputScale, int inputZeroPoint, ActivationFunction activationFunction) {
+        if (weights.length != neuronCount * inputSize || biases.length != neuronCount) {
+            throw new IllegalArgumentException("Quantized parameters don't match a "
+                    + neuronCount + "x" + inputSize + " layer");
+        }
+        if (weightScales.length != 1 && weightScales.length != neuronCount) {
+            throw new IllegalArgumentException("Expected 1 or " + neuronCount + " weight scales, got: "
+                    + weightScales.length);
+        }
+        if (!(inputScale > 0) || inputZeroPoint < Byte.MIN_VALUE || inputZeroPoint > Byte.MAX_VALUE) {
+            throw new IllegalArgumentException("Invalid input quantization: scale " + inputScale
+                    + ", zero-point " + inputZeroPoint);
+        }
+        this.neuronCount = neuronCount;
+        this.inputSize = inputSize;
+        this.weights = weights;
+        this.weightScales = weightScales;
+        this.inputScale = inputScale;
+        this.inputZeroPoint = inputZeroPoint;
+        this.activationFunction = activationFunction;
+
+        this.biases = new int[neuronCount];
+        this.outputScales = new double[neuronCount];
+        for (int j = 0; j < neuronCount; j++) {
+            int rowSum = 0;
+            for (int i = j * inputSize; i < (j + 1) * inputSize; i++) {
+                rowSum += weights[i];
+            }
+            double weightScale = weightScales.length == 1 ? weightScales[0] : weightScales[j];
+            if (!(weightScale > 0)) {
+                throw new IllegalArgumentException("Weight scales must be positive, got: " + weightScale);
+            }
+            this.biases[j] = biases[j] - inputZeroPoint * rowSum;
+            this.outputScales[j] = inputScale * weightScale;
+        }
+    }
+
+    /**
+     * Quantizes real input values with this layer's input scale and zero-point.
+     *
+     * @param inputs    Real input vector, inputSize long
+     * @param quantized Vector receiving the int8 values, inputSize long
+     */
+    public void quantizeInputs(double[] inputs, byte[] quantized) {
+        double inverseScale = 1.0 / inputScale;
+        for (int i = 0; i < inputSize; i++) {
+            long q = Math.round(inputs[i] * inverseScale) + inputZeroPoint;
+            quantized[i] = (byte) Math.max(Byte.MIN_VALUE, Math.min(Byte.MAX_VALUE, q));
+        }
+    }
+
+    /**
+     * Computes the activated outputs from quantized inputs.
+     *
+     * <p>The products are computed in int32; only the final sums are converted to
+     * double, scaled and activated.</p>
+     *
+     * @param inputs  Quantized input vector, inputSize long
+     * @param outputs Vector receiving the real outputs, at least neuronCount long
+     */
+    public void forward(byte[] inputs, double[] outputs) {
+        for (int j = 0, row = 0; j < neuronCount; j++, row += inputSize) {
+            int accumulator = biases[j] + LinearAlgebra.dot(weights, row, inputs, 0, inputSize);
+            outputs[j] = accumulator * outputScales[j];
+        }
+        activationFunction.activate(outputs, outputs, 0, neuronCount);
+    }
+
+    public int getNeuronCount() {
+        return neuronCount;
+    }
+
+    public int getInputSize() {
+        return inputSize;
+    }
+
+    public double getInputScale() {
+        return inputScale;
+    }
+
+    public int getInputZeroPoint() {
+        return inputZeroPoint;
+    }
+
+    public ActivationFunction getActivationFunction() {
+        return activationFunction;
+    }
+
+    /**
+     * Returns the weight scale of a neuron.
+     *
+     * @param neuron Neuron index
+     * @return Real value of one weight quantization step
+     */
+    public double getWeightScale(int neuron) {
+        return weightScales.length == 1 ? weightScales[0] : weightScales[neuron];
+    }
+
+    /**
+     * Returns a quantized weight.
+     *
+     * @param neuron Neuron index
+     * @param input  Input index
+     * @return int8 weight
+     */
+    public byte getQuantizedWeight(int neuron, int input) {
+        return weights[neuron * inputSize + input];
+    }
+
+    /**
+     * Returns a weight converted back to its real value.
+     *
+     * @param neuron Neuron index
+     * @param input  Input index
+     * @return Dequantized weight
+     */
+    public double getWeight(int neuron, int input) {
+        return getQuantizedWeight(neuron, input) * getWeightScale(neuron);
+    }
+
+    /**
+     * Returns a quantized bias, as passed to the constructor.
+     *
+     * @param neuron Neuron index
+     * @return int32 bias in units of inputScale * weightScale
+     */
+    public int getQuantizedBias(int neuron) {
+        int rowSum = 0;
+        for (int i = neuron * inputSize; i < (neuron + 1) * inputSize; i++) {
+            rowSum += weights[i];
+        }
+        return biases[neuron] + inputZeroPoint * rowSum;
+    }
+
+    /**
+     * Returns a bias converted back to its real value.
+     *
+     * @param neuron Neuron index
+     * @return Dequantized bias
+     */
+    public double getBias(int neuron) {
+        return getQuantizedBias(neuron) * outputScales[neuron];
+    }
+
+    /**
+     * Returns the memory taken by the weights, biases and scales.
+     *
+     * @return Size in bytes
+     */
+    public long getParameterBytes() {
+        return weights.length + 4L * biases.length + 8L * weightScales.length;
+    }
+}
@@ -0,0 +1,145 @@
+package com.rts.jnn.core.quantization;
+
+import com.rts.jnn.core.exception.NeuralNetworkException;
+import com.rts.jnn.core.validation.ValidationUtils;
+
+import java.util.List;
+
+/**
+ * Provides int8 inference for a network quantized by {@link Quantizer}.
+ *
+ * <p>Weights take one byte instead of eight, so a quantized model needs about an eighth
+ * of the memory and memory bandwidth of its double-precision source, and every
+ * multiply-add works on 8-bit integers accumulated in 32 bits. Between layers the
+ * activated outputs are requantized with the next layer's calibrated input scale.</p>
+ *
+ * <p>Outputs differ from the source network by the quantization error; use
+ * {@link Quantizer#quantize(com.rts.jnn.core.network.NeuralNetwork, double[][])} with
+ * calibration inputs that cover the range of real inputs to keep it small.</p>
+ *
+ * <p><b>Thread Safety:</b> This class is thread-safe. Layers are immutable and scratch
+ * buffers are kept per thread.</p>
+ *
+ * <h2>Usage Example:</h2>
+ * <pre>{@code
+ * QuantizedNetwork model = new Quantizer(QuantizationGranularity.PER_CHANNEL)
+ *         .quantize(network, calibrationInputs);
+ * double[] outputs = model.predict(inputs);
+ * }</pre>
+ *
+ * @see QuantizedLayer
+ */
+public final class QuantizedNetwork {
+
+    private final List<QuantizedLayer> layers;
+    private final int inputSize;
+    private final int outputSize;
+
+    /**
+     * Quantized and real activation buffers used by the calling thread
+     */
+    private final ThreadLocal<Buffers> buffers;
+
+    /**
+     * Creates a network from consecutive quantized layers.
+     *
+     * @param layers Layers, each taking the previous layer's outputs as inputs
+     * @throws IllegalArgumentException if the list is empty or the layer sizes don't chain
+     */
+    public QuantizedNetwork(List<QuantizedLayer> layers) {
+        if (layers.isEmpty()) {
+            throw new IllegalArgumentException("Quantized network needs at least one layer");
+        }
+        int width = 0;
+        for (int i = 0; i < layers.size(); i++) {
+            QuantizedLayer layer = layers.get(i);
+            if (i > 0 && layer.getInputSize() != layers.get(i - 1).getNeuronCount()) {
+                throw new IllegalArgumentException("Layer " + i + " expects " + layer.getInputSize()
+                        + " inputs, previous layer has " + layers.get(i - 1).getNeuronCount() + " neurons");
+            }
+            width = Math.max(width, Math.max(layer.getInputSize(), layer.getNeuronCount()));
+        }
+        this.layers = List.copyOf(layers);
+        this.inputSize = layers.get(0).getInputSize();
+        this.outputSize = layers.get(layers.size() - 1).getNeuronCount();
+        int bufferSize = width;
+        this.buffers = ThreadLocal.withInitial(() -> new Buffers(bufferSize));
+    }
+
+    public List<QuantizedLayer> getLayers() {
+        return layers;
+    }
+
+    public int getInputSize() {
+        return inputSize;
+    }
+
+    public int getOutputSize() {
+        return outputSize;
+    }
+
+    /**
+     * Returns the memory taken by the parameters of all layers.
+     *
+     * @return Size in bytes
+     */
+    public long getParameterBytes() {
+        long bytes = 0;
+        for (QuantizedLayer layer : layers) {
+            bytes += layer.getParameterBytes();
+        }
+        return bytes;
+    }
+
+    /**
+     * Performs forward propagation.
+     *
+     * @param inputs Input vector matching the network's input size
+     * @return Newly allocated output vector
+     * @throws com.rts.jnn.core.exception.DataValidationException if inputs don't match the network
+     */
+    public double[] predict(double[] inputs) {
+        double[] output = new double[outputSize];
+        predict(inputs, output);
+        return output;
+    }
+
+    /**
+     * Performs forward propagation into a caller-provided vector without allocating.
+     *
+     * @param inputs Input vector matching the network's input size
+     * @param output Vector receiving the outputs, matching the network's output size
+     * @throws com.rts.jnn.core.exception.DataValidationException if a vector doesn't match the network
+     */
+    public void predict(double[] inputs, double[] output) {
+        ValidationUtils.validateInputVector(inputs, inputSize);
+        ValidationUtils.validateOutputVector(output, outputSize);
+
+        try {
+            Buffers scratch = buffers.get();
+            double[] real = inputs;
+            for (int i = 0; i < layers.size(); i++) {
+                QuantizedLayer layer = layers.get(i);
+                layer.quantizeInputs(real, scratch.quantized);
+                double[] next = i == layers.size() - 1 ? output : scratch.real[i & 1];
+                layer.forward(scratch.quantized, next);
+                real = next;
+            }
+        } catch (Exception e) {
+            throw new NeuralNetworkException("Error during prediction", e);
+        }
+    }
+
+    /**
+     * Per-thread scratch vectors, each as wide as the widest layer.
+     */
+    private static final class Buffers {
+        final byte[] quantized;
+        final double[][] real;
+
+        Buffers(int width) {
+            quantized = new byte[width];
+            real = new double[][]{new double[width], new double[width]};
+        }
+    }
+}
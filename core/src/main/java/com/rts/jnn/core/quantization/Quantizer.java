@@ -0,0 +1,176 @@
+package com.rts.jnn.core.quantization;
+
+import com.rts.jnn.core.exception.DataValidationException;
+import com.rts.jnn.core.network.Layer;
+import com.rts.jnn.core.network.NeuralNetwork;
+import com.rts.jnn.core.validation.ValidationUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Converts a trained network into an int8 {@link QuantizedNetwork}.
+ *
+ * <p>Quantization happens after training and needs no retraining:</p>
+ * <ol>
+ *   <li>The calibration inputs are run through the double-precision network, recording
+ *       the minimum and maximum value that reaches every layer</li>
+ *   <li>Each layer's input range, widened to include zero, is mapped onto the 256 int8
+ *       levels, giving its input scale and zero-point</li>
+ *   <li>Weights are rounded to int8 with a symmetric scale per layer or per neuron,
+ *       chosen so the largest weight maps to 127</li>
+ *   <li>Biases are rounded to int32 in units of {@code inputScale * weightScale}, so they
+ *       can be added to the accumulator directly</li>
+ * </ol>
+ *
+ * <p>Inputs outside the calibrated range are clamped, so the calibration set should
+ * cover the values seen in production; a few hundred representative samples are
+ * usually enough. The source network is not modified.</p>
+ *
+ * <h2>Usage Example:</h2>
+ * <pre>{@code
+ * Quantizer quantizer = new Quantizer(QuantizationGranularity.PER_CHANNEL);
+ * QuantizedNetwork model = quantizer.quantize(network, calibrationInputs);
+ * double[] outputs = model.predict(inputs);
+ * }</pre>
+ *
+ * @see QuantizedNetwork
+ */
+public class Quantizer {
+
+    /**
+     * Largest weight magnitude after quantization; -128 is left unused to keep weights symmetric
+     */
+    private static final int WEIGHT_LEVELS = 127;
+
+    private final QuantizationGranularity granularity;
+
+    /**
+     * Creates a quantizer with one weight scale per neuron.
+     */
+    public Quantizer() {
+        this(QuantizationGranularity.PER_CHANNEL);
+    }
+
+    /**
+     * Creates a quantizer with the given weight scale granularity.
+     *
+     * @param granularity Whether weight scales are per layer or per neuron
+     * @throws IllegalArgumentException if granularity is null
+     */
+    public Quantizer(QuantizationGranularity granularity) {
+        if (granularity == null) {
+            throw new IllegalArgumentException("Quantization granularity cannot be null");
+        }
+        this.granularity = granularity;
+    }
+
+    public QuantizationGranularity getGranularity() {
+        return granularity;
+    }
+
+    /**
+     * Quantizes every layer of a trained network.
+     *
+     * @param network           Trained network
+     * @param calibrationInputs Representative input vectors used to calibrate activation ranges
+     * @return Independent int8 model
+     * @throws com.rts.jnn.core.exception.NetworkConfigurationException if network has no layers
+     * @throws DataValidationException if the calibration inputs are empty or don't match the network
+     */
+    public QuantizedNetwork quantize(NeuralNetwork network, double[][] calibrationInputs) {
+        ValidationUtils.validateNetworkState(network);
+        if (calibrationInputs == null || calibrationInputs.length == 0) {
+            throw new DataValidationException("Calibration inputs cannot be empty");
+        }
+        List<Layer> layers = network.getLayers();
+        double[][] ranges = calibrate(layers, calibrationInputs);
+
+        List<QuantizedLayer> quantized = new ArrayList<>(layers.size());
+        for (int i = 0; i < layers.size(); i++) {
+            quantized.add(quantizeLayer(layers.get(i), ranges[i][0], ranges[i][1]));
+        }
+        return new QuantizedNetwork(quantized);
+    }
+
+    /**
+     * Quantizes one layer for inputs within the given range.
+     *
+     * @param layer    Layer to quantize
+     * @param minInput Smallest expected input value
+     * @param maxInput Largest expected input value
+     * @return int8 copy of the layer
+     */
+    public QuantizedLayer quantizeLayer(Layer layer, double minInput, double maxInput) {
+        double low = Math.min(0.0, minInput);
+        double high = Math.max(0.0, maxInput);
+        double inputScale = high > low ? (high - low) / 255.0 : 1.0;
+        int inputZeroPoint = (int) Math.max(Byte.MIN_VALUE,
+                Math.min(Byte.MAX_VALUE, Math.round(Byte.MIN_VALUE - low / inputScale)));
+
+        int neuronCount = layer.getNeuronCount();
+        int inputSize = layer.getInputSize();
+        double[] weights = layer.getWeights();
+        double[] weightScales = granularity == QuantizationGranularity.PER_LAYER
+                ? new double[]{weightScale(weights, 0, neuronCount * inputSize)}
+                : new double[neuronCount];
+        if (granularity == QuantizationGranularity.PER_CHANNEL) {
+            for (int j = 0; j < neuronCount; j++) {
+                weightScales[j] = weightScale(weights, j * inputSize, inputSize);
+            }
+        }
+
+        byte[] quantizedWeights = new byte[neuronCount * inputSize];
+        int[] quantizedBiases = new int[neuronCount];
+        double[] biases = layer.getBiases();
+        for (int j = 0; j < neuronCount; j++) {
+            double scale = weightScales.length == 1 ? weightScales[0] : weightScales[j];
+            for (int i = j * inputSize; i < (j + 1) * inputSize; i++) {
+                long q = Math.round(weights[i] / scale);
+                quantizedWeights[i] = (byte) Math.max(-WEIGHT_LEVELS, Math.min(WEIGHT_LEVELS, q));
+            }
+            // Leave headroom in the accumulator for the zero-point correction and the products
+            long bias = Math.round(biases[j] / (inputScale * scale));
+            quantizedBiases[j] = (int) Math.max(Integer.MIN_VALUE / 2, Math.min(Integer.MAX_VALUE / 2, bias));
+        }
+
+        return new QuantizedLayer(neuronCount, inputSize, quantizedWeights, weightScales, quantizedBiases,
+                inputScale, inputZeroPoint, layer.getActivationFunction());
+    }
+
+    /**
+     * Returns the minimum and maximum input value of every layer over the calibration set.
+     */
+    private static double[][] calibrate(List<Layer> layers, double[][] inputs) {
+        double[][] ranges = new double[layers.size()][];
+        for (int i = 0; i < ranges.length; i++) {
+            ranges[i] = new double[]{Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY};
+        }
+
+        for (double[] input : inputs) {
+            ValidationUtils.validateInputVector(input, layers.get(0).getInputSize());
+            double[] activations = input;
+            for (int i = 0; i < layers.size(); i++) {
+                for (double value : activations) {
+                    ranges[i][0] = Math.min(ranges[i][0], value);
+                    ranges[i][1] = Math.max(ranges[i][1], value);
+                }
+                double[] outputs = new double[layers.get(i).getNeuronCount()];
+                layers.get(i).forward(activations, outputs);
+                activations = outputs;
+            }
+        }
+        return ranges;
+    }
+
+    /**
+     * Returns the symmetric scale mapping the largest magnitude in a slice to 127.
+     */
+    private static double weightScale(double[] weights, int offset, int length) {
+        double max = 0.0;
+        for (int i = offset; i < offset + length; i++) {
+            max = Math.max(max, Math.abs(weights[i]));
+        }
+        return max > 0 ? max / WEIGHT_LEVELS : 1.0;
+    }
+}
@@ -0,0 +1,18 @@
+/**
+ * Post-training int8 quantization of trained networks.
+ *
+ * <p>This package converts a double-precision {@link com.rts.jnn.core.network.NeuralNetwork}
+ * into a model whose weights and layer inputs are 8-bit integers. Weights take an
+ * eighth of the memory, and the dot products run on integers with 32-bit accumulation
+ * before each layer's output is dequantized and activated.</p>
+ *
+ * <h2>Key Components:</h2>
+ * <ul>
+ *   <li>{@link com.rts.jnn.core.quantization.Quantizer} - Calibrates activation ranges
+ *       and computes scales and zero-points</li>
+ *   <li>{@link com.rts.jnn.core.quantization.QuantizedNetwork} - Thread-safe int8 inference model</li>
+ *   <li>{@link com.rts.jnn.core.quantization.QuantizedLayer} - int8 weights, int32 biases and their scales</li>
+ *   <li>{@link com.rts.jnn.core.quantization.QuantizationGranularity} - Per-layer or per-neuron weight scales</li>
+ * </ul>
+ */
+package com.rts.jnn.core.quantization;
@@ -0,0 +1,293 @@
+package com.rts.jnn.core.training;
+
+import com.rts.jnn.core.decay.DecayFunction;
+import com.rts.jnn.core.exception.TrainingException;
+import com.rts.jnn.core.network.Gradients;
+import com.rts.jnn.core.network.NeuralNetwork;
+import com.rts.jnn.core.network.TrainingWorkspace;
+import com.rts.jnn.core.validation.ValidationUtils;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Trains a network with synchronous, reproducible data-parallel mini-batch SGD.
+ *
+ * <p>Each mini-batch is cut into shards of a fixed number of samples. Worker threads
+ * take shards from a shared queue and compute each shard's gradients into a buffer that
+ * belongs to that shard. The shard buffers are then summed by a pairwise tree reduction
+ * (shard 0 + 1, 2 + 3, ..., then 0 + 2, ...) and applied to the weights once, scaled by
+ * {@code learningRate / batchSize} as in {@link NeuralNetwork#train(double[][], double[][])}.</p>
+ *
+ * <h2>Determinism:</h2>
+ * <p>Shard boundaries depend only on the shard size, never on the number of threads, and
+ * every shard is computed by a single thread in a fixed order. The reduction tree is
+ * likewise fixed. Training results are therefore bit-for-bit identical across runs and
+ * across thread counts, given the same seed, shard size, batch size and math kernel
+ * (see {@code com.rts.jnn.core.math}; the scalar and SIMD kernels round differently).</p>
+ *
+ * <p><b>Thread Safety:</b> A trainer drives one batch at a time; the network must not be
+ * used by other threads while training is running.</p>
+ *
+ * <h2>Usage Example:</h2>
+ * <pre>{@code
+ * try (DataParallelTrainer trainer = new DataParallelTrainer(network, 8, 16, 42L)) {
+ *     trainer.train(inputs, targets, 1000, 64, new InverseTimeDecay(0.5, 0.0001));
+ * }
+ * }</pre>
+ */
+public class DataParallelTrainer implements AutoCloseable {
+
+    /**
+     * Default number of samples per shard
+     */
+    public static final int DEFAULT_SHARD_SIZE = 16;
+
+    private final NeuralNetwork network;
+    private final int threads;
+    private final int shardSize;
+    private final WorkerPool workers;
+
+    /**
+     * Seed from which each epoch's sample order is derived
+     */
+    private long seed;
+
+    /**
+     * Number of epochs completed by {@link #trainEpoch}, including those of a restored run
+     */
+    private int epoch;
+
+    /**
+     * Training buffers of each worker, recreated when the network topology changes
+     */
+    private final TrainingWorkspace[] workspaces;
+
+    /**
+     * Gradient buffer of each shard, grown as larger batches arrive
+     */
+    private Gradients[] shardGradients = new Gradients[0];
+
+    /**
+     * Creates a trainer with the default shard size and an unseeded shuffle.
+     *
+     * @param network Network to train
+     * @param threads Number of worker threads
+     * @throws IllegalArgumentException if threads is less than 1
+     */
+    public DataParallelTrainer(NeuralNetwork network, int threads) {
+        this(network, threads, DEFAULT_SHARD_SIZE, new Random().nextLong());
+    }
+
+    /**
+     * Creates a trainer with the given shard size and shuffle seed.
+     *
+     * @param network   Network to train
+     * @param threads   Number of worker threads
+     * @param shardSize Number of samples whose gradients are computed together
+     * @param seed      Seed for the per-epoch sample shuffle
+     * @throws IllegalArgumentException if threads or shardSize is less than 1
+     */
+    public DataParallelTrainer(NeuralNetwork network, int threads, int shardSize, long seed) {
+        if (network == null) {
+            throw new IllegalArgumentException("Network cannot be null");
+        }
+        if (threads < 1) {
+            throw new IllegalArgumentException("Thread count must be positive, got: " + threads);
+        }
+        if (shardSize < 1) {
+            throw new IllegalArgumentException("Shard size must be positive, got: " + shardSize);
+        }
+        this.network = network;
+        this.threads = threads;
+        this.shardSize = shardSize;
+        this.seed = seed;
+        this.workspaces = new TrainingWorkspace[threads];
+        this.workers = new WorkerPool("data-parallel-worker", threads);
+    }
+
+    public NeuralNetwork getNetwork() {
+        return network;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public int getShardSize() {
+        return shardSize;
+    }
+
+    /**
+     * Trains for several epochs, setting the learning rate from a decay schedule before each one.
+     *
+     * <p>The schedule continues from {@link #getEpoch()}, so a trainer restored with
+     * {@link #restoreTrainingState(TrainingState)} picks up where the saved run stopped.</p>
+     *
+     * @param inputs        Training input vectors, one per row
+     * @param targets       Target output vectors, one per row
+     * @param epochs        Number of further passes over the data
+     * @param batchSize     Number of samples per weight update
+     * @param decayFunction Learning rate schedule
+     */
+    public void train(double[][] inputs, double[][] targets, int epochs, int batchSize, DecayFunction decayFunction) {
+        for (int i = 0; i < epochs; i++) {
+            network.setLearningRate(decayFunction.getLearningRate(epoch));
+            trainEpoch(inputs, targets, batchSize);
+        }
+    }
+
+    /**
+     * Runs one pass over the data in a seeded random order, one weight update per mini-batch.
+     *
+     * @param inputs    Training input vectors, one per row
+     * @param targets   Target output vectors, one per row
+     * @param batchSize Number of samples per weight update; the last batch may be smaller
+     * @throws IllegalArgumentException if batchSize is less than 1
+     * @throws TrainingException        if a worker fails or the calling thread is interrupted
+     */
+    public void trainEpoch(double[][] inputs, double[][] targets, int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be positive, got: " + batchSize);
+        }
+        ValidationUtils.validateNetworkState(network);
+        ValidationUtils.validateTrainingBatch(inputs, targets, network);
+
+        int[] order = Samples.shuffledOrder(inputs.length, seed, epoch);
+        double[][] shuffledInputs = new double[inputs.length][];
+        double[][] shuffledTargets = new double[targets.length][];
+        for (int i = 0; i < order.length; i++) {
+            shuffledInputs[i] = inputs[order[i]];
+            shuffledTargets[i] = targets[order[i]];
+        }
+
+        for (int from = 0; from < inputs.length; from += batchSize) {
+            trainRange(shuffledInputs, shuffledTargets, from, Math.min(inputs.length, from + batchSize));
+        }
+        epoch++;
+    }
+
+    /**
+     * Performs one weight update from all given samples.
+     *
+     * @param inputs  Training input vectors, one per row
+     * @param targets Target output vectors, one per row
+     * @throws TrainingException if a worker fails or the calling thread is interrupted
+     */
+    public void trainBatch(double[][] inputs, double[][] targets) {
+        ValidationUtils.validateNetworkState(network);
+        ValidationUtils.validateTrainingBatch(inputs, targets, network);
+        trainRange(inputs, targets, 0, inputs.length);
+    }
+
+    public int getEpoch() {
+        return epoch;
+    }
+
+    /**
+     * Captures the epoch count and the seed of the sample shuffle.
+     *
+     * <p>Save the result together with the network, for example with
+     * {@code CheckpointService}, to resume the run later.</p>
+     *
+     * @param decayFunction Learning rate schedule of the run, or null if the rate is constant
+     * @return Training state to pass to {@link #restoreTrainingState(TrainingState)}
+     */
+    public TrainingState getTrainingState(DecayFunction decayFunction) {
+        return new TrainingState(epoch, decayFunction, seed);
+    }
+
+    /**
+     * Continues a saved run: restores the epoch count and, if saved, the shuffle seed.
+     *
+     * <p>Each epoch's sample order follows from the seed and the epoch number alone, so
+     * the resumed run visits the samples in the same order an uninterrupted one would.
+     * The network's weights and learning rate are restored separately, by loading the
+     * model saved with the state.</p>
+     *
+     * @param state State returned by {@link #getTrainingState(DecayFunction)}
+     */
+    public void restoreTrainingState(TrainingState state) {
+        Long shuffleSeed = state.getShuffleSeed();
+        if (shuffleSeed != null) {
+            seed = shuffleSeed;
+        }
+        epoch = state.getEpoch();
+    }
+
+    /**
+     * Stops the worker threads.
+     */
+    @Override
+    public void close() {
+        workers.close();
+    }
+
+    /**
+     * Computes shard gradients of samples [from, to) in parallel, reduces and applies them.
+     */
+    private void trainRange(double[][] inputs, double[][] targets, int from, int to) {
+        int shards = (to - from + shardSize - 1) / shardSize;
+        prepareBuffers(shards);
+
+        AtomicInteger cursor = new AtomicInteger();
+        workers.runAll(worker -> {
+            TrainingWorkspace workspace = workspaces[worker];
+            int shard;
+            while ((shard = cursor.getAndIncrement()) < shards) {
+                int start = from + shard * shardSize;
+                Gradients gradients = shardGradients[shard];
+                gradients.clear();
+                network.accumulateGradients(inputs, targets, start, Math.min(to, start + shardSize),
+                        gradients, workspace);
+            }
+        }, () -> cursor.set(shards));
+
+        reduce(shards);
+        network.applyGradients(shardGradients[0], network.getLearningRate() / (to - from));
+    }
+
+    /**
+     * Sums the shard gradients into shard 0 along a fixed pairwise tree.
+     */
+    private void reduce(int shards) {
+        for (int stride = 1; stride < shards; stride *= 2) {
+            int step = stride * 2;
+            int pairs = (shards - stride + step - 1) / step;
+            if (pairs == 1) {
+                shardGradients[0].add(shardGradients[stride]);
+                continue;
+            }
+
+            // Pairs of one level are independent, so they can be summed in any order
+            int level = stride;
+            AtomicInteger cursor = new AtomicInteger();
+            workers.runAll(worker -> {
+                int pair;
+                while ((pair = cursor.getAndIncrement()) < pairs) {
+                    int target = pair * step;
+                    shardGradients[target].add(shardGradients[target + level]);
+                }
+            }, () -> cursor.set(pairs));
+        }
+    }
+
+    private void prepareBuffers(int shards) {
+        for (int t = 0; t < threads; t++) {
+            if (workspaces[t] == null || !workspaces[t].fits(network.getLayers())) {
+                workspaces[t] = network.newTrainingWorkspace();
+            }
+        }
+        if (shardGradients.length > 0 && !shardGradients[0].fits(network.getLayers())) {
+            shardGradients = new Gradients[0];
+        }
+        if (shardGradients.length < shards) {
+            int existing = shardGradients.length;
+            shardGradients = Arrays.copyOf(shardGradients, shards);
+            for (int i = existing; i < shards; i++) {
+                shardGradients[i] = new Gradients(network.getLayers());
+            }
+        }
+    }
+}
@@ -0,0 +1,200 @@
+package com.rts.jnn.core.training;
+
+import com.rts.jnn.core.decay.DecayFunction;
+import com.rts.jnn.core.exception.TrainingException;
+import com.rts.jnn.core.network.NeuralNetwork;
+import com.rts.jnn.core.network.TrainingWorkspace;
+import com.rts.jnn.core.validation.ValidationUtils;
+
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Trains a network with lock-free, multi-threaded stochastic gradient descent.
+ *
+ * <p>Implements the Hogwild! scheme: each epoch the samples are shuffled and a fixed set
+ * of worker threads pull sample indices from a shared atomic cursor. Every worker runs
+ * an ordinary per-sample {@link NeuralNetwork#train(double[], double[], TrainingWorkspace)}
+ * step with its own {@link TrainingWorkspace} and writes the resulting update straight
+ * into the shared weight arrays, without any locking.</p>
+ *
+ * <h2>Consistency:</h2>
+ * <p>Workers race on the weights by design. Updates of different threads may overwrite
+ * each other and a forward pass may see a mix of old and new weights; for SGD this acts
+ * like a small amount of extra gradient noise and does not prevent convergence. Results
+ * are therefore not reproducible from run to run, even with a fixed seed. Note that the
+ * Java memory model allows writes to non-volatile {@code double} fields to be torn into
+ * two 32-bit halves; 64-bit JVMs write doubles atomically in practice, but on a 32-bit
+ * JVM a weight could briefly hold a value neither thread wrote.</p>
+ *
+ * <p>Every update made during an epoch is visible to the calling thread once
+ * {@link #trainEpoch(double[][], double[][])} returns.</p>
+ *
+ * <p><b>Thread Safety:</b> A trainer drives one epoch at a time; the network must not be
+ * used by other threads while an epoch is running.</p>
+ *
+ * <h2>Usage Example:</h2>
+ * <pre>{@code
+ * try (HogwildTrainer trainer = new HogwildTrainer(network, 8)) {
+ *     for (int epoch = 0; epoch < 1000; epoch++) {
+ *         network.setLearningRate(decay.getLearningRate(epoch));
+ *         trainer.trainEpoch(inputs, targets);
+ *     }
+ * }
+ * }</pre>
+ */
+public class HogwildTrainer implements AutoCloseable {
+
+    private final NeuralNetwork network;
+    private final int threads;
+    private final WorkerPool workers;
+
+    /**
+     * Seed from which each epoch's sample order is derived
+     */
+    private long seed;
+
+    /**
+     * Number of epochs completed by {@link #trainEpoch}, including those of a restored run
+     */
+    private int epoch;
+
+    /**
+     * Training buffers of each worker, recreated when the network topology changes
+     */
+    private final TrainingWorkspace[] workspaces;
+
+    /**
+     * Creates a trainer with the given number of worker threads.
+     *
+     * @param network Network to train
+     * @param threads Number of worker threads
+     * @throws IllegalArgumentException if threads is less than 1
+     */
+    public HogwildTrainer(NeuralNetwork network, int threads) {
+        this(network, threads, new Random().nextLong());
+    }
+
+    /**
+     * Creates a trainer with the given number of worker threads and shuffle seed.
+     *
+     * @param network Network to train
+     * @param threads Number of worker threads
+     * @param seed    Seed for the per-epoch sample shuffle
+     * @throws IllegalArgumentException if threads is less than 1
+     */
+    public HogwildTrainer(NeuralNetwork network, int threads, long seed) {
+        if (network == null) {
+            throw new IllegalArgumentException("Network cannot be null");
+        }
+        if (threads < 1) {
+            throw new IllegalArgumentException("Thread count must be positive, got: " + threads);
+        }
+        this.network = network;
+        this.threads = threads;
+        this.seed = seed;
+        this.workspaces = new TrainingWorkspace[threads];
+        this.workers = new WorkerPool("hogwild-worker", threads);
+    }
+
+    public NeuralNetwork getNetwork() {
+        return network;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    /**
+     * Trains for several epochs, setting the learning rate from a decay schedule before each one.
+     *
+     * <p>The schedule continues from {@link #getEpoch()}, so a trainer restored with
+     * {@link #restoreTrainingState(TrainingState)} picks up where the saved run stopped.</p>
+     *
+     * @param inputs        Training input vectors, one per row
+     * @param targets       Target output vectors, one per row
+     * @param epochs        Number of further passes over the data
+     * @param decayFunction Learning rate schedule
+     */
+    public void train(double[][] inputs, double[][] targets, int epochs, DecayFunction decayFunction) {
+        for (int i = 0; i < epochs; i++) {
+            network.setLearningRate(decayFunction.getLearningRate(epoch));
+            trainEpoch(inputs, targets);
+        }
+    }
+
+    /**
+     * Runs one pass over the data in a random order, spread over all worker threads.
+     *
+     * @param inputs  Training input vectors, one per row
+     * @param targets Target output vectors, one per row
+     * @throws com.rts.jnn.core.exception.DataValidationException       if the data doesn't match the network
+     * @throws com.rts.jnn.core.exception.NetworkConfigurationException if network has no layers
+     * @throws TrainingException if a worker fails or the calling thread is interrupted
+     */
+    public void trainEpoch(double[][] inputs, double[][] targets) {
+        ValidationUtils.validateNetworkState(network);
+        ValidationUtils.validateTrainingBatch(inputs, targets, network);
+
+        for (int t = 0; t < threads; t++) {
+            if (workspaces[t] == null || !workspaces[t].fits(network.getLayers())) {
+                workspaces[t] = network.newTrainingWorkspace();
+            }
+        }
+
+        int[] order = Samples.shuffledOrder(inputs.length, seed, epoch);
+        AtomicInteger cursor = new AtomicInteger();
+
+        workers.runAll(worker -> {
+            TrainingWorkspace workspace = workspaces[worker];
+            int next;
+            while ((next = cursor.getAndIncrement()) < order.length) {
+                network.train(inputs[order[next]], targets[order[next]], workspace);
+            }
+        }, () -> cursor.set(order.length));
+        epoch++;
+    }
+
+    public int getEpoch() {
+        return epoch;
+    }
+
+    /**
+     * Captures the epoch count and the seed of the sample shuffle.
+     *
+     * <p>Save the result together with the network, for example with
+     * {@code CheckpointService}, to resume the run later.</p>
+     *
+     * @param decayFunction Learning rate schedule of the run, or null if the rate is constant
+     * @return Training state to pass to {@link #restoreTrainingState(TrainingState)}
+     */
+    public TrainingState getTrainingState(DecayFunction decayFunction) {
+        return new TrainingState(epoch, decayFunction, seed);
+    }
+
+    /**
+     * Continues a saved run: restores the epoch count and, if saved, the shuffle seed.
+     *
+     * <p>Each epoch's sample order follows from the seed and the epoch number alone, so
+     * the resumed run visits the samples in the same order an uninterrupted one would.
+     * The network's weights and learning rate are restored separately, by loading the
+     * model saved with the state.</p>
+     *
+     * @param state State returned by {@link #getTrainingState(DecayFunction)}
+     */
+    public void restoreTrainingState(TrainingState state) {
+        Long shuffleSeed = state.getShuffleSeed();
+        if (shuffleSeed != null) {
+            seed = shuffleSeed;
+        }
+        epoch = state.getEpoch();
+    }
+
+    /**
+     * Stops the worker threads.
+     */
+    @Override
+    public void close() {
+        workers.close();
+    }
+}
@@ -0,0 +1,43 @@
+package com.rts.jnn.core.training;
+
+import java.util.SplittableRandom;
+
+/**
+ * Sample ordering helpers shared by the trainers.
+ */
+final class Samples {
+
+    /**
+     * Odd constant spreading consecutive epochs over the seed space, as used by {@link SplittableRandom}
+     */
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+    private Samples() {
+    }
+
+    /**
+     * Returns a random permutation of {@code 0 .. size - 1} (Fisher-Yates shuffle).
+     *
+     * <p>The permutation depends only on the seed and the epoch, so a run resumed at any
+     * epoch shuffles exactly as the uninterrupted run would have.</p>
+     *
+     * @param size  Number of samples
+     * @param seed  Seed of the training run
+     * @param epoch Epoch the order is for
+     * @return Shuffled sample indices
+     */
+    static int[] shuffledOrder(int size, long seed, int epoch) {
+        SplittableRandom random = new SplittableRandom(seed + GOLDEN_GAMMA * epoch);
+        int[] order = new int[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = i;
+        }
+        for (int i = size - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int tmp = order[i];
+            order[i] = order[j];
+            order[j] = tmp;
+        }
+        return order;
+    }
+}
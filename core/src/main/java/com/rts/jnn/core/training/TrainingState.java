@@ -0,0 +1,99 @@
+package com.rts.jnn.core.training;
+
+import com.rts.jnn.core.decay.DecayFunction;
+
+/**
+ * Position of a training run, saved alongside the weights so the run can be resumed.
+ *
+ * <p>The weights and the current learning rate live in the network itself. This class
+ * records what is needed on top of them to continue exactly where training stopped:</p>
+ * <ul>
+ *   <li>The number of completed epochs, which is also the next epoch to run</li>
+ *   <li>The learning rate schedule; the decay functions are stateless, so the schedule
+ *       position follows from the epoch</li>
+ *   <li>The seed of a trainer's sample shuffle; each epoch's order follows from the seed
+ *       and the epoch, so a resumed {@link DataParallelTrainer} visits the samples in the
+ *       same order an uninterrupted run would have</li>
+ * </ul>
+ *
+ * <p>Training uses plain SGD without momentum, so there is no further optimizer state.
+ * Instances are immutable.</p>
+ *
+ * <h2>Usage Example:</h2>
+ * <pre>{@code
+ * // Save after each epoch
+ * TrainingState state = new TrainingState(epoch + 1, decay);
+ *
+ * // Resume
+ * for (int epoch = state.getEpoch(); epoch < epochs; epoch++) {
+ *     if (state.getDecayFunction() != null) {
+ *         network.setLearningRate(state.getDecayFunction().getLearningRate(epoch));
+ *     }
+ *     // ... train one epoch ...
+ * }
+ * }</pre>
+ *
+ * @see DataParallelTrainer#getTrainingState(DecayFunction)
+ * @see HogwildTrainer#getTrainingState(DecayFunction)
+ */
+public final class TrainingState {
+
+    private final int epoch;
+    private final DecayFunction decayFunction;
+    private final Long shuffleSeed;
+
+    /**
+     * Creates the state of a hand-written training loop.
+     *
+     * @param epoch         Number of completed epochs
+     * @param decayFunction Learning rate schedule, or null if the rate is constant
+     * @throws IllegalArgumentException if epoch is negative
+     */
+    public TrainingState(int epoch, DecayFunction decayFunction) {
+        this(epoch, decayFunction, null);
+    }
+
+    /**
+     * Creates a training state including the seed of a trainer's sample shuffle.
+     *
+     * @param epoch         Number of completed epochs
+     * @param decayFunction Learning rate schedule, or null if the rate is constant
+     * @param shuffleSeed   Seed of the trainer's sample shuffle, or null
+     * @throws IllegalArgumentException if epoch is negative
+     */
+    public TrainingState(int epoch, DecayFunction decayFunction, Long shuffleSeed) {
+        if (epoch < 0) {
+            throw new IllegalArgumentException("Epoch cannot be negative, got: " + epoch);
+        }
+        this.epoch = epoch;
+        this.decayFunction = decayFunction;
+        this.shuffleSeed = shuffleSeed;
+    }
+
+    public int getEpoch() {
+        return epoch;
+    }
+
+    public DecayFunction getDecayFunction() {
+        return decayFunction;
+    }
+
+    /**
+     * Returns the seed of the trainer's sample shuffle.
+     *
+     * @return Seed, or null if none was saved
+     */
+    public Long getShuffleSeed() {
+        return shuffleSeed;
+    }
+
+    /**
+     * Returns the learning rate the schedule gives for the next epoch.
+     *
+     * @param fallback Rate to return when there is no schedule, usually the network's current rate
+     * @return Learning rate for epoch {@link #getEpoch()}
+     */
+    public double getLearningRate(double fallback) {
+        return decayFunction == null ? fallback : decayFunction.getLearningRate(epoch);
+    }
+}
@@ -0,0 +1,90 @@
+package com.rts.jnn.core.training;
+
+import com.rts.jnn.core.exception.TrainingException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
+
+/**
+ * Fixed set of daemon worker threads shared by the parallel trainers.
+ *
+ * <p>{@link #runAll(IntConsumer, Runnable)} starts the same job on every worker, passing
+ * the worker index so each one can use its own buffers, and waits for all of them.</p>
+ */
+final class WorkerPool implements AutoCloseable {
+
+    private final ExecutorService executor;
+    private final int size;
+
+    /**
+     * Starts a pool of daemon threads.
+     *
+     * @param name Prefix of the thread names
+     * @param size Number of worker threads
+     */
+    WorkerPool(String name, int size) {
+        AtomicInteger counter = new AtomicInteger();
+        this.size = size;
+        this.executor = Executors.newFixedThreadPool(size, r -> {
+            Thread thread = new Thread(r, name + "-" + counter.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Runs a job on every worker and waits until all of them have finished.
+     *
+     * @param job  Job receiving the worker index
+     * @param stop Called when a worker fails or the caller is interrupted, to make the
+     *             remaining workers finish early
+     * @throws TrainingException if a worker fails or the calling thread is interrupted
+     */
+    void runAll(IntConsumer job, Runnable stop) {
+        List<Future<?>> futures = new ArrayList<>(size);
+        for (int w = 0; w < size; w++) {
+            int worker = w;
+            futures.add(executor.submit(() -> {
+                try {
+                    job.accept(worker);
+                } catch (RuntimeException e) {
+                    stop.run();
+                    throw e;
+                }
+            }));
+        }
+
+        TrainingException failure = null;
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (ExecutionException e) {
+                if (failure == null) {
+                    failure = new TrainingException("Training worker failed: " + e.getCause().getMessage(), e.getCause());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                stop.run();
+                throw new TrainingException("Interrupted during parallel training", e);
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,28 @@
+/**
+ * Provides multi-threaded training strategies for neural networks.
+ *
+ * <p>This package contains trainers that drive {@link com.rts.jnn.core.network.NeuralNetwork}
+ * from several threads at once. Each worker owns its own
+ * {@link com.rts.jnn.core.network.TrainingWorkspace}, so threads only ever share the
+ * weights themselves.</p>
+ *
+ * <h2>Available Trainers:</h2>
+ * <ul>
+ *   <li>{@link com.rts.jnn.core.training.HogwildTrainer} - Lock-free asynchronous SGD
+ *       in the Hogwild! style</li>
+ *   <li>{@link com.rts.jnn.core.training.DataParallelTrainer} - Synchronous data-parallel
+ *       mini-batch SGD, reproducible across runs and thread counts</li>
+ *   <li>{@link com.rts.jnn.core.training.TrainingState} - Epoch, learning rate schedule and
+ *       shuffle position needed to resume an interrupted run</li>
+ * </ul>
+ *
+ * <h2>Usage Example:</h2>
+ * <pre>{@code
+ * try (HogwildTrainer trainer = new HogwildTrainer(network, 8)) {
+ *     trainer.train(inputs, targets, 1000, new InverseTimeDecay(0.5, 0.0001));
+ * }
+ * }</pre>
+ *
+ * @see com.rts.jnn.core.network.NeuralNetwork
+ */
+package com.rts.jnn.core.training;
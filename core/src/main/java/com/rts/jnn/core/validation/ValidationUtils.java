@@ -4,8 +4,12 @@ import com.rts.jnn.core.activation.ActivationFunction;
 import com.rts.jnn.core.exception.DataValidationException;
 import com.rts.jnn.core.exception.NetworkConfigurationException;
 import com.rts.jnn.core.initialization.InitializationFunction;
+import com.rts.jnn.core.network.FloatNeuralNetwork;
+import com.rts.jnn.core.network.Layer;
 import com.rts.jnn.core.network.NeuralNetwork;
 
+import java.util.List;
+
 /**
  * Provides validation utilities for neural network operations.
  */
@@ -25,6 +29,52 @@ public class ValidationUtils {
         }
     }
 
+    /**
+     * Validates output vector dimensions.
+     */
+    public static void validateOutputVector(double[] vector, int expectedSize) {
+        if (vector == null) {
+            throw new DataValidationException("Output vector cannot be null");
+        }
+        if (vector.length != expectedSize) {
+            throw new DataValidationException(
+                    String.format("Output vector size mismatch. Expected: %d, Got: %d",
+                            expectedSize, vector.length));
+        }
+    }
+
+    /**
+     * Validates the input and output matrices of a batch prediction.
+     */
+    public static void validatePredictionBatch(double[][] inputs, double[][] outputs, int inputSize, int outputSize) {
+        if (inputs == null || outputs == null) {
+            throw new DataValidationException("Prediction batch cannot be null");
+        }
+        if (inputs.length != outputs.length) {
+            throw new DataValidationException(
+                    String.format("Batch size mismatch. Inputs: %d, Outputs: %d",
+                            inputs.length, outputs.length));
+        }
+        for (int i = 0; i < inputs.length; i++) {
+            validateInputVector(inputs[i], inputSize);
+            validateOutputVector(outputs[i], outputSize);
+        }
+    }
+
+    /**
+     * Validates single-precision input vector dimensions.
+     */
+    public static void validateInputVector(float[] vector, int expectedSize) {
+        if (vector == null) {
+            throw new DataValidationException("Input vector cannot be null");
+        }
+        if (vector.length != expectedSize) {
+            throw new DataValidationException(
+                    String.format("Input vector size mismatch. Expected: %d, Got: %d",
+                            expectedSize, vector.length));
+        }
+    }
+
     /**
      * Validates layer configuration parameters.
      */
@@ -57,6 +107,34 @@ public class ValidationUtils {
         }
     }
 
+    /**
+     * Validates that every layer has an activation function and takes the previous layer's outputs as inputs.
+     */
+    public static void validateLayerChain(List<Layer> layers) {
+        for (int i = 0; i < layers.size(); i++) {
+            Layer layer = layers.get(i);
+            if (layer.getActivationFunction() == null) {
+                throw new NetworkConfigurationException(
+                        "Layer " + i + " has no activation function");
+            }
+            if (i > 0 && layer.getInputSize() != layers.get(i - 1).getNeuronCount()) {
+                throw new NetworkConfigurationException(
+                        "Layer " + i + " expects " + layer.getInputSize() + " inputs, but layer " + (i - 1)
+                                + " has " + layers.get(i - 1).getNeuronCount() + " neurons");
+            }
+        }
+    }
+
+    /**
+     * Validates single-precision network state for operations.
+     */
+    public static void validateNetworkState(FloatNeuralNetwork network) {
+        if (network.getLayers().isEmpty()) {
+            throw new NetworkConfigurationException(
+                    "Neural network has no layers configured");
+        }
+    }
+
     /**
      * Validates training data.
      */
@@ -65,9 +143,31 @@ public class ValidationUtils {
             throw new DataValidationException("Training data cannot be null");
         }
 
-        int inputSize = network.getLayers().get(0).getNeurons()[0].getWeights().length;
-        int outputSize = network.getLayers().get(network.getLayers().size() - 1)
-                .getNeurons().length;
+        int inputSize = network.getLayers().get(0).getInputSize();
+        int outputSize = network.getLayers().get(network.getLayers().size() - 1).getNeuronCount();
+
+        if (inputs.length != inputSize) {
+            throw new DataValidationException(
+                    String.format("Input size mismatch. Expected: %d, Got: %d",
+                            inputSize, inputs.length));
+        }
+        if (targets.length != outputSize) {
+            throw new DataValidationException(
+                    String.format("Target size mismatch. Expected: %d, Got: %d",
+                            outputSize, targets.length));
+        }
+    }
+
+    /**
+     * Validates single-precision training data.
+     */
+    public static void validateTrainingData(float[] inputs, float[] targets, FloatNeuralNetwork network) {
+        if (inputs == null || targets == null) {
+            throw new DataValidationException("Training data cannot be null");
+        }
+
+        int inputSize = network.getLayers().get(0).getInputSize();
+        int outputSize = network.getLayers().get(network.getLayers().size() - 1).getNeuronCount();
 
         if (inputs.length != inputSize) {
             throw new DataValidationException(
@@ -80,4 +180,45 @@ public class ValidationUtils {
                             outputSize, targets.length));
         }
     }
+
+    /**
+     * Validates a mini-batch of training data.
+     */
+    public static void validateTrainingBatch(double[][] inputs, double[][] targets, NeuralNetwork network) {
+        if (inputs == null || targets == null) {
+            throw new DataValidationException("Training data cannot be null");
+        }
+        if (inputs.length == 0) {
+            throw new DataValidationException("Training batch cannot be empty");
+        }
+        if (inputs.length != targets.length) {
+            throw new DataValidationException(
+                    String.format("Batch size mismatch. Inputs: %d, Targets: %d",
+                            inputs.length, targets.length));
+        }
+        for (int i = 0; i < inputs.length; i++) {
+            validateTrainingData(inputs[i], targets[i], network);
+        }
+    }
+
+    /**
+     * Validates the sample range [from, to) of a training batch.
+     */
+    public static void validateTrainingBatch(double[][] inputs, double[][] targets, int from, int to, NeuralNetwork network) {
+        if (inputs == null || targets == null) {
+            throw new DataValidationException("Training data cannot be null");
+        }
+        if (inputs.length != targets.length) {
+            throw new DataValidationException(
+                    String.format("Batch size mismatch. Inputs: %d, Targets: %d",
+                            inputs.length, targets.length));
+        }
+        if (from < 0 || to > inputs.length || from >= to) {
+            throw new DataValidationException(
+                    String.format("Invalid sample range [%d, %d) for batch of %d", from, to, inputs.length));
+        }
+        for (int i = from; i < to; i++) {
+            validateTrainingData(inputs[i], targets[i], network);
+        }
+    }
 }
\ No newline at end of file
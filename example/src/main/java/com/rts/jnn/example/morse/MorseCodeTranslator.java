@@ -6,11 +6,15 @@ import com.rts.jnn.core.decay.DecayFunction;
 import com.rts.jnn.core.decay.InverseTimeDecay;
 import com.rts.jnn.core.initialization.XavierInitialization;
 import com.rts.jnn.core.network.NeuralNetwork;
+import com.rts.jnn.core.training.TrainingState;
 import com.rts.jnn.example.morse.data.MorseCodeDataSet;
 import com.rts.jnn.example.morse.util.Utils;
+import com.rts.jnn.persistence.CheckpointService;
 import com.rts.jnn.persistence.ModelPersistence;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
 
 /**
  * Example usage of the neural network for Morse code translation.
@@ -19,7 +23,7 @@ import java.io.File;
  * 1. Network configuration
  * 2. Training process
  * 3. Making predictions
- * 4. Model persistence
+ * 4. Model persistence and background checkpoints
  */
 public class MorseCodeTranslator {
 
@@ -46,9 +50,16 @@ public class MorseCodeTranslator {
             ModelPersistence.loadModel(modelFileName, nn);
         } else {
 
-            // Train the neural network
+            // Train the neural network, keeping the last 3 checkpoints written in the background
             int epochs = 10_000;
-            train(epochs, nn, new InverseTimeDecay(0.5, 0.0001), dataSet);
+            String runName = modelFileName.substring(0, modelFileName.length() - ".bin".length());
+            try (CheckpointService checkpoints = new CheckpointService(Path.of("checkpoints"), runName, 3)) {
+                // Continue an interrupted run from its newest checkpoint
+                TrainingState state = resume(checkpoints, nn);
+                DecayFunction decayFunction = state.getDecayFunction() != null
+                        ? state.getDecayFunction() : new InverseTimeDecay(0.5, 0.0001);
+                train(state.getEpoch(), epochs, nn, decayFunction, dataSet, checkpoints);
+            }
 
             // Save the model after training
             ModelPersistence.saveModel(modelFileName, nn);
@@ -73,8 +84,22 @@ public class MorseCodeTranslator {
         System.out.println("Decoded Message: " + message);
     }
 
-    private static void train(int epochs, NeuralNetwork nn, DecayFunction decayFunction, MorseCodeDataSet dataSet) {
-        for (int epoch = 0; epoch < epochs; epoch++) {
+    private static TrainingState resume(CheckpointService checkpoints, NeuralNetwork nn) {
+        try {
+            TrainingState state = checkpoints.resume(nn);
+            if (state != null) {
+                System.out.println("Resuming training at epoch " + state.getEpoch());
+                return state;
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        return new TrainingState(0, null);
+    }
+
+    private static void train(int startEpoch, int epochs, NeuralNetwork nn, DecayFunction decayFunction,
+                              MorseCodeDataSet dataSet, CheckpointService checkpoints) {
+        for (int epoch = startEpoch; epoch < epochs; epoch++) {
 
             // learning rate schedule
             nn.setLearningRate(decayFunction.getLearningRate(epoch));
@@ -95,6 +120,7 @@ public class MorseCodeTranslator {
 
             if (epoch % 1000 == 0) {
                 System.out.println("Epoch " + epoch + ", Error: " + totalError);
+                checkpoints.checkpoint(nn, new TrainingState(epoch + 1, decayFunction));
             }
         }
     }
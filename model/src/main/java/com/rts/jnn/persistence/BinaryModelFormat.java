@@ -0,0 +1,624 @@
+package com.rts.jnn.persistence;
+
+import com.rts.jnn.core.activation.ActivationFunction;
+import com.rts.jnn.core.decay.DecayFunction;
+import com.rts.jnn.core.initialization.InitializationFunction;
+import com.rts.jnn.core.math.SparseMatrix;
+import com.rts.jnn.core.network.Layer;
+import com.rts.jnn.core.network.NeuralNetwork;
+import com.rts.jnn.core.network.OffHeapLayer;
+import com.rts.jnn.core.network.SparseLayer;
+import com.rts.jnn.core.training.TrainingState;
+import com.rts.jnn.utils.Utils;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads and writes neural networks in the versioned binary model format.
+ *
+ * <p>All values are little-endian. The file starts with a header describing the
+ * topology, followed by one data block per layer:</p>
+ * <pre>
+ * Header:
+ *   int    magic            0x4D4E4E4A ("JNNM")
+ *   int    version          {@link #VERSION}
+ *   int    layerCount
+ *   int    flags            {@link #TRAINING_STATE} if a training state section follows the layers
+ *   double initialLearningRate
+ *   double learningRate
+ *   per layer:
+ *     int    neuronCount
+ *     int    inputSize
+ *     int    storage          0 = dense, 1 = sparse (CSR)
+ *     int    weightCount      neuronCount * inputSize when dense, non-zero count when sparse
+ *     long   dataOffset       start of the layer's data block, a multiple of 64
+ *     string activation       simple class name, then int count and that many double parameters
+ *     string initialization   simple class name, then int count and that many double parameters
+ *
+ * Data block of a dense layer:
+ *   double[neuronCount * inputSize] weights, row-major
+ *   double[neuronCount]             biases
+ *
+ * Data block of a sparse layer:
+ *   double[weightCount]     values
+ *   double[neuronCount]     biases
+ *   int[neuronCount + 1]    rowPointers
+ *   int[weightCount]        columnIndices
+ *
+ * Training state section, at the first 64-byte boundary after the last data block:
+ *   int    epoch
+ *   string decayFunction    simple class name, empty for a constant rate, then int count
+ *                           and that many double parameters
+ *   int    hasShuffleSeed   1 if a trainer's shuffle seed was saved, 0 if not
+ *   long   shuffleSeed      0 if none
+ * </pre>
+ *
+ * <p>Strings are an int byte count followed by UTF-8 bytes. Data blocks start on
+ * 64-byte boundaries so that a mapped file can be viewed as aligned doubles. Weights
+ * are moved with bulk {@link java.nio.DoubleBuffer} transfers through a direct buffer,
+ * so reading and writing cost little more than the file I/O itself.</p>
+ *
+ * @see ModelPersistence
+ */
+public final class BinaryModelFormat {
+
+    /**
+     * First four bytes of every binary model file, "JNNM" in little-endian order
+     */
+    public static final int MAGIC = 0x4D4E4E4A;
+
+    /**
+     * Version written by this class; readers reject newer versions
+     */
+    public static final int VERSION = 1;
+
+    public static final int DENSE = 0;
+    public static final int SPARSE = 1;
+
+    /**
+     * Header flag marking a file that also holds a {@link TrainingState}
+     */
+    public static final int TRAINING_STATE = 1;
+
+    /**
+     * Alignment of each layer's data block in bytes
+     */
+    static final int ALIGNMENT = 64;
+
+    /**
+     * Size of the direct buffer used for bulk transfers
+     */
+    private static final int CHUNK_BYTES = 1 << 20;
+
+    /**
+     * Smallest possible layer descriptor: the shape, two empty names and two empty parameter lists
+     */
+    private static final int MIN_DESCRIPTOR_BYTES = 24 + 4 * 4;
+
+    private BinaryModelFormat() {
+    }
+
+    /**
+     * Checks whether a file starts with the binary model magic number.
+     *
+     * @param path File to inspect
+     * @return true if the file is a binary model
+     * @throws IOException if the file can't be read
+     */
+    public static boolean isBinaryModel(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer magic = ByteBuffer.allocate(Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            while (magic.hasRemaining() && channel.read(magic) >= 0) {
+                // Keep reading until the magic number is complete or the file ends
+            }
+            return !magic.hasRemaining() && magic.getInt(0) == MAGIC;
+        }
+    }
+
+    /**
+     * Writes a network to a file, replacing any existing content.
+     *
+     * @param path    File to write
+     * @param network Network to save
+     * @throws IOException if the file can't be written
+     */
+    public static void write(Path path, NeuralNetwork network) throws IOException {
+        write(path, network, null);
+    }
+
+    /**
+     * Writes a network and the state of its training run to a file, replacing any existing content.
+     *
+     * <p>The file remains an ordinary model file: {@link #read(Path, NeuralNetwork)} and
+     * {@link #map(Path, NeuralNetwork)} ignore the training state, and
+     * {@link #readTrainingState(Path)} returns it.</p>
+     *
+     * @param path    File to write
+     * @param network Network to save
+     * @param state   Training state to save with it, or null for a plain model file
+     * @throws IOException if the file can't be written or the state uses a custom decay function
+     */
+    public static void write(Path path, NeuralNetwork network, TrainingState state) throws IOException {
+        List<Layer> layers = network.getLayers();
+        ByteBuffer header = encodeHeader(network, layers, state == null ? 0 : TRAINING_STATE);
+        ByteBuffer encodedState = state == null ? null : encodeTrainingState(state);
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            writeFully(channel, header);
+            ByteBuffer chunk = ByteBuffer.allocateDirect(CHUNK_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            for (Layer layer : layers) {
+                pad(channel, chunk);
+                if (layer instanceof SparseLayer) {
+                    SparseMatrix matrix = ((SparseLayer) layer).getMatrix();
+                    writeDoubles(channel, chunk, matrix.getValues(), matrix.getNonZeroCount());
+                    writeDoubles(channel, chunk, layer.getBiases(), layer.getNeuronCount());
+                    writeInts(channel, chunk, matrix.getRowPointers(), layer.getNeuronCount() + 1);
+                    writeInts(channel, chunk, matrix.getColumnIndices(), matrix.getNonZeroCount());
+                } else if (layer instanceof OffHeapLayer) {
+                    writeWeights(channel, chunk, (OffHeapLayer) layer);
+                    writeDoubles(channel, chunk, layer.getBiases(), layer.getNeuronCount());
+                } else {
+                    writeDoubles(channel, chunk, layer.getWeights(), layer.getNeuronCount() * layer.getInputSize());
+                    writeDoubles(channel, chunk, layer.getBiases(), layer.getNeuronCount());
+                }
+            }
+            if (encodedState != null) {
+                pad(channel, chunk);
+                writeFully(channel, encodedState);
+            }
+        }
+    }
+
+    /**
+     * Reads the training state saved with a network.
+     *
+     * @param path File to read
+     * @return Saved training state, or null if the file holds only a model
+     * @throws IOException if the file can't be read or is not a supported binary model
+     */
+    public static TrainingState readTrainingState(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            Header header = readHeader(channel);
+            if ((header.flags & TRAINING_STATE) == 0) {
+                return null;
+            }
+            long offset = channel.position();
+            for (LayerDescriptor descriptor : header.layers) {
+                offset = Math.max(offset, descriptor.dataOffset + descriptor.dataBytes());
+            }
+            channel.position(align(offset));
+
+            int epoch = readBuffer(channel, Integer.BYTES).getInt();
+            String decayName = readString(channel);
+            double[] decayParameters = readParameters(channel);
+            ByteBuffer shuffle = readBuffer(channel, Integer.BYTES + Long.BYTES);
+            int hasShuffleSeed = shuffle.getInt();
+            long shuffleSeed = shuffle.getLong();
+            if (epoch < 0 || (hasShuffleSeed != 0 && hasShuffleSeed != 1)) {
+                throw new IOException("Invalid training state in " + path);
+            }
+            try {
+                DecayFunction decayFunction = decayName.isEmpty()
+                        ? null : Utils.getDecayFunctionByName(decayName, decayParameters);
+                return new TrainingState(epoch, decayFunction, hasShuffleSeed == 1 ? shuffleSeed : null);
+            } catch (IllegalArgumentException e) {
+                throw new IOException("Invalid training state in " + path + ": " + e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * Reads a network from a file, replacing the layers and learning rate of the given network.
+     *
+     * @param path    File to read
+     * @param network Network receiving the layers
+     * @throws IOException if the file can't be read or is not a supported binary model
+     */
+    public static void read(Path path, NeuralNetwork network) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            Header header = readHeader(channel);
+            List<Layer> layers = new ArrayList<>(header.layers.size());
+            ByteBuffer chunk = ByteBuffer.allocateDirect(CHUNK_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+
+            for (LayerDescriptor descriptor : header.layers) {
+                channel.position(descriptor.dataOffset);
+                int neurons = descriptor.neuronCount;
+                if (descriptor.storage == SPARSE) {
+                    layers.add(readSparseLayer(channel, chunk, descriptor, path));
+                } else {
+                    double[] weights = readDoubles(channel, chunk, descriptor.weightCount);
+                    double[] biases = readDoubles(channel, chunk, neurons);
+                    layers.add(Layer.fromWeights(neurons, descriptor.inputSize, weights, biases,
+                            descriptor.activation, descriptor.initialization));
+                }
+            }
+
+            network.setLayers(layers);
+            network.setInitialLearningRate(header.initialLearningRate);
+            network.setLearningRate(header.learningRate);
+        }
+    }
+
+    /**
+     * Maps a file into memory and builds layers that read their weights from the mapping.
+     *
+     * <p>Dense weight blocks are mapped read-only and wrapped in {@link OffHeapLayer}s, so
+     * nothing is parsed or copied and loading time doesn't depend on the model size.
+     * Pages are read on first use and live in the operating system's page cache, shared
+     * by every process that maps the same file. Biases and sparse layers, which are small,
+     * are copied onto the heap.</p>
+     *
+     * <p>The mapped layers can predict but not be trained. The file must not be modified
+     * while mapped; {@link NeuralNetwork#releaseOffHeap()} unmaps it.</p>
+     *
+     * @param path    File to map
+     * @param network Network receiving the layers
+     * @throws IOException if the file can't be read or is not a supported binary model
+     */
+    public static void map(Path path, NeuralNetwork network) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            Header header = readHeader(channel);
+            List<Layer> layers = new ArrayList<>(header.layers.size());
+            ByteBuffer chunk = ByteBuffer.allocateDirect(CHUNK_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+
+            for (LayerDescriptor descriptor : header.layers) {
+                if (descriptor.storage == SPARSE) {
+                    layers.add(readSparseLayer(channel, chunk, descriptor, path));
+                    continue;
+                }
+                long weightBytes = (long) descriptor.weightCount * Double.BYTES;
+                if (weightBytes > Integer.MAX_VALUE) {
+                    throw new IOException("Layer of " + weightBytes + " bytes exceeds the 2 GB mapping limit");
+                }
+                ByteBuffer weights = channel.map(FileChannel.MapMode.READ_ONLY, descriptor.dataOffset, weightBytes)
+                        .order(ByteOrder.LITTLE_ENDIAN);
+                channel.position(descriptor.dataOffset + weightBytes);
+                double[] biases = readDoubles(channel, chunk, descriptor.neuronCount);
+                layers.add(OffHeapLayer.wrap(descriptor.neuronCount, descriptor.inputSize, weights, biases,
+                        descriptor.activation, descriptor.initialization));
+            }
+
+            network.setLayers(layers);
+            network.setInitialLearningRate(header.initialLearningRate);
+            network.setLearningRate(header.learningRate);
+        }
+    }
+
+    /**
+     * Reads and validates the header of a binary model.
+     *
+     * @param channel Channel positioned at the start of the file; left positioned after the header
+     * @return Decoded header
+     * @throws IOException if the file is not a supported binary model
+     */
+    static Header readHeader(FileChannel channel) throws IOException {
+        ByteBuffer fixed = readBuffer(channel, 32);
+        if (fixed.getInt() != MAGIC) {
+            throw new IOException("Not a binary model file");
+        }
+        int version = fixed.getInt();
+        if (version < 1 || version > VERSION) {
+            throw new IOException("Unsupported model format version: " + version);
+        }
+        int layerCount = fixed.getInt();
+        int flags = fixed.getInt();
+        long fileSize = channel.size();
+        if (layerCount < 0 || layerCount > (fileSize - 32) / MIN_DESCRIPTOR_BYTES) {
+            throw new IOException("Invalid layer count: " + layerCount);
+        }
+        Header header = new Header(version, flags, fixed.getDouble(), fixed.getDouble(), new ArrayList<>(layerCount));
+
+        for (int i = 0; i < layerCount; i++) {
+            ByteBuffer shape = readBuffer(channel, 24);
+            LayerDescriptor descriptor = new LayerDescriptor();
+            descriptor.neuronCount = shape.getInt();
+            descriptor.inputSize = shape.getInt();
+            descriptor.storage = shape.getInt();
+            descriptor.weightCount = shape.getInt();
+            descriptor.dataOffset = shape.getLong();
+
+            String activationName = readString(channel);
+            double[] activationParameters = readParameters(channel);
+            String initializationName = readString(channel);
+            double[] initializationParameters = readParameters(channel);
+            try {
+                descriptor.activation = Utils.getActivationFunctionByName(activationName, activationParameters);
+                descriptor.initialization = Utils.getInitializationFunctionByName(initializationName,
+                        initializationParameters);
+            } catch (IllegalArgumentException e) {
+                throw new IOException(e.getMessage(), e);
+            }
+
+            long dense = (long) descriptor.neuronCount * descriptor.inputSize;
+            boolean validCount = descriptor.storage == DENSE
+                    ? descriptor.weightCount == dense
+                    : descriptor.storage == SPARSE && descriptor.weightCount >= 0 && descriptor.weightCount <= dense;
+            if (descriptor.neuronCount < 1 || descriptor.inputSize < 1 || !validCount
+                    || descriptor.dataOffset % ALIGNMENT != 0
+                    || descriptor.dataOffset + descriptor.dataBytes() > fileSize) {
+                throw new IOException("Invalid descriptor for layer " + i);
+            }
+            if (i > 0 && descriptor.inputSize != header.layers.get(i - 1).neuronCount) {
+                throw new IOException("Layer " + i + " doesn't match the size of layer " + (i - 1));
+            }
+            header.layers.add(descriptor);
+        }
+        return header;
+    }
+
+    private static SparseLayer readSparseLayer(FileChannel channel, ByteBuffer chunk, LayerDescriptor descriptor,
+                                               Path path) throws IOException {
+        channel.position(descriptor.dataOffset);
+        int neurons = descriptor.neuronCount;
+        double[] values = readDoubles(channel, chunk, descriptor.weightCount);
+        double[] biases = readDoubles(channel, chunk, neurons);
+        int[] rowPointers = readInts(channel, chunk, neurons + 1);
+        int[] columnIndices = readInts(channel, chunk, descriptor.weightCount);
+        try {
+            SparseMatrix matrix = new SparseMatrix(neurons, descriptor.inputSize, rowPointers, columnIndices, values);
+            return new SparseLayer(matrix, biases, descriptor.activation, descriptor.initialization);
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Corrupt sparse layer in " + path + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Encodes the header, computing the aligned offset of every layer's data block.
+     */
+    private static ByteBuffer encodeHeader(NeuralNetwork network, List<Layer> layers, int flags) {
+        List<byte[]> names = new ArrayList<>();
+        List<double[]> parameters = new ArrayList<>();
+        int size = 32;
+        for (Layer layer : layers) {
+            byte[] activation = layer.getActivationFunction().getClass().getSimpleName().getBytes(StandardCharsets.UTF_8);
+            byte[] initialization = layer.getInitializationFunction().getClass().getSimpleName()
+                    .getBytes(StandardCharsets.UTF_8);
+            double[] activationParameters = Utils.getActivationFunctionParameters(layer.getActivationFunction());
+            double[] initializationParameters = Utils.getInitializationFunctionParameters(
+                    layer.getInitializationFunction());
+            names.add(activation);
+            names.add(initialization);
+            parameters.add(activationParameters);
+            parameters.add(initializationParameters);
+            size += 24 + 4 + activation.length + 4 + 8 * activationParameters.length
+                    + 4 + initialization.length + 4 + 8 * initializationParameters.length;
+        }
+
+        ByteBuffer header = ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(MAGIC).putInt(VERSION).putInt(layers.size()).putInt(flags);
+        header.putDouble(network.getInitialLearningRate()).putDouble(network.getLearningRate());
+
+        long offset = align(size);
+        for (int i = 0; i < layers.size(); i++) {
+            Layer layer = layers.get(i);
+            boolean sparse = layer instanceof SparseLayer;
+            LayerDescriptor descriptor = new LayerDescriptor();
+            descriptor.neuronCount = layer.getNeuronCount();
+            descriptor.inputSize = layer.getInputSize();
+            descriptor.storage = sparse ? SPARSE : DENSE;
+            descriptor.weightCount = sparse ? layer.getWeightCount() : layer.getNeuronCount() * layer.getInputSize();
+            descriptor.dataOffset = offset;
+
+            header.putInt(descriptor.neuronCount).putInt(descriptor.inputSize)
+                    .putInt(descriptor.storage).putInt(descriptor.weightCount).putLong(offset);
+            for (int k = 2 * i; k < 2 * i + 2; k++) {
+                header.putInt(names.get(k).length).put(names.get(k));
+                header.putInt(parameters.get(k).length);
+                for (double value : parameters.get(k)) {
+                    header.putDouble(value);
+                }
+            }
+            offset = align(offset + descriptor.dataBytes());
+        }
+        return header.flip();
+    }
+
+    /**
+     * Encodes the training state section.
+     */
+    private static ByteBuffer encodeTrainingState(TrainingState state) throws IOException {
+        DecayFunction decayFunction = state.getDecayFunction();
+        byte[] decayName = new byte[0];
+        double[] decayParameters = new double[0];
+        if (decayFunction != null) {
+            try {
+                decayParameters = Utils.getDecayFunctionParameters(decayFunction);
+            } catch (IllegalArgumentException e) {
+                throw new IOException(e.getMessage(), e);
+            }
+            decayName = decayFunction.getClass().getSimpleName().getBytes(StandardCharsets.UTF_8);
+        }
+        Long shuffleSeed = state.getShuffleSeed();
+
+        ByteBuffer buffer = ByteBuffer.allocate(4 + 4 + decayName.length + 4 + 8 * decayParameters.length
+                + 4 + 8).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(state.getEpoch());
+        buffer.putInt(decayName.length).put(decayName);
+        buffer.putInt(decayParameters.length);
+        for (double value : decayParameters) {
+            buffer.putDouble(value);
+        }
+        buffer.putInt(shuffleSeed == null ? 0 : 1).putLong(shuffleSeed == null ? 0L : shuffleSeed);
+        return buffer.flip();
+    }
+
+    static long align(long offset) {
+        return (offset + ALIGNMENT - 1) / ALIGNMENT * ALIGNMENT;
+    }
+
+    /**
+     * Writes zeros up to the next aligned position.
+     */
+    private static void pad(FileChannel channel, ByteBuffer chunk) throws IOException {
+        long position = channel.position();
+        int padding = (int) (align(position) - position);
+        if (padding > 0) {
+            chunk.clear();
+            for (int i = 0; i < padding; i++) {
+                chunk.put((byte) 0);
+            }
+            writeFully(channel, chunk.flip());
+        }
+    }
+
+    private static void writeDoubles(FileChannel channel, ByteBuffer chunk, double[] values, int count)
+            throws IOException {
+        for (int from = 0; from < count; ) {
+            int length = Math.min(count - from, CHUNK_BYTES / Double.BYTES);
+            chunk.clear();
+            chunk.asDoubleBuffer().put(values, from, length);
+            chunk.limit(length * Double.BYTES);
+            writeFully(channel, chunk);
+            from += length;
+        }
+    }
+
+    /**
+     * Streams the weights of an off-heap layer through the chunk, never holding them on the heap.
+     */
+    private static void writeWeights(FileChannel channel, ByteBuffer chunk, OffHeapLayer layer) throws IOException {
+        int count = layer.getWeightCount();
+        for (int from = 0; from < count; ) {
+            int length = Math.min(count - from, CHUNK_BYTES / Double.BYTES);
+            chunk.clear();
+            layer.copyWeightsInto(from, chunk.asDoubleBuffer(), length);
+            chunk.limit(length * Double.BYTES);
+            writeFully(channel, chunk);
+            from += length;
+        }
+    }
+
+    private static void writeInts(FileChannel channel, ByteBuffer chunk, int[] values, int count) throws IOException {
+        for (int from = 0; from < count; ) {
+            int length = Math.min(count - from, CHUNK_BYTES / Integer.BYTES);
+            chunk.clear();
+            chunk.asIntBuffer().put(values, from, length);
+            chunk.limit(length * Integer.BYTES);
+            writeFully(channel, chunk);
+            from += length;
+        }
+    }
+
+    private static double[] readDoubles(FileChannel channel, ByteBuffer chunk, int count) throws IOException {
+        double[] values = new double[count];
+        readDoubles(channel, chunk, values, count);
+        return values;
+    }
+
+    private static void readDoubles(FileChannel channel, ByteBuffer chunk, double[] values, int count)
+            throws IOException {
+        for (int from = 0; from < count; ) {
+            int length = Math.min(count - from, CHUNK_BYTES / Double.BYTES);
+            chunk.clear().limit(length * Double.BYTES);
+            readFully(channel, chunk);
+            chunk.flip();
+            chunk.asDoubleBuffer().get(values, from, length);
+            from += length;
+        }
+    }
+
+    private static int[] readInts(FileChannel channel, ByteBuffer chunk, int count) throws IOException {
+        int[] values = new int[count];
+        for (int from = 0; from < count; ) {
+            int length = Math.min(count - from, CHUNK_BYTES / Integer.BYTES);
+            chunk.clear().limit(length * Integer.BYTES);
+            readFully(channel, chunk);
+            chunk.flip();
+            chunk.asIntBuffer().get(values, from, length);
+            from += length;
+        }
+        return values;
+    }
+
+    private static String readString(FileChannel channel) throws IOException {
+        int length = readBuffer(channel, Integer.BYTES).getInt();
+        if (length < 0 || length > 1024) {
+            throw new IOException("Invalid name length: " + length);
+        }
+        ByteBuffer bytes = readBuffer(channel, length);
+        return StandardCharsets.UTF_8.decode(bytes).toString();
+    }
+
+    private static double[] readParameters(FileChannel channel) throws IOException {
+        int count = readBuffer(channel, Integer.BYTES).getInt();
+        if (count < 0 || count > 64) {
+            throw new IOException("Invalid parameter count: " + count);
+        }
+        ByteBuffer buffer = readBuffer(channel, count * Double.BYTES);
+        double[] values = new double[count];
+        buffer.asDoubleBuffer().get(values);
+        return values;
+    }
+
+    private static ByteBuffer readBuffer(FileChannel channel, int size) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+        readFully(channel, buffer);
+        return buffer.flip();
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                throw new EOFException("Unexpected end of model file");
+            }
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    /**
+     * Decoded file header.
+     */
+    static final class Header {
+        final int version;
+        final int flags;
+        final double initialLearningRate;
+        final double learningRate;
+        final List<LayerDescriptor> layers;
+
+        Header(int version, int flags, double initialLearningRate, double learningRate,
+               List<LayerDescriptor> layers) {
+            this.version = version;
+            this.flags = flags;
+            this.initialLearningRate = initialLearningRate;
+            this.learningRate = learningRate;
+            this.layers = layers;
+        }
+    }
+
+    /**
+     * Shape, storage and functions of one layer, and where its data starts.
+     */
+    static final class LayerDescriptor {
+        int neuronCount;
+        int inputSize;
+        int storage;
+        int weightCount;
+        long dataOffset;
+        ActivationFunction activation;
+        InitializationFunction initialization;
+
+        /**
+         * Returns the size of the layer's data block in bytes.
+         */
+        long dataBytes() {
+            long doubles = (long) weightCount + neuronCount;
+            long ints = storage == SPARSE ? (long) neuronCount + 1 + weightCount : 0;
+            return doubles * Double.BYTES + ints * Integer.BYTES;
+        }
+    }
+}
@@ -0,0 +1,380 @@
+package com.rts.jnn.persistence;
+
+import com.rts.jnn.core.network.Layer;
+import com.rts.jnn.core.network.NeuralNetwork;
+import com.rts.jnn.core.network.OffHeapLayer;
+import com.rts.jnn.core.network.SparseLayer;
+import com.rts.jnn.core.training.TrainingState;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Saves checkpoints of a network on a background thread while it keeps training.
+ *
+ * <p>{@link #checkpoint(NeuralNetwork, long)} copies the weights and biases into a
+ * snapshot and returns; the snapshot is written in the {@link BinaryModelFormat binary
+ * format} by a single daemon thread. The training thread only pays for the copy, which
+ * reuses the snapshot's arrays once their shapes are known.</p>
+ *
+ * <h2>Double Buffering:</h2>
+ * <p>The service owns two snapshots, so one can be filled while the other is being
+ * written. If both are busy, because checkpoints are requested faster than the disk
+ * can take them, the request is skipped instead of waiting and
+ * {@link #checkpoint(NeuralNetwork, long)} returns {@code false}.</p>
+ *
+ * <h2>Files:</h2>
+ * <p>Checkpoint {@code step} is saved as {@code <prefix>-<step>.bin} in the checkpoint
+ * directory. Each file is written under a temporary name, flushed to disk and then
+ * renamed, so a crash never leaves a partial checkpoint behind. After every write only
+ * the newest {@code retained} checkpoints are kept. Checkpoints are ordinary model files
+ * and load with {@link ModelPersistence#loadModel(String, NeuralNetwork)}.</p>
+ *
+ * <h2>Resuming:</h2>
+ * <p>Checkpoints taken with {@link #checkpoint(NeuralNetwork, TrainingState)} also hold
+ * the epoch, learning rate schedule and shuffle seed of the run.
+ * {@link #resume(NeuralNetwork)} loads the newest checkpoint and returns that state, so a
+ * restarted job continues where the previous one stopped.</p>
+ *
+ * <h2>Usage Example:</h2>
+ * <pre>{@code
+ * try (CheckpointService checkpoints = new CheckpointService(Path.of("checkpoints"), "morse", 3)) {
+ *     TrainingState state = checkpoints.resume(network);
+ *     for (int epoch = state == null ? 0 : state.getEpoch(); epoch < epochs; epoch++) {
+ *         // ... train one epoch ...
+ *         if (epoch % 1000 == 0) {
+ *             checkpoints.checkpoint(network, new TrainingState(epoch + 1, decay));
+ *         }
+ *     }
+ * }
+ * }</pre>
+ */
+public class CheckpointService implements AutoCloseable {
+
+    /**
+     * Number of snapshots that can be in flight at once
+     */
+    private static final int SNAPSHOTS = 2;
+
+    private final Path directory;
+    private final String prefix;
+    private final int retained;
+    private final Pattern fileNamePattern;
+
+    /**
+     * Snapshots not currently queued or being written
+     */
+    private final BlockingQueue<Snapshot> free = new ArrayBlockingQueue<>(SNAPSHOTS);
+
+    private final ExecutorService writer;
+
+    private final AtomicInteger writtenCount = new AtomicInteger();
+    private final AtomicInteger skippedCount = new AtomicInteger();
+    private final AtomicInteger failedCount = new AtomicInteger();
+
+    private volatile boolean closed;
+
+    /**
+     * Creates a checkpoint service and starts its writer thread.
+     *
+     * @param directory Directory receiving the checkpoints, created on the first write
+     * @param prefix    File name prefix identifying the training run
+     * @param retained  Number of most recent checkpoints to keep
+     * @throws IllegalArgumentException if prefix is empty or retained is less than 1
+     */
+    public CheckpointService(Path directory, String prefix, int retained) {
+        if (prefix == null || prefix.isEmpty()) {
+            throw new IllegalArgumentException("Checkpoint prefix cannot be empty");
+        }
+        if (retained < 1) {
+            throw new IllegalArgumentException("Must retain at least one checkpoint, got: " + retained);
+        }
+        this.directory = directory;
+        this.prefix = prefix;
+        this.retained = retained;
+        this.fileNamePattern = Pattern.compile(Pattern.quote(prefix) + "-(\\d+)\\.bin");
+        for (int i = 0; i < SNAPSHOTS; i++) {
+            free.add(new Snapshot());
+        }
+        this.writer = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "checkpoint-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Snapshots the network and queues it for writing without waiting for the disk.
+     *
+     * @param network Network to save; may keep training as soon as this method returns
+     * @param step    Training progress, such as the epoch, used in the file name
+     * @return {@code true} if the checkpoint was queued, {@code false} if it was skipped
+     * because two earlier checkpoints are still being written
+     * @throws IllegalStateException if the service has been closed
+     */
+    public boolean checkpoint(NeuralNetwork network, long step) {
+        return enqueue(network, step, null);
+    }
+
+    /**
+     * Snapshots the network with the state of its training run, named after the state's epoch.
+     *
+     * @param network Network to save; may keep training as soon as this method returns
+     * @param state   Epoch, learning rate schedule and shuffle seed of the run
+     * @return {@code true} if the checkpoint was queued, {@code false} if it was skipped
+     * because two earlier checkpoints are still being written
+     * @throws IllegalStateException if the service has been closed
+     */
+    public boolean checkpoint(NeuralNetwork network, TrainingState state) {
+        return enqueue(network, state.getEpoch(), state);
+    }
+
+    /**
+     * Loads the newest checkpoint into a network and returns the training state saved with it.
+     *
+     * @param network Network receiving the layers and learning rate
+     * @return Saved training state; a state at the checkpoint's step without a schedule if
+     * the checkpoint holds none; null if there is no checkpoint
+     * @throws IOException if the checkpoint can't be read
+     */
+    public TrainingState resume(NeuralNetwork network) throws IOException {
+        Path latest = latestCheckpoint();
+        if (latest == null) {
+            return null;
+        }
+        TrainingState state = BinaryModelFormat.readTrainingState(latest);
+        BinaryModelFormat.read(latest, network);
+        return state != null ? state : new TrainingState((int) Math.min(Integer.MAX_VALUE, stepOf(latest)), null);
+    }
+
+    /**
+     * Waits until every queued checkpoint has been written.
+     */
+    public void flush() {
+        try {
+            writer.submit(() -> { }).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            // The empty task can't fail
+        }
+    }
+
+    /**
+     * Writes the queued checkpoints, stops the writer thread and releases the off-heap
+     * memory of the snapshots; further calls have no effect.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        flush();
+        writer.shutdown();
+        for (Snapshot snapshot : free) {
+            if (snapshot.network != null) {
+                snapshot.network.releaseOffHeap();
+            }
+        }
+    }
+
+    /**
+     * Lists the checkpoints of this run in the checkpoint directory.
+     *
+     * @return Checkpoint files, oldest step first; empty if the directory doesn't exist
+     * @throws IOException if the directory can't be read
+     */
+    public List<Path> listCheckpoints() throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return new ArrayList<>();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> fileNamePattern.matcher(file.getFileName().toString()).matches())
+                    .sorted(Comparator.comparingLong(this::stepOf))
+                    .collect(Collectors.toCollection(ArrayList::new));
+        }
+    }
+
+    /**
+     * Returns the checkpoint with the highest step.
+     *
+     * @return Newest checkpoint file, or null if there is none
+     * @throws IOException if the directory can't be read
+     */
+    public Path latestCheckpoint() throws IOException {
+        List<Path> checkpoints = listCheckpoints();
+        return checkpoints.isEmpty() ? null : checkpoints.get(checkpoints.size() - 1);
+    }
+
+    /**
+     * Returns the step a checkpoint file was saved at.
+     *
+     * @param checkpoint Checkpoint file of this run
+     * @return Step passed to {@link #checkpoint(NeuralNetwork, long)}
+     * @throws IllegalArgumentException if the file name doesn't belong to this run
+     */
+    public long stepOf(Path checkpoint) {
+        Matcher matcher = fileNamePattern.matcher(checkpoint.getFileName().toString());
+        if (!matcher.matches()) {
+            throw new IllegalArgumentException("Not a checkpoint of " + prefix + ": " + checkpoint);
+        }
+        return Long.parseLong(matcher.group(1));
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    public int getWrittenCount() {
+        return writtenCount.get();
+    }
+
+    public int getSkippedCount() {
+        return skippedCount.get();
+    }
+
+    public int getFailedCount() {
+        return failedCount.get();
+    }
+
+    /**
+     * Copies the network into a free snapshot and queues it, or skips it if none is free.
+     */
+    private boolean enqueue(NeuralNetwork network, long step, TrainingState state) {
+        if (closed) {
+            throw new IllegalStateException("Checkpoint service has been closed");
+        }
+        Snapshot snapshot = free.poll();
+        if (snapshot == null) {
+            skippedCount.incrementAndGet();
+            return false;
+        }
+        snapshot.copyFrom(network, step, state);
+        writer.execute(() -> write(snapshot));
+        return true;
+    }
+
+    /**
+     * Writes a snapshot under a temporary name, renames it and prunes old checkpoints.
+     * Runs on the writer thread.
+     */
+    private void write(Snapshot snapshot) {
+        Path target = directory.resolve(prefix + "-" + snapshot.step + ".bin");
+        Path temp = directory.resolve(target.getFileName() + ".tmp");
+        try {
+            Files.createDirectories(directory);
+            BinaryModelFormat.write(temp, snapshot.network, snapshot.state);
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                channel.force(true);
+            }
+            try {
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+            writtenCount.incrementAndGet();
+
+            List<Path> checkpoints = listCheckpoints();
+            for (int i = 0; i < checkpoints.size() - retained; i++) {
+                Files.deleteIfExists(checkpoints.get(i));
+            }
+        } catch (IOException e) {
+            failedCount.incrementAndGet();
+            e.printStackTrace();
+            try {
+                Files.deleteIfExists(temp);
+            } catch (IOException ignored) {
+                // Nothing left to clean up
+            }
+        } finally {
+            free.add(snapshot);
+        }
+    }
+
+    /**
+     * Copy of a network's parameters whose arrays are reused between checkpoints.
+     *
+     * <p>Off-heap layers are copied into off-heap snapshot layers, buffer to buffer, so
+     * checkpointing a large off-heap model doesn't need heap room for it.</p>
+     */
+    private static final class Snapshot {
+
+        private NeuralNetwork network;
+        private long step;
+        private TrainingState state;
+
+        /**
+         * Copies the layers and learning rates of a network, reusing the arrays or buffers
+         * of the previous copy for dense and off-heap layers of the same shape.
+         */
+        void copyFrom(NeuralNetwork source, long step, TrainingState state) {
+            this.step = step;
+            this.state = state;
+            if (network == null || network.getInitialLearningRate() != source.getInitialLearningRate()) {
+                network = new NeuralNetwork(source.getInitialLearningRate());
+            }
+            List<Layer> previous = network.getLayers();
+            List<Layer> layers = new ArrayList<>(source.getLayers().size());
+            for (int i = 0; i < source.getLayers().size(); i++) {
+                layers.add(copyLayer(source.getLayers().get(i), i < previous.size() ? previous.get(i) : null));
+            }
+            network.setLayers(layers);
+            network.setLearningRate(source.getLearningRate());
+        }
+
+        private static Layer copyLayer(Layer layer, Layer previous) {
+            if (layer instanceof SparseLayer) {
+                return layer.copy();
+            }
+            if (layer instanceof OffHeapLayer) {
+                return copyOffHeapLayer((OffHeapLayer) layer, previous);
+            }
+            int neuronCount = layer.getNeuronCount();
+            int inputSize = layer.getInputSize();
+            // Snapshot layers are the plain dense layers built below, whose arrays can be refilled
+            boolean reuse = previous != null && previous.getClass() == Layer.class
+                    && previous.getNeuronCount() == neuronCount && previous.getInputSize() == inputSize;
+            double[] weights = reuse ? previous.getWeights() : new double[neuronCount * inputSize];
+            double[] biases = reuse ? previous.getBiases() : new double[neuronCount];
+            layer.copyWeightsInto(weights);
+            System.arraycopy(layer.getBiases(), 0, biases, 0, neuronCount);
+            return Layer.fromWeights(neuronCount, inputSize, weights, biases,
+                    layer.getActivationFunction(), layer.getInitializationFunction());
+        }
+
+        private static Layer copyOffHeapLayer(OffHeapLayer layer, Layer previous) {
+            // Read-only layers are shared by copy(); writable ones get their own buffer, refilled in place
+            if (layer.isReadOnly() || !(previous instanceof OffHeapLayer)
+                    || ((OffHeapLayer) previous).isClosed() || ((OffHeapLayer) previous).isReadOnly()
+                    || previous.getNeuronCount() != layer.getNeuronCount()
+                    || previous.getInputSize() != layer.getInputSize()) {
+                return layer.copy();
+            }
+            OffHeapLayer snapshot = (OffHeapLayer) previous;
+            snapshot.copyWeightsFrom(layer);
+            System.arraycopy(layer.getBiases(), 0, snapshot.getBiases(), 0, layer.getNeuronCount());
+            snapshot.setActivationFunction(layer.getActivationFunction());
+            snapshot.setInitializationFunction(layer.getInitializationFunction());
+            return snapshot;
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.rts.jnn.persistence;
+
+/**
+ * File formats supported by {@link ModelPersistence}.
+ */
+public enum ModelFormat {
+
+    /**
+     * Human-readable text with one line of decimal weights per neuron; slow and large,
+     * kept for inspection and for models saved by earlier versions
+     */
+    TEXT,
+
+    /**
+     * Versioned little-endian binary format, see {@link BinaryModelFormat}
+     */
+    BINARY
+}
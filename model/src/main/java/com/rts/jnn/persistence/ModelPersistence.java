@@ -4,10 +4,11 @@ import com.rts.jnn.core.activation.ActivationFunction;
 import com.rts.jnn.core.initialization.InitializationFunction;
 import com.rts.jnn.core.network.Layer;
 import com.rts.jnn.core.network.NeuralNetwork;
-import com.rts.jnn.core.network.Neuron;
+import com.rts.jnn.core.training.TrainingState;
 import com.rts.jnn.utils.Utils;
 
 import java.io.*;
+import java.nio.file.Path;
 
 /**
  * Provides model persistence functionality for neural networks.
@@ -20,6 +21,13 @@ import java.io.*;
  *   <li>Shared between different applications</li>
  * </ul>
  *
+ * <h2>File Formats:</h2>
+ * <p>Models are saved in the {@link BinaryModelFormat binary format} by default: a
+ * versioned header followed by each layer's weights and biases as little-endian
+ * doubles, written and read in bulk. The older text format can still be written with
+ * {@link #saveModel(String, NeuralNetwork, ModelFormat)}; {@link #loadModel(String, NeuralNetwork)}
+ * detects the format of a file by its first bytes and reads both.</p>
+ *
  * <h2>Usage Example:</h2>
  * <pre>{@code
  * // Save model
@@ -28,6 +36,13 @@ import java.io.*;
  *
  * // Load model
  * ModelPersistence.loadModel(fileName, network);
+ *
+ * // Or map it for inference without copying the weights
+ * ModelPersistence.mapModel(fileName, network);
+ *
+ * // Save and resume an unfinished training run
+ * ModelPersistence.saveTrainingState(fileName, network, new TrainingState(epoch + 1, decay));
+ * TrainingState state = ModelPersistence.resumeTraining(fileName, network);
  * }</pre>
  */
 public class ModelPersistence {
@@ -35,8 +50,8 @@ public class ModelPersistence {
     /**
      * Generates a unique filename for the model based on its architecture.
      *
-     * <p>The filename format is: model_[layer-sizes]_[learning-rate].txt</p>
-     * <p>Example: model_5-20-36_0.5.txt</p>
+     * <p>The filename format is: model_[layer-sizes]_[learning-rate].bin</p>
+     * <p>Example: model_5-20-36_0.5.bin</p>
      *
      * @param neuralNetwork Network to generate filename for
      * @return Generated filename
@@ -46,17 +61,27 @@ public class ModelPersistence {
         StringBuilder sb = new StringBuilder();
         sb.append("model_");
         for (Layer layer : neuralNetwork.getLayers()) {
-            sb.append(layer.getNeurons().length).append("-");
+            sb.append(layer.getNeuronCount()).append("-");
         }
         sb.deleteCharAt(sb.length() - 1); // Remove trailing '-'
         sb.append("_");
         sb.append(neuralNetwork.getInitialLearningRate());
-        sb.append(".txt");
+        sb.append(".bin");
         return sb.toString();
     }
 
     /**
-     * Saves the neural network model to a file.
+     * Saves the neural network model to a file in the binary format.
+     *
+     * @param fileName      Name of file to save to
+     * @param neuralNetwork Network to save
+     */
+    public static void saveModel(String fileName, NeuralNetwork neuralNetwork) {
+        saveModel(fileName, neuralNetwork, ModelFormat.BINARY);
+    }
+
+    /**
+     * Saves the neural network model to a file in the given format.
      *
      * <p>The file format includes:</p>
      * <ul>
@@ -67,8 +92,61 @@ public class ModelPersistence {
      *
      * @param fileName      Name of file to save to
      * @param neuralNetwork Network to save
+     * @param format        File format to write
      */
-    public static void saveModel(String fileName, NeuralNetwork neuralNetwork) {
+    public static void saveModel(String fileName, NeuralNetwork neuralNetwork, ModelFormat format) {
+        if (format == ModelFormat.BINARY) {
+            try {
+                BinaryModelFormat.write(Path.of(fileName), neuralNetwork);
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        } else {
+            saveTextModel(fileName, neuralNetwork);
+        }
+        System.out.println("Current working directory: " + System.getProperty("user.dir"));
+        System.out.println("Model saved to " + fileName);
+    }
+
+    /**
+     * Saves the network together with the state of its training run, so the run can be resumed.
+     *
+     * @param fileName      Name of file to save to
+     * @param neuralNetwork Network to save
+     * @param state         Epoch, learning rate schedule and shuffle seed of the run
+     * @see #resumeTraining(String, NeuralNetwork)
+     */
+    public static void saveTrainingState(String fileName, NeuralNetwork neuralNetwork, TrainingState state) {
+        try {
+            BinaryModelFormat.write(Path.of(fileName), neuralNetwork, state);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        System.out.println("Training state saved to " + fileName);
+    }
+
+    /**
+     * Loads a network saved with {@link #saveTrainingState(String, NeuralNetwork, TrainingState)}
+     * and returns the state to continue its training from.
+     *
+     * @param fileName      Name of a binary model file
+     * @param neuralNetwork Network receiving the layers and learning rate
+     * @return Saved training state, or null if the file holds none or can't be read
+     */
+    public static TrainingState resumeTraining(String fileName, NeuralNetwork neuralNetwork) {
+        try {
+            TrainingState state = BinaryModelFormat.readTrainingState(Path.of(fileName));
+            BinaryModelFormat.read(Path.of(fileName), neuralNetwork);
+            System.out.println("Training resumed from " + fileName
+                    + (state == null ? "" : " at epoch " + state.getEpoch()));
+            return state;
+        } catch (IOException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    private static void saveTextModel(String fileName, NeuralNetwork neuralNetwork) {
         try (BufferedWriter writer = new BufferedWriter(new FileWriter(fileName))) {
             // Write learning rate
             writer.write("LearningRate: " + neuralNetwork.getInitialLearningRate());
@@ -78,7 +156,7 @@ public class ModelPersistence {
             // Write details of each layer
             for (int i = 0; i < neuralNetwork.getLayers().size(); i++) {
                 Layer layer = neuralNetwork.getLayers().get(i);
-                writer.write("InitLayer " + i + " - Size: " + layer.getNeurons().length +
+                writer.write("InitLayer " + i + " - Size: " + layer.getNeuronCount() +
                         ", Activation: " + layer.getActivationFunction().getClass().getSimpleName() +
                         ", Init: " + layer.getInitializationFunction().getClass().getSimpleName());
                 writer.newLine();
@@ -89,16 +167,17 @@ public class ModelPersistence {
                 Layer layer = neuralNetwork.getLayers().get(i);
                 writer.write("Layer " + i);
                 writer.newLine();
-                for (int j = 0; j < layer.getNeurons().length; j++) {
-                    Neuron neuron = layer.getNeurons()[j];
+                double[] weights = layer.getWeights();
+                int inputSize = layer.getInputSize();
+                for (int j = 0; j < layer.getNeuronCount(); j++) {
                     writer.write("Neuron " + j);
                     writer.newLine();
                     writer.write("Weights:");
-                    for (double weight : neuron.getWeights()) {
-                        writer.write(weight + ",");
+                    for (int k = j * inputSize; k < (j + 1) * inputSize; k++) {
+                        writer.write(weights[k] + ",");
                     }
                     writer.newLine();
-                    writer.write("Bias:" + neuron.getBias());
+                    writer.write("Bias:" + layer.getBias(j));
                     writer.newLine();
                 }
                 writer.newLine();
@@ -106,11 +185,50 @@ public class ModelPersistence {
         } catch (IOException e) {
             e.printStackTrace();
         }
-        System.out.println("Current working directory: " + System.getProperty("user.dir"));
-        System.out.println("Model saved to " + fileName);
     }
 
+    /**
+     * Loads a model saved in either format into the given network, replacing its layers.
+     *
+     * @param fileName      Name of file to load from
+     * @param neuralNetwork Network receiving the layers and learning rate
+     */
     public static void loadModel(String fileName, NeuralNetwork neuralNetwork) {
+        try {
+            if (BinaryModelFormat.isBinaryModel(Path.of(fileName))) {
+                BinaryModelFormat.read(Path.of(fileName), neuralNetwork);
+            } else {
+                loadTextModel(fileName, neuralNetwork);
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+
+        System.out.println("Model loaded from " + fileName);
+    }
+
+    /**
+     * Memory-maps a binary model file into the given network for inference, without copying the weights.
+     *
+     * <p>Startup takes the same time for any model size, and processes mapping the same
+     * file share one copy of the weights in the page cache. The mapped network can
+     * predict but not be trained; call {@link NeuralNetwork#releaseOffHeap()} to unmap
+     * it. See {@link BinaryModelFormat#map(Path, NeuralNetwork)}.</p>
+     *
+     * @param fileName      Name of a binary model file
+     * @param neuralNetwork Network receiving the layers and learning rate
+     */
+    public static void mapModel(String fileName, NeuralNetwork neuralNetwork) {
+        try {
+            BinaryModelFormat.map(Path.of(fileName), neuralNetwork);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+
+        System.out.println("Model mapped from " + fileName);
+    }
+
+    private static void loadTextModel(String fileName, NeuralNetwork neuralNetwork) throws IOException {
         try (BufferedReader reader = new BufferedReader(new FileReader(fileName))) {
             neuralNetwork.getLayers().clear(); // Clear any existing layers
             String line;
@@ -142,10 +260,11 @@ public class ModelPersistence {
 
                 // Determine input size based on previous layer (or default to size for first layer)
                 int inputSize = neuralNetwork.getLayers().isEmpty() ? layerSize :
-                        neuralNetwork.getLayers().get(neuralNetwork.getLayers().size() - 1).getNeurons().length;
+                        neuralNetwork.getLayers().get(neuralNetwork.getLayers().size() - 1).getNeuronCount();
 
-                // Create and add layer to the network
-                Layer layer = new Layer(layerSize, inputSize, activationFunction, initializationFunction);
+                // Create and add layer to the network; its weights are read below, so skip initialization
+                Layer layer = Layer.fromWeights(layerSize, inputSize, new double[layerSize * inputSize],
+                        new double[layerSize], activationFunction, initializationFunction);
                 neuralNetwork.getLayers().add(layer);
             }
 
@@ -160,28 +279,25 @@ public class ModelPersistence {
                 } else if (line.startsWith("Neuron")) {
                     // Read neuron weights
                     int neuronIndex = Integer.parseInt(line.split(" ")[1]);
-                    Neuron neuron = layer.getNeurons()[neuronIndex];
+                    int inputSize = layer.getInputSize();
 
                     // Read weights
                     line = reader.readLine();
                     if (line != null && line.startsWith("Weights:")) {
                         String[] weightStrings = line.split(":")[1].split(",");
-                        for (int i = 0; i < neuron.getWeights().length; i++) {
-                            neuron.getWeights()[i] = Double.parseDouble(weightStrings[i]);
+                        double[] weights = layer.getWeights();
+                        for (int i = 0; i < inputSize; i++) {
+                            weights[neuronIndex * inputSize + i] = Double.parseDouble(weightStrings[i]);
                         }
                     }
 
                     // Read bias
                     line = reader.readLine();
                     if (line != null && line.startsWith("Bias:")) {
-                        neuron.setBias(Double.parseDouble(line.split(":")[1]));
+                        layer.setBias(neuronIndex, Double.parseDouble(line.split(":")[1]));
                     }
                 }
             }
-        } catch (IOException e) {
-            e.printStackTrace();
         }
-
-        System.out.println("Model loaded from " + fileName);
     }
 }
@@ -1,30 +1,176 @@
 package com.rts.jnn.utils;
 
 import com.rts.jnn.core.activation.ActivationFunction;
+import com.rts.jnn.core.activation.BentIdentityActivation;
+import com.rts.jnn.core.activation.ELUActivation;
+import com.rts.jnn.core.activation.FastELUActivation;
+import com.rts.jnn.core.activation.FastSigmoidActivation;
+import com.rts.jnn.core.activation.FastSwishActivation;
+import com.rts.jnn.core.activation.FastTanhActivation;
+import com.rts.jnn.core.activation.LeakyReLUActivation;
+import com.rts.jnn.core.activation.LinearActivation;
 import com.rts.jnn.core.activation.ReLUActivation;
 import com.rts.jnn.core.activation.SigmoidActivation;
+import com.rts.jnn.core.activation.SwishActivation;
 import com.rts.jnn.core.activation.TanhActivation;
+import com.rts.jnn.core.decay.DecayFunction;
+import com.rts.jnn.core.decay.ExponentialDecay;
+import com.rts.jnn.core.decay.InverseTimeDecay;
+import com.rts.jnn.core.decay.PolynomialDecay;
+import com.rts.jnn.core.decay.StepDecay;
 import com.rts.jnn.core.initialization.InitializationFunction;
+import com.rts.jnn.core.initialization.KaimingInitialization;
 import com.rts.jnn.core.initialization.LeCunInitialization;
+import com.rts.jnn.core.initialization.ScalingInitialization;
+import com.rts.jnn.core.initialization.SparseInitialization;
 import com.rts.jnn.core.initialization.XavierInitialization;
 
 public class Utils {
 
+    private static final double[] NO_PARAMETERS = new double[0];
+
     public static ActivationFunction getActivationFunctionByName(String name) {
+        return getActivationFunctionByName(name, NO_PARAMETERS);
+    }
+
+    /**
+     * Creates an activation function from its class name and parameters.
+     *
+     * @param name       Simple class name, e.g. {@code "SigmoidActivation"}
+     * @param parameters Parameters as returned by {@link #getActivationFunctionParameters(ActivationFunction)};
+     *                   missing parameters take their default values
+     * @return New activation function
+     * @throws IllegalArgumentException if the name is unknown
+     */
+    public static ActivationFunction getActivationFunctionByName(String name, double[] parameters) {
         return switch (name) {
             case "SigmoidActivation" -> new SigmoidActivation();
             case "ReLUActivation" -> new ReLUActivation();
             case "TanhActivation" -> new TanhActivation();
+            case "LinearActivation" -> new LinearActivation();
+            case "SwishActivation" -> new SwishActivation();
+            case "BentIdentityActivation" -> new BentIdentityActivation();
+            case "ELUActivation" -> parameters.length > 0
+                    ? new ELUActivation(parameters[0]) : new ELUActivation();
+            case "LeakyReLUActivation" -> parameters.length > 0
+                    ? new LeakyReLUActivation(parameters[0]) : new LeakyReLUActivation();
+            case "FastSigmoidActivation" -> new FastSigmoidActivation();
+            case "FastTanhActivation" -> new FastTanhActivation();
+            case "FastSwishActivation" -> new FastSwishActivation();
+            case "FastELUActivation" -> parameters.length > 0
+                    ? new FastELUActivation(parameters[0]) : new FastELUActivation();
             default -> throw new IllegalArgumentException("Unknown activation function: " + name);
         };
     }
 
+    /**
+     * Returns the parameters needed to recreate an activation function.
+     *
+     * @param function Activation function
+     * @return Parameters in constructor order, empty if the function has none
+     */
+    public static double[] getActivationFunctionParameters(ActivationFunction function) {
+        if (function instanceof ELUActivation) {
+            return new double[]{((ELUActivation) function).getAlpha()};
+        }
+        if (function instanceof LeakyReLUActivation) {
+            return new double[]{((LeakyReLUActivation) function).getAlpha()};
+        }
+        if (function instanceof FastELUActivation) {
+            return new double[]{((FastELUActivation) function).getAlpha()};
+        }
+        return NO_PARAMETERS;
+    }
+
     public static InitializationFunction getInitializationFunctionByName(String name) {
+        return getInitializationFunctionByName(name, NO_PARAMETERS);
+    }
+
+    /**
+     * Creates an initialization function from its class name and parameters.
+     *
+     * @param name       Simple class name, e.g. {@code "XavierInitialization"}
+     * @param parameters Parameters as returned by {@link #getInitializationFunctionParameters(InitializationFunction)};
+     *                   missing parameters take their default values
+     * @return New initialization function
+     * @throws IllegalArgumentException if the name is unknown
+     */
+    public static InitializationFunction getInitializationFunctionByName(String name, double[] parameters) {
         return switch (name) {
             case "XavierInitialization" -> new XavierInitialization();
             case "LeCunInitialization" -> new LeCunInitialization();
+            case "KaimingInitialization" -> new KaimingInitialization();
+            case "ScalingInitialization" -> new ScalingInitialization();
+            case "SparseInitialization" -> parameters.length > 0
+                    ? new SparseInitialization(parameters[0]) : new SparseInitialization();
             default -> throw new IllegalArgumentException("Unknown initialization function: " + name);
         };
     }
 
+    /**
+     * Returns the parameters needed to recreate an initialization function.
+     *
+     * @param function Initialization function
+     * @return Parameters in constructor order, empty if the function has none
+     */
+    public static double[] getInitializationFunctionParameters(InitializationFunction function) {
+        if (function instanceof SparseInitialization) {
+            return new double[]{((SparseInitialization) function).getSparsityLevel()};
+        }
+        return NO_PARAMETERS;
+    }
+
+    /**
+     * Creates a learning rate decay function from its class name and parameters.
+     *
+     * @param name       Simple class name, e.g. {@code "InverseTimeDecay"}
+     * @param parameters Parameters as returned by {@link #getDecayFunctionParameters(DecayFunction)}
+     * @return New decay function
+     * @throws IllegalArgumentException if the name is unknown or the parameters don't match it
+     */
+    public static DecayFunction getDecayFunctionByName(String name, double[] parameters) {
+        int expected = switch (name) {
+            case "ExponentialDecay", "InverseTimeDecay" -> 2;
+            case "StepDecay" -> 3;
+            case "PolynomialDecay" -> 4;
+            default -> throw new IllegalArgumentException("Unknown decay function: " + name);
+        };
+        if (parameters.length != expected) {
+            throw new IllegalArgumentException(name + " needs " + expected + " parameters, got: " + parameters.length);
+        }
+        return switch (name) {
+            case "ExponentialDecay" -> new ExponentialDecay(parameters[0], parameters[1]);
+            case "InverseTimeDecay" -> new InverseTimeDecay(parameters[0], parameters[1]);
+            case "StepDecay" -> new StepDecay(parameters[0], parameters[1], (int) parameters[2]);
+            default -> new PolynomialDecay(parameters[0], parameters[1], (int) parameters[2], parameters[3]);
+        };
+    }
+
+    /**
+     * Returns the parameters needed to recreate a decay function.
+     *
+     * @param function Decay function
+     * @return Record components in declaration order
+     * @throws IllegalArgumentException if the function is not one of the built-in decay functions
+     */
+    public static double[] getDecayFunctionParameters(DecayFunction function) {
+        if (function instanceof ExponentialDecay) {
+            ExponentialDecay decay = (ExponentialDecay) function;
+            return new double[]{decay.initialLearningRate(), decay.decayRate()};
+        }
+        if (function instanceof InverseTimeDecay) {
+            InverseTimeDecay decay = (InverseTimeDecay) function;
+            return new double[]{decay.initialLearningRate(), decay.decayRate()};
+        }
+        if (function instanceof StepDecay) {
+            StepDecay decay = (StepDecay) function;
+            return new double[]{decay.initialLearningRate(), decay.decayFactor(), decay.dropEvery()};
+        }
+        if (function instanceof PolynomialDecay) {
+            PolynomialDecay decay = (PolynomialDecay) function;
+            return new double[]{decay.initialLearningRate(), decay.endLearningRate(), decay.maxEpochs(), decay.power()};
+        }
+        throw new IllegalArgumentException("Can't save decay function: " + function.getClass().getName());
+    }
+
 }